@@ -384,6 +384,18 @@ def _squeak_graalvm_launcher(args):
     return launcher
 
 
+def _squeak_jmh(args):
+    """run JMH benchmarks against the test image"""
+    jdk = mx.get_jdk(tag='jvmci' if _compiler else None)
+    dists = ['GRAALSQUEAK', 'GRAALSQUEAK_BENCHMARKS', 'mx:JMH_1_21']
+    if not mx_truffle._is_graalvm(jdk):
+        dists.append('TRUFFLE_NFI')
+    vm_args = BASE_VM_ARGS + [
+        '-Dgraalsqueak.benchmark.image=%s' % _get_path_to_test_image()]
+    vm_args += mx.get_runtime_jvm_args(dists, jdk=jdk)
+    return mx.run_java(vm_args + ['org.openjdk.jmh.Main'] + args, jdk=jdk)
+
+
 def _graalsqueak_gate_runner(args, tasks):
     os.environ['MX_GATE'] = 'true'
     supports_coverage = '--jacocout' in sys.argv
@@ -523,6 +535,7 @@ mx_sdk.register_graalvm_component(mx_sdk.GraalVmLanguage(
 mx.update_commands(_suite, {
     'squeak': [_squeak, '[options]'],
     'squeak-gvm': [_squeak_graalvm_launcher, '[options]'],
+    'squeak-jmh': [_squeak_jmh, '[JMH options]'],
 })
 
 mx_gate.add_gate_runner(_suite, _graalsqueak_gate_runner)
@@ -125,6 +125,19 @@ suite = {
             "workingSets": "GraalSqueak",
             "testProject": True,
         },
+        "de.hpi.swa.graal.squeak.benchmarks": {
+            "subDir": "src",
+            "sourceDirs": ["src"],
+            "dependencies": [
+                "de.hpi.swa.graal.squeak",
+                "mx:JMH_1_21",
+            ],
+            "checkstyle": "de.hpi.swa.graal.squeak",
+            "javaCompliance": "8+",
+            "annotationProcessors": ["mx:JMH_1_21"],
+            "workingSets": "GraalSqueak",
+            "testProject": True,
+        },
         "de.hpi.swa.graal.squeak.test": {
             "subDir": "src",
             "sourceDirs": ["src"],
@@ -210,6 +223,18 @@ suite = {
             "maven": False,
         },
 
+        "GRAALSQUEAK_BENCHMARKS": {
+            "description": "JMH benchmarks",
+            "javaCompliance": "8+",
+            "dependencies": [
+                "de.hpi.swa.graal.squeak.benchmarks",
+            ],
+            "exclude": ["mx:JMH_1_21"],
+            "distDependencies": ["GRAALSQUEAK"],
+            "testDistribution": True,
+            "maven": False,
+        },
+
         "GRAALSQUEAK_TEST": {
             "description": "JUnit and SUnit tests",
             "javaCompliance": "8+",
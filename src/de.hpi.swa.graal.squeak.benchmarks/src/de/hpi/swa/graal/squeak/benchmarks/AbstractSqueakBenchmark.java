@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2017-2020 Software Architecture Group, Hasso Plattner Institute
+ *
+ * Licensed under the MIT License.
+ */
+package de.hpi.swa.graal.squeak.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.graalvm.polyglot.Context;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.hpi.swa.graal.squeak.SqueakLanguage;
+import de.hpi.swa.graal.squeak.image.SqueakImageContext;
+import de.hpi.swa.graal.squeak.shared.SqueakLanguageConfig;
+import de.hpi.swa.graal.squeak.shared.SqueakLanguageOptions;
+
+/**
+ * Base class for benchmarks that only need a {@link SqueakImageContext} (e.g. to allocate Squeak
+ * objects), but no actual image.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class AbstractSqueakBenchmark {
+    protected Context context;
+    protected SqueakImageContext image;
+
+    @Setup
+    public void setUpContext() {
+        context = Context.newBuilder(SqueakLanguageConfig.ID).allowAllAccess(true) //
+                        .option(SqueakLanguageConfig.ID + "." + SqueakLanguageOptions.IMAGE_PATH, "fake.image") //
+                        .option(SqueakLanguageConfig.ID + "." + SqueakLanguageOptions.HEADLESS, "true") //
+                        .option(SqueakLanguageConfig.ID + "." + SqueakLanguageOptions.TESTING, "true").build();
+        context.initialize(SqueakLanguageConfig.ID);
+        context.enter();
+        image = SqueakLanguage.getContext();
+    }
+
+    @TearDown
+    public void tearDownContext() {
+        context.leave();
+        context.close(true);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2017-2020 Software Architecture Group, Hasso Plattner Institute
+ *
+ * Licensed under the MIT License.
+ */
+package de.hpi.swa.graal.squeak.benchmarks;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.hpi.swa.graal.squeak.shared.SqueakLanguageConfig;
+import de.hpi.swa.graal.squeak.shared.SqueakLanguageOptions;
+
+/**
+ * Base class for benchmarks that run against the test image. The image is loaded once per fork. Its
+ * location can be set with `-Dgraalsqueak.benchmark.image=...`, otherwise `images/test-64bit.image`
+ * is searched for in the working directory and its parents.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class AbstractSqueakImageBenchmark {
+    private static final String IMAGE_PROPERTY = "graalsqueak.benchmark.image";
+    private static final String IMAGE_NAME = "test-64bit.image";
+
+    protected Context context;
+
+    @Setup(Level.Trial)
+    public void setUpImage() {
+        context = Context.newBuilder(SqueakLanguageConfig.ID).allowAllAccess(true) //
+                        .option(SqueakLanguageConfig.ID + "." + SqueakLanguageOptions.IMAGE_PATH, getPathToImage()) //
+                        .option(SqueakLanguageConfig.ID + "." + SqueakLanguageOptions.HEADLESS, "true") //
+                        .option(SqueakLanguageConfig.ID + "." + SqueakLanguageOptions.TESTING, "true").build();
+        context.initialize(SqueakLanguageConfig.ID);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownImage() {
+        context.close(true);
+    }
+
+    protected final Value evaluate(final String expression) {
+        return context.eval(SqueakLanguageConfig.ID, expression);
+    }
+
+    private static String getPathToImage() {
+        final String imagePath = System.getProperty(IMAGE_PROPERTY);
+        if (imagePath != null) {
+            return imagePath;
+        }
+        File currentDirectory = new File(System.getProperty("user.dir"));
+        while (currentDirectory != null) {
+            final File image = new File(new File(currentDirectory, "images"), IMAGE_NAME);
+            if (image.exists()) {
+                return image.getAbsolutePath();
+            }
+            currentDirectory = currentDirectory.getParentFile();
+        }
+        throw new IllegalStateException("Unable to locate " + IMAGE_NAME + " (set -D" + IMAGE_PROPERTY + ")");
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2017-2020 Software Architecture Group, Hasso Plattner Institute
+ *
+ * Licensed under the MIT License.
+ */
+package de.hpi.swa.graal.squeak.benchmarks;
+
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/** BitBlt>>#copyBits on headless Forms for common combination rules and depths. */
+public class BitBltBenchmark extends AbstractSqueakImageBenchmark {
+    @Param({"3", "24", "34"}) private int rule;
+    @Param({"8", "16", "32"}) private int depth;
+    @Param({"64", "512"}) private int extent;
+
+    private Value sourceForm;
+    private Value destForm;
+    private Value copy;
+    private Value fill;
+
+    @Setup
+    public void setUpForms() {
+        final Value newForm = evaluate("[:extent :depth :seed | | form | form := Form extent: extent @ extent depth: 32. " +
+                        "0 to: extent - 1 do: [:y | 0 to: extent - 1 do: [:x | form pixelValueAt: x @ y put: (x * seed + y) * 16r01030507 \\\\ 16rFFFFFFFF]]. " +
+                        "form asFormOfDepth: depth]");
+        sourceForm = newForm.execute(extent, 32, 3);
+        destForm = newForm.execute(extent, depth, 7);
+        copy = evaluate("[:source :dest :rule | (BitBlt toForm: dest) sourceForm: source; combinationRule: rule; destRect: dest boundingBox; copyBits]");
+        fill = evaluate("[:dest :rule | (BitBlt toForm: dest) fillColor: (Color r: 0.2 g: 0.4 b: 0.6 alpha: 0.5); combinationRule: rule; destRect: dest boundingBox; copyBits]");
+    }
+
+    @Benchmark
+    public Object copyBits() {
+        return copy.execute(sourceForm, destForm, rule);
+    }
+
+    @Benchmark
+    public Object fillBits() {
+        return fill.execute(destForm, rule);
+    }
+}
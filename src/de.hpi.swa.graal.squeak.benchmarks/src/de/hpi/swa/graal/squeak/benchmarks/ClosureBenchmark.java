@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2017-2020 Software Architecture Group, Hasso Plattner Institute
+ *
+ * Licensed under the MIT License.
+ */
+package de.hpi.swa.graal.squeak.benchmarks;
+
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Block closures: evaluation, closures that share outer temps, non-local returns from blocks
+ * passed down to other methods, and unwind blocks.
+ */
+public class ClosureBenchmark extends AbstractSqueakImageBenchmark {
+    private Value numbers;
+    private Value valueBlock;
+    private Value injectInto;
+    private Value sharedTemps;
+    private Value nonLocalReturns;
+    private Value ensureBlocks;
+
+    @Setup
+    public void setUpClosures() {
+        numbers = evaluate("(1 to: 10000) asArray");
+        valueBlock = evaluate("[:n | | block sum | block := [:x | x + 1]. sum := 0. 1 to: n do: [:i | sum := block value: sum]. sum]");
+        injectInto = evaluate("[:array | array inject: 0 into: [:a :b | a + b]]");
+        sharedTemps = evaluate("[:n | | counter blocks | counter := 0. blocks := (1 to: 100) collect: [:i | [counter := counter + i]]. " +
+                        "n timesRepeat: [blocks do: [:block | block value]]. counter]");
+        nonLocalReturns = evaluate("[:array | | hits | hits := 0. " +
+                        "1 to: 1000 do: [:i | (array detect: [:x | x > i] ifNone: [nil]) ifNotNil: [:x | hits := hits + 1]]. hits]");
+        ensureBlocks = evaluate("[:n | | count | count := 0. n timesRepeat: [[count := count + 1] ensure: [count := count + 1]]. count]");
+    }
+
+    @Benchmark
+    public Object blockValue() {
+        return valueBlock.execute(100000);
+    }
+
+    @Benchmark
+    public Object injectInto() {
+        return injectInto.execute(numbers);
+    }
+
+    @Benchmark
+    public Object sharedOuterTemps() {
+        return sharedTemps.execute(100);
+    }
+
+    @Benchmark
+    public Object nonLocalReturn() {
+        return nonLocalReturns.execute(numbers);
+    }
+
+    @Benchmark
+    public Object ensure() {
+        return ensureBlocks.execute(10000);
+    }
+}
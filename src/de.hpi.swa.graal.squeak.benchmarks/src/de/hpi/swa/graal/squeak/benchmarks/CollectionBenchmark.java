@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2017-2020 Software Architecture Group, Hasso Plattner Institute
+ *
+ * Licensed under the MIT License.
+ */
+package de.hpi.swa.graal.squeak.benchmarks;
+
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Setup;
+
+/** Collection and String code that mostly runs in primitives and storage strategies. */
+public class CollectionBenchmark extends AbstractSqueakImageBenchmark {
+    private Value shuffled;
+    private Value text;
+    private Value orderedCollection;
+    private Value sort;
+    private Value set;
+    private Value writeStream;
+    private Value search;
+    private Value replace;
+
+    @Setup
+    public void setUpCollections() {
+        shuffled = evaluate("(1 to: 10000) collect: [:i | i * 7919 \\\\ 10007]");
+        text = evaluate("| stream | stream := WriteStream on: String new. " +
+                        "1 to: 5000 do: [:i | stream nextPutAll: 'GraalSqueak'; print: i; space]. stream nextPutAll: 'needle'. stream contents");
+        orderedCollection = evaluate("[:n | | collection | collection := OrderedCollection new. 1 to: n do: [:i | collection addLast: i]. " +
+                        "[collection size > 1] whileTrue: [collection addFirst: collection removeFirst + collection removeLast]. collection first]");
+        sort = evaluate("[:array | array copy sort]");
+        set = evaluate("[:array | | elements | elements := array asSet. array count: [:each | elements includes: each + 1]]");
+        writeStream = evaluate("[:n | | stream | stream := WriteStream on: String new. 1 to: n do: [:i | stream print: i; space]. stream contents size]");
+        search = evaluate("[:string | (string indexOfSubCollection: 'needle') + (string occurrencesOf: $a)]");
+        replace = evaluate("[:string | (string copyReplaceAll: 'Squeak' with: 'Smalltalk') asUppercase size]");
+    }
+
+    @Benchmark
+    public Object orderedCollection() {
+        return orderedCollection.execute(10000);
+    }
+
+    @Benchmark
+    public Object sortArray() {
+        return sort.execute(shuffled);
+    }
+
+    @Benchmark
+    public Object setIncludes() {
+        return set.execute(shuffled);
+    }
+
+    @Benchmark
+    public Object writeStream() {
+        return writeStream.execute(10000);
+    }
+
+    @Benchmark
+    public Object searchString() {
+        return search.execute(text);
+    }
+
+    @Benchmark
+    public Object replaceInString() {
+        return replace.execute(text);
+    }
+}
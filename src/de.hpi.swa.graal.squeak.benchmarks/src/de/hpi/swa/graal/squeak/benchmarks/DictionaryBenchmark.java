@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2017-2020 Software Architecture Group, Hasso Plattner Institute
+ *
+ * Licensed under the MIT License.
+ */
+package de.hpi.swa.graal.squeak.benchmarks;
+
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Setup;
+
+/** Dictionary-heavy code that is dominated by hashing of Symbols and Strings. */
+public class DictionaryBenchmark extends AbstractSqueakImageBenchmark {
+    private Value symbols;
+    private Value strings;
+    private Value longStrings;
+    private Value fillAndLookUp;
+    private Value lookUpGlobals;
+
+    @Setup
+    public void setUpDictionaries() {
+        symbols = evaluate("(1 to: 1000) collect: [:i | ('key', i printString) asSymbol]");
+        strings = evaluate("(1 to: 1000) collect: [:i | 'key', i printString]");
+        longStrings = evaluate("(1 to: 1000) collect: [:i | (String new: 256 withAll: $x), i printString]");
+        fillAndLookUp = evaluate("[:keys | | dict sum | dict := Dictionary new. keys do: [:key | dict at: key put: key size]. " +
+                        "sum := 0. keys do: [:key | sum := sum + (dict at: key)]. sum]");
+        lookUpGlobals = evaluate("[:names | names inject: 0 into: [:count :name | (Smalltalk includesKey: name) ifTrue: [count + 1] ifFalse: [count]]]");
+    }
+
+    @Benchmark
+    public Object symbolKeys() {
+        return fillAndLookUp.execute(symbols);
+    }
+
+    @Benchmark
+    public Object stringKeys() {
+        return fillAndLookUp.execute(strings);
+    }
+
+    @Benchmark
+    public Object longStringKeys() {
+        return fillAndLookUp.execute(longStrings);
+    }
+
+    @Benchmark
+    public Object globalLookups() {
+        return lookUpGlobals.execute(symbols);
+    }
+}
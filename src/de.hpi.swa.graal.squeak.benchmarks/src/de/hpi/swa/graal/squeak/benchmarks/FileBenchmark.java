@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2017-2020 Software Architecture Group, Hasso Plattner Institute
+ *
+ * Licensed under the MIT License.
+ */
+package de.hpi.swa.graal.squeak.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+/** Reads and writes files and zip archives in a temporary directory through the FilePlugin. */
+public class FileBenchmark extends AbstractSqueakImageBenchmark {
+    @Param({"4096", "1048576"}) private int size;
+
+    private Path directory;
+    private String filePath;
+    private String archivePath;
+    private Value data;
+    private Value writeFile;
+    private Value readFile;
+    private Value writeArchive;
+    private Value readArchive;
+
+    @Setup
+    public void setUpFiles() throws IOException {
+        directory = Files.createTempDirectory("graalsqueak-benchmark");
+        filePath = directory.resolve("data.txt").toString();
+        archivePath = directory.resolve("data.zip").toString();
+        data = evaluate("[:size | | stream | stream := WriteStream on: (String new: size). " +
+                        "[stream position < size] whileTrue: [stream nextPutAll: 'GraalSqueak '; print: stream position \\\\ 997; space]. " +
+                        "stream contents first: size]").execute(size);
+        writeFile = evaluate("[:path :string | | file | file := FileStream forceNewFileNamed: path. [file nextPutAll: string] ensure: [file close]. string size]");
+        readFile = evaluate("[:path | | file | file := FileStream readOnlyFileNamed: path. [file upToEnd size] ensure: [file close]]");
+        writeArchive = evaluate("[:path :string | | archive | archive := ZipArchive new. " +
+                        "(archive addString: string as: 'data.txt') desiredCompressionMethod: ZipArchive compressionDeflated. " +
+                        "archive writeToFileNamed: path. archive close. string size]");
+        readArchive = evaluate("[:path | | archive | archive := ZipArchive new readFrom: path. [archive members first contents size] ensure: [archive close]]");
+        writeFile.execute(filePath, data);
+        writeArchive.execute(archivePath, data);
+    }
+
+    @TearDown
+    public void tearDownFiles() throws IOException {
+        Files.deleteIfExists(directory.resolve("data.txt"));
+        Files.deleteIfExists(directory.resolve("data.zip"));
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public Object writeFile() {
+        return writeFile.execute(filePath, data);
+    }
+
+    @Benchmark
+    public Object readFile() {
+        return readFile.execute(filePath);
+    }
+
+    @Benchmark
+    public Object writeZipArchive() {
+        return writeArchive.execute(archivePath, data);
+    }
+
+    @Benchmark
+    public Object readZipArchive() {
+        return readArchive.execute(archivePath);
+    }
+}
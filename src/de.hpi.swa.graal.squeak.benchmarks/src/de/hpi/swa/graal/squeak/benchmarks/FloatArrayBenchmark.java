@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2017-2020 Software Architecture Group, Hasso Plattner Institute
+ *
+ * Licensed under the MIT License.
+ */
+package de.hpi.swa.graal.squeak.benchmarks;
+
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Kernels of FloatArrayPlugin and Float64ArrayPlugin. The Float64Array variant requires an image
+ * that includes the Float64Array class.
+ */
+public class FloatArrayBenchmark extends AbstractSqueakImageBenchmark {
+    @Param({"FloatArray", "Float64Array"}) private String arrayClass;
+    @Param({"16", "1024", "65536"}) private int size;
+
+    private Value a;
+    private Value b;
+    private Value addSubArray;
+    private Value mulDivScalar;
+    private Value dotProduct;
+    private Value sum;
+    private Value length;
+    private Value normalize;
+    private Value minMax;
+
+    @Setup
+    public void setUpArrays() {
+        final Value newArray = evaluate("[:className :size :seed | | array | array := (Smalltalk at: className asSymbol) new: size. " +
+                        "1 to: size do: [:i | array at: i put: (i * seed) \\\\ 1000 / 100.0 + 1.0]. array]");
+        a = newArray.execute(arrayClass, size, 7);
+        b = newArray.execute(arrayClass, size, 13);
+        addSubArray = evaluate("[:x :y | x += y; -= y]");
+        mulDivScalar = evaluate("[:x | x *= 3.0; /= 3.0]");
+        dotProduct = evaluate("[:x :y | x dot: y]");
+        sum = evaluate("[:x | x sum]");
+        length = evaluate("[:x | x length]");
+        normalize = evaluate("[:x | x normalize]");
+        minMax = evaluate("[:x | x min + x max]");
+    }
+
+    @Benchmark
+    public Object addSubArray() {
+        return addSubArray.execute(a, b);
+    }
+
+    @Benchmark
+    public Object mulDivScalar() {
+        return mulDivScalar.execute(a);
+    }
+
+    @Benchmark
+    public Object dotProduct() {
+        return dotProduct.execute(a, b);
+    }
+
+    @Benchmark
+    public Object sum() {
+        return sum.execute(a);
+    }
+
+    @Benchmark
+    public Object length() {
+        return length.execute(a);
+    }
+
+    @Benchmark
+    public Object normalize() {
+        return normalize.execute(a);
+    }
+
+    @Benchmark
+    public Object minMax() {
+        return minMax.execute(a);
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2017-2020 Software Architecture Group, Hasso Plattner Institute
+ *
+ * Licensed under the MIT License.
+ */
+package de.hpi.swa.graal.squeak.benchmarks;
+
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Polyglot member access through {@link Value}. Cycling through more member names than the inline
+ * cache of the member lookup holds exercises the uncached (interned selector) lookup.
+ */
+public class InteropBenchmark extends AbstractSqueakImageBenchmark {
+    private static final String[] MEMBERS = {"size", "isEmpty", "notEmpty", "yourself", "isCollection", "isString", "isNil", "notNil", "isSequenceable",
+                    "capacity", "hash", "identityHash"};
+
+    private Value collection;
+    private Value integer;
+
+    @Setup
+    public void setUpReceivers() {
+        collection = evaluate("OrderedCollection withAll: #(1 2 3 4 5)");
+        integer = evaluate("42");
+    }
+
+    @Benchmark
+    public Object invokeMonomorphic() {
+        return collection.invokeMember("size");
+    }
+
+    @Benchmark
+    public Object invokeWithArgument() {
+        return collection.invokeMember("at_", 3);
+    }
+
+    @Benchmark
+    public void invokeManyMembers(final Blackhole blackhole) {
+        for (final String member : MEMBERS) {
+            blackhole.consume(collection.invokeMember(member));
+        }
+    }
+
+    @Benchmark
+    public boolean canInvokeMember() {
+        return collection.canInvokeMember("isEmpty");
+    }
+
+    @Benchmark
+    public Object readMember() {
+        return integer.getMember("factorial");
+    }
+}
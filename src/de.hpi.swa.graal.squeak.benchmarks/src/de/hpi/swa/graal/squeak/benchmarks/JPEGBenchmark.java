@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2017-2020 Software Architecture Group, Hasso Plattner Institute
+ *
+ * Licensed under the MIT License.
+ */
+package de.hpi.swa.graal.squeak.benchmarks;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+import de.hpi.swa.graal.squeak.nodes.plugins.JPEGReaderPlugin;
+
+/**
+ * Compares JPEGReadWriter of the test image, which decodes MCU by MCU through the JPEGReaderPlugin
+ * primitives, with whole-image decoding as used by primitiveDecodeImage.
+ */
+public class JPEGBenchmark extends AbstractSqueakImageBenchmark {
+    @Param({"256", "2048"}) private int size;
+
+    private byte[] jpegBytes;
+    private int[] bits;
+    private Value byteArray;
+    private Value readSmalltalk;
+
+    @Setup
+    public void setUpData() throws IOException {
+        final BufferedImage image = new BufferedImage(size, size * 3 / 4, BufferedImage.TYPE_INT_RGB);
+        final Graphics2D graphics = image.createGraphics();
+        graphics.setPaint(new GradientPaint(0, 0, Color.ORANGE, size, size, Color.BLUE));
+        graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+        graphics.dispose();
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpeg", stream);
+        jpegBytes = stream.toByteArray();
+        bits = new int[image.getWidth() * image.getHeight()];
+        byteArray = evaluate("[:size | ByteArray new: size]").execute(jpegBytes.length);
+        for (int i = 0; i < jpegBytes.length; i++) {
+            byteArray.setArrayElement(i, jpegBytes[i] & 0xFF);
+        }
+        readSmalltalk = evaluate("[:bytes | (JPEGReadWriter on: (ReadStream on: bytes)) nextImage]");
+    }
+
+    @Benchmark
+    public Object decodeSmalltalk() {
+        return readSmalltalk.execute(byteArray);
+    }
+
+    @Benchmark
+    public Object decodeImage() {
+        return JPEGReaderPlugin.decode(jpegBytes, bits, size, size * 3 / 4);
+    }
+
+    @Benchmark
+    public Object decodeThumbnail() {
+        return JPEGReaderPlugin.decode(jpegBytes, bits, size / 8, size * 3 / 32);
+    }
+}
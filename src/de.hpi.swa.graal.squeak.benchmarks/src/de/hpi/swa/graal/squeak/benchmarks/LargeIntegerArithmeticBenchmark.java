@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2017-2020 Software Architecture Group, Hasso Plattner Institute
+ *
+ * Licensed under the MIT License.
+ */
+package de.hpi.swa.graal.squeak.benchmarks;
+
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * LargeInteger arithmetic as the image does it, in contrast to {@link LargeIntegerBenchmark},
+ * which measures the model operations directly.
+ */
+public class LargeIntegerArithmeticBenchmark extends AbstractSqueakImageBenchmark {
+    @Param({"100", "1000"}) private int digits;
+
+    private Value operand;
+    private Value factorial;
+    private Value multiplyAndDivide;
+    private Value gcd;
+    private Value printString;
+
+    @Setup
+    public void setUpOperands() {
+        operand = evaluate("[:digits | (10 raisedTo: digits) - 12345]").execute(digits);
+        factorial = evaluate("[:n | n factorial]");
+        multiplyAndDivide = evaluate("[:x | (x * x + x) // (x - 1) \\\\ 1000000007]");
+        gcd = evaluate("[:x | x gcd: x // 3 + 7]");
+        printString = evaluate("[:x | x printString size]");
+    }
+
+    @Benchmark
+    public Object factorial() {
+        return factorial.execute(digits / 2);
+    }
+
+    @Benchmark
+    public Object multiplyAndDivide() {
+        return multiplyAndDivide.execute(operand);
+    }
+
+    @Benchmark
+    public Object gcd() {
+        return gcd.execute(operand);
+    }
+
+    @Benchmark
+    public Object printString() {
+        return printString.execute(operand);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2017-2020 Software Architecture Group, Hasso Plattner Institute
+ *
+ * Licensed under the MIT License.
+ */
+package de.hpi.swa.graal.squeak.benchmarks;
+
+import java.math.BigInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Setup;
+
+import de.hpi.swa.graal.squeak.model.LargeIntegerObject;
+
+/**
+ * Compares the 128-bit fast paths of {@link LargeIntegerObject} with the equivalent BigInteger
+ * operations for values in the 65-128 bit range (typical results of SmallInteger overflows).
+ */
+public class LargeIntegerBenchmark extends AbstractSqueakBenchmark {
+    private static final long LONG_A = 0x7EDC_BA98_7654_3210L;
+    private static final long LONG_B = 0x1234_5678_9ABC_DEF1L;
+
+    private LargeIntegerObject a;
+    private LargeIntegerObject b;
+    private BigInteger bigA;
+    private BigInteger bigB;
+
+    @Setup
+    public void setUpOperands() {
+        bigA = BigInteger.valueOf(LONG_A).shiftLeft(40).add(BigInteger.valueOf(LONG_B));
+        bigB = BigInteger.valueOf(LONG_B).shiftLeft(8).negate();
+        a = new LargeIntegerObject(image, bigA);
+        b = new LargeIntegerObject(image, bigB);
+    }
+
+    @Benchmark
+    public Object addLongsOverflow() {
+        return LargeIntegerObject.add(image, LONG_A, LONG_A);
+    }
+
+    @Benchmark
+    public Object addLongsOverflowBigInteger() {
+        return new LargeIntegerObject(image, BigInteger.valueOf(LONG_A).add(BigInteger.valueOf(LONG_A)));
+    }
+
+    @Benchmark
+    public Object multiplyLongsOverflow() {
+        return LargeIntegerObject.multiply(image, LONG_A, LONG_B);
+    }
+
+    @Benchmark
+    public Object multiplyLongsOverflowBigInteger() {
+        return new LargeIntegerObject(image, BigInteger.valueOf(LONG_A).multiply(BigInteger.valueOf(LONG_B)));
+    }
+
+    @Benchmark
+    public Object add() {
+        return a.add(b);
+    }
+
+    @Benchmark
+    public Object addBigInteger() {
+        return reduce(a.getBigInteger().add(b.getBigInteger()));
+    }
+
+    @Benchmark
+    public Object subtract() {
+        return a.subtract(b);
+    }
+
+    @Benchmark
+    public Object subtractBigInteger() {
+        return reduce(a.getBigInteger().subtract(b.getBigInteger()));
+    }
+
+    @Benchmark
+    public Object multiplyLong() {
+        return b.multiply(LONG_B);
+    }
+
+    @Benchmark
+    public Object multiplyLongBigInteger() {
+        return reduce(b.getBigInteger().multiply(BigInteger.valueOf(LONG_B)));
+    }
+
+    @Benchmark
+    public int compare() {
+        return a.compareTo(b);
+    }
+
+    @Benchmark
+    public int compareBigInteger() {
+        return a.getBigInteger().compareTo(b.getBigInteger());
+    }
+
+    @Benchmark
+    public Object shift() {
+        return b.shiftLeft(17);
+    }
+
+    @Benchmark
+    public Object shiftBigInteger() {
+        return reduce(b.getBigInteger().abs().shiftLeft(17).negate());
+    }
+
+    private Object reduce(final BigInteger value) {
+        return value.bitLength() < Long.SIZE ? (Object) value.longValue() : new LargeIntegerObject(image, value);
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2017-2020 Software Architecture Group, Hasso Plattner Institute
+ *
+ * Licensed under the MIT License.
+ */
+package de.hpi.swa.graal.squeak.benchmarks;
+
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+import de.hpi.swa.graal.squeak.nodes.plugins.SecureHashPlugin;
+
+/**
+ * Compares SecureHashAlgorithm (SHA-1 in Smalltalk, using the DSAPrims block primitives) of the
+ * test image with the digests and HMACs of {@link SecureHashPlugin}, called through its primitives
+ * from Smalltalk. The test image does not include Smalltalk implementations of SHA-256 or MD5.
+ */
+public class SecureHashBenchmark extends AbstractSqueakImageBenchmark {
+    @Param({"1024", "1048576"}) private int size;
+
+    private Value byteArray;
+    private Value sha1Smalltalk;
+    private Value sha1;
+    private Value sha256;
+    private Value sha512;
+    private Value md5;
+    private Value hmacSHA256;
+    private Value sha256Streaming;
+
+    @Setup
+    public void setUpData() {
+        installPrimitive("benchmarkDigest:of:", "benchmarkDigest: algorithm of: bytes", "primitiveDigest");
+        installPrimitive("benchmarkHMAC:key:of:", "benchmarkHMAC: algorithm key: key of: bytes", "primitiveHMAC");
+        installPrimitive("benchmarkCreateDigest:", "benchmarkCreateDigest: algorithm", "primitiveCreateDigest");
+        installPrimitive("benchmarkUpdate:with:from:to:", "benchmarkUpdate: handle with: bytes from: start to: stop", "primitiveUpdate");
+        installPrimitive("benchmarkFinish:", "benchmarkFinish: handle", "primitiveFinish");
+        installPrimitive("benchmarkDestroy:", "benchmarkDestroy: handle", "primitiveDestroy");
+        byteArray = evaluate("[:size | (ByteArray new: size) collect: [:each | 256 atRandom - 1]]").execute(size);
+        sha1Smalltalk = evaluate("[:bytes | SecureHashAlgorithm new hashStream: (ReadStream on: bytes)]");
+        sha1 = evaluate("[:bytes | nil benchmarkDigest: 'SHA-1' of: bytes]");
+        sha256 = evaluate("[:bytes | nil benchmarkDigest: 'SHA-256' of: bytes]");
+        sha512 = evaluate("[:bytes | nil benchmarkDigest: 'SHA-512' of: bytes]");
+        md5 = evaluate("[:bytes | nil benchmarkDigest: 'MD5' of: bytes]");
+        hmacSHA256 = evaluate("| key | key := (ByteArray new: 32) collect: [:each | 256 atRandom - 1]. [:bytes | nil benchmarkHMAC: 'SHA-256' key: key of: bytes]");
+        sha256Streaming = evaluate("[:bytes | | handle digest | handle := nil benchmarkCreateDigest: 'SHA-256'. " +
+                        "1 to: bytes size by: 4096 do: [:start | nil benchmarkUpdate: handle with: bytes from: start to: (start + 4095 min: bytes size)]. " +
+                        "digest := nil benchmarkFinish: handle. nil benchmarkDestroy: handle. digest]");
+    }
+
+    /* Adds a method to Object that calls the SecureHashPlugin primitive with the same arguments. */
+    private void installPrimitive(final String selector, final String pattern, final String primitive) {
+        final String source = pattern + " <primitive: ''" + primitive + "'' module: ''SecureHashPlugin''> ^ self primitiveFailed";
+        evaluate("Object addSelectorSilently: #" + selector + " withMethod: (Object compile: '" + source + "' notifying: nil trailer: (CompiledMethodTrailer empty) ifFail: [^ nil]) method");
+    }
+
+    @Benchmark
+    public Object sha1Smalltalk() {
+        return sha1Smalltalk.execute(byteArray);
+    }
+
+    @Benchmark
+    public Object sha1() {
+        return sha1.execute(byteArray);
+    }
+
+    @Benchmark
+    public Object sha256() {
+        return sha256.execute(byteArray);
+    }
+
+    @Benchmark
+    public Object sha512() {
+        return sha512.execute(byteArray);
+    }
+
+    @Benchmark
+    public Object md5() {
+        return md5.execute(byteArray);
+    }
+
+    @Benchmark
+    public Object hmacSHA256() {
+        return hmacSHA256.execute(byteArray);
+    }
+
+    @Benchmark
+    public Object sha256Streaming() {
+        return sha256Streaming.execute(byteArray);
+    }
+}
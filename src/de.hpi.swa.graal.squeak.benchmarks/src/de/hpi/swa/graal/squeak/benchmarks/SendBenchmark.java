@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2017-2020 Software Architecture Group, Hasso Plattner Institute
+ *
+ * Licensed under the MIT License.
+ */
+package de.hpi.swa.graal.squeak.benchmarks;
+
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Send-heavy code: recursive monomorphic sends, send sites that see a few or many receiver
+ * classes, and arithmetic through special selectors.
+ */
+public class SendBenchmark extends AbstractSqueakImageBenchmark {
+    private Value benchFib;
+    private Value countNumbers;
+    private Value polymorphicReceivers;
+    private Value megamorphicReceivers;
+    private Value specialSelectors;
+
+    @Setup
+    public void setUpSends() {
+        benchFib = evaluate("[:n | n benchFib]");
+        countNumbers = evaluate("[:objects | | count | count := 0. " +
+                        "1 to: 100 do: [:i | objects do: [:each | each isNumber ifTrue: [count := count + 1]]]. count]");
+        polymorphicReceivers = evaluate("(1 to: 30) collect: [:i | {i. i / 7.0. 'a'} at: i \\\\ 3 + 1]");
+        megamorphicReceivers = evaluate("(1 to: 30) collect: [:i | {i. i / 7.0. i / 7. 'a'. #a. $a. nil. true. #(). 1 @ 2. Object new. 1 -> 2} at: i \\\\ 12 + 1]");
+        specialSelectors = evaluate("[:n | | sum | sum := 0. 1 to: n do: [:i | sum := sum + (i * 3 \\\\ 7) - (i // 5) max: 0]. sum]");
+    }
+
+    @Benchmark
+    public Object monomorphicSends() {
+        return benchFib.execute(20);
+    }
+
+    @Benchmark
+    public Object polymorphicSends() {
+        return countNumbers.execute(polymorphicReceivers);
+    }
+
+    @Benchmark
+    public Object megamorphicSends() {
+        return countNumbers.execute(megamorphicReceivers);
+    }
+
+    @Benchmark
+    public Object specialSelectorSends() {
+        return specialSelectors.execute(100000);
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2017-2020 Software Architecture Group, Hasso Plattner Institute
+ *
+ * Licensed under the MIT License.
+ */
+package de.hpi.swa.graal.squeak.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+import de.hpi.swa.graal.squeak.nodes.plugins.Zip;
+
+/**
+ * Compares GZip decompression through the image (InflateStream and the {@link Zip} port of the
+ * InflatePlugin) with java.util.zip as used by primitiveInflateBytes, and measures the checksum
+ * primitives used by ZLib and GZip streams.
+ */
+public class ZipBenchmark extends AbstractSqueakImageBenchmark {
+    @Param({"65536", "1048576"}) private int size;
+
+    private Value data;
+    private Value compressed;
+    private byte[] compressedBytes;
+    private Value unzip;
+    private Value crc32;
+    private Value adler32;
+
+    @Setup
+    public void setUpData() {
+        data = evaluate("[:size | | stream | stream := WriteStream on: (String new: size). " +
+                        "[stream position < size] whileTrue: [stream nextPutAll: 'GraalSqueak '; print: stream position \\\\ 997; space]. " +
+                        "stream contents first: size]").execute(size);
+        compressed = evaluate("[:string | string zipped]").execute(data);
+        compressedBytes = compressed.asString().getBytes(StandardCharsets.ISO_8859_1);
+        unzip = evaluate("[:string | string unzipped]");
+        crc32 = evaluate("[:bytes | ZipWriteStream updateCrc: 16rFFFFFFFF from: 1 to: bytes size in: bytes]");
+        adler32 = evaluate("[:bytes | ZLibWriteStream updateAdler32: 1 from: 1 to: bytes size in: bytes]");
+        data = evaluate("[:string | string asByteArray]").execute(data);
+    }
+
+    @Benchmark
+    public Object inflateZipPlugin() {
+        return unzip.execute(compressed);
+    }
+
+    @Benchmark
+    public Object inflateJavaUtilZip() {
+        return Zip.inflate(compressedBytes, Zip.FORMAT_GZIP);
+    }
+
+    @Benchmark
+    public Object updateCrc32() {
+        return crc32.execute(data);
+    }
+
+    @Benchmark
+    public Object updateAdler32() {
+        return adler32.execute(data);
+    }
+}
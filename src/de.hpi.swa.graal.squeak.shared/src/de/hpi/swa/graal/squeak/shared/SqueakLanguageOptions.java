@@ -9,6 +9,10 @@ public final class SqueakLanguageOptions {
     public static final String CODE_FLAG = "--code";
     public static final String CODE_FLAG_SHORT = "-c";
     public static final String CODE_HELP = "Smalltalk code to be executed without display";
+    public static final String FRAMEBUFFER = "framebuffer";
+    public static final String FRAMEBUFFER_HELP = "Keep the Display bitmap in a framebuffer when running headless";
+    public static final String FRAMEBUFFER_PORT = "framebuffer-port";
+    public static final String FRAMEBUFFER_PORT_HELP = "Stream framebuffer updates to a client on this local port (0 picks a free port, requires framebuffer)";
     public static final String HEADLESS = "headless";
     public static final String HEADLESS_FLAG = "--" + HEADLESS;
     public static final String HEADLESS_HELP = "Run without a display";
@@ -23,9 +27,13 @@ public final class SqueakLanguageOptions {
     public static final String INTERRUPTS_HELP = "Disable interrupt handler";
     public static final String LOG_HANDLER_FLAG = "--log-handler";
     public static final String LOG_HANDLER_HELP = "Enable log handler (supported modes are 'mapped', 'file', 'err', 'out')";
+    public static final String PARALLEL_BITBLT = "parallel-bitblt";
+    public static final String PARALLEL_BITBLT_HELP = "Split large 32-bit BitBlt operations into row bands processed in parallel";
     public static final String QUIET = "quiet";
     public static final String QUIET_FLAG = "--" + QUIET;
     public static final String QUIET_HELP = "Operate quietly";
+    public static final String RESOLVER_HOSTS_FILE = "resolver-hosts-file";
+    public static final String RESOLVER_HOSTS_FILE_HELP = "Resolve host names listed in this hosts file without asking the name service";
     public static final String SIGNAL_INPUT_SEMAPHORE = "signal-input-semaphore";
     public static final String SIGNAL_INPUT_SEMAPHORE_HELP = "Signal the input semaphore";
     public static final String STACK_DEPTH_PROTECTION = "stack-depth-protection";
@@ -7,7 +7,10 @@ package de.hpi.swa.graal.squeak.test;
 
 import static org.junit.Assert.fail;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 
 import org.graalvm.polyglot.Context;
@@ -139,6 +142,7 @@ public abstract class AbstractSqueakTestCase {
         contextBuilder.option(SqueakLanguageConfig.ID + "." + SqueakLanguageOptions.IMAGE_PATH, imagePath);
         contextBuilder.option(SqueakLanguageConfig.ID + "." + SqueakLanguageOptions.HEADLESS, "true");
         contextBuilder.option(SqueakLanguageConfig.ID + "." + SqueakLanguageOptions.TESTING, "true");
+        contextBuilder.option(SqueakLanguageConfig.ID + "." + SqueakLanguageOptions.RESOLVER_HOSTS_FILE, createTestHostsFile());
 // contextBuilder.option(SqueakLanguageConfig.ID + "." + SqueakLanguageOptions.INTERCEPT_MESSAGES,
 // "true");
         final String logLevel = System.getProperty("log.level");
@@ -160,6 +164,18 @@ public abstract class AbstractSqueakTestCase {
         }
     }
 
+    /* Lets name resolver tests run without a network. */
+    private static String createTestHostsFile() {
+        try {
+            final Path hostsFile = Files.createTempFile("graalsqueak", ".hosts");
+            hostsFile.toFile().deleteOnExit();
+            Files.write(hostsFile, "10.11.12.13 graalsqueak.test\n".getBytes(StandardCharsets.UTF_8));
+            return hostsFile.toString();
+        } catch (final IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     protected static void destroyImageContext() {
         // Close context if existing (for reloading mechanism).
         context.close(true);
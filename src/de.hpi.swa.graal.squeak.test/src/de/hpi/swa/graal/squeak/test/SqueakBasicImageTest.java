@@ -5,16 +5,26 @@
  */
 package de.hpi.swa.graal.squeak.test;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
+
 import org.junit.FixMethodOrder;
 import org.junit.Test;
 import org.junit.runners.MethodSorters;
 
+import de.hpi.swa.graal.squeak.model.ArrayObject;
 import de.hpi.swa.graal.squeak.model.BooleanObject;
+import de.hpi.swa.graal.squeak.model.NativeObject;
+import de.hpi.swa.graal.squeak.model.NilObject;
 import de.hpi.swa.graal.squeak.shared.SqueakLanguageConfig;
+import de.hpi.swa.graal.squeak.tools.SendProfiler;
+import de.hpi.swa.graal.squeak.tools.SendProfilerInstrument;
 
 @FixMethodOrder(MethodSorters.NAME_ASCENDING)
 public class SqueakBasicImageTest extends AbstractSqueakTestCaseWithImage {
@@ -124,4 +134,227 @@ public class SqueakBasicImageTest extends AbstractSqueakTestCaseWithImage {
                         "Processor yield.\n" +
                         "result").toString());
     }
+
+    @Test
+    public void test14ParallelBitBltIsBitIdentical() {
+        /* Random blits and fills on 32-bit Forms, run sequentially and in row bands. */
+        final String blits = "| random source results |\n" +
+                        "random := Random seed: 42.\n" +
+                        "source := Form extent: 640 @ 480 depth: 32.\n" +
+                        "1 to: source bits size do: [:i | source bits at: i put: (random nextInt: 16r100000000) - 1].\n" +
+                        "results := OrderedCollection new.\n" +
+                        "#(0 3 24 34) do: [:rule | 1 to: 6 do: [:i | | dest |\n" +
+                        "  dest := Form extent: 640 @ 480 depth: 32.\n" +
+                        "  dest bits atAllPut: 16r80402010.\n" +
+                        "  (BitBlt toForm: dest)\n" +
+                        "    sourceForm: (i odd ifTrue: [source]);\n" +
+                        "    fillColor: (i odd ifFalse: [Color r: 0.1 g: 0.5 b: 0.9 alpha: 0.3]);\n" +
+                        "    combinationRule: rule;\n" +
+                        "    destOrigin: (random nextInt: 100) @ (random nextInt: 100);\n" +
+                        "    sourceOrigin: (random nextInt: 50) @ (random nextInt: 50);\n" +
+                        "    width: (random nextInt: 640); height: (random nextInt: 480);\n" +
+                        "    copyBits.\n" +
+                        "  results add: dest bits]].\n" +
+                        "results asArray";
+        final Object[] sequential;
+        final Object[] parallel;
+        try {
+            image.bitblt.setUseParallelBands(false);
+            sequential = ((ArrayObject) evaluate(blits)).getObjectStorage();
+            image.bitblt.setUseParallelBands(true);
+            parallel = ((ArrayObject) evaluate(blits)).getObjectStorage();
+        } finally {
+            image.bitblt.setUseParallelBands(image.options.enableParallelBitBlt);
+        }
+        assertEquals(sequential.length, parallel.length);
+        for (int i = 0; i < sequential.length; i++) {
+            assertArrayEquals("Blit #" + (i + 1), ((NativeObject) sequential[i]).getIntStorage(), ((NativeObject) parallel[i]).getIntStorage());
+        }
+    }
+
+    @Test
+    public void test15InlinedSpecialSelectorsMatchSends() {
+        /* Special selector bytecodes are inlined for SmallIntegers and SmallFloat64s, #perform: is not. */
+        assertEquals(BooleanObject.TRUE, evaluate("| values |\n" +
+                        "values := {0. 1. -7. 3. SmallInteger maxVal. SmallInteger minVal. 2.5. -0.5. 1.0e308. 1/3}.\n" +
+                        "values allSatisfy: [:a | values allSatisfy: [:b |\n" +
+                        "  (a + b) = (a perform: #+ with: b) and: [(a - b) = (a perform: #- with: b) and: [(a * b) = (a perform: #* with: b)\n" +
+                        "  and: [(a < b) = (a perform: #< with: b) and: [(a >= b) = (a perform: #>= with: b) and: [(a = b) = (a perform: #= with: b)\n" +
+                        "  and: [b isZero or: [(a / b) = (a perform: #/ with: b) and: [(b isInteger and: [a isInteger]) not\n" +
+                        "    or: [(a // b) = (a perform: #// with: b) and: [(a \\\\ b) = (a perform: #'\\\\' with: b)]]]]]]]]]]]]"));
+        assertEquals(BooleanObject.TRUE, evaluate("(1 bitShift: 62) = (1 perform: #bitShift: with: 62) and: [(1 bitShift: 64) = (1 perform: #bitShift: with: 64)]"));
+        assertEquals(BooleanObject.TRUE, evaluate("(3 @ 4) = (3 perform: #@ with: 4) and: [(12 bitAnd: 10) = 8 and: [(12 bitOr: 3) = 15]]"));
+    }
+
+    @Test
+    public void test16MegamorphicSendSite() {
+        /* The printString send in the block sees more receiver classes than a send site caches. */
+        final int sitesBefore = image.getMegamorphicSendSites();
+        assertEquals(BooleanObject.TRUE, evaluate("({1. $a. #b. 'c'. 2.5. nil. true. 1/2. #(3). 4@5} collect: [:each | each printString])\n" +
+                        "  = #('1' '$a' '#b' '''c''' '2.5' 'nil' 'true' '(1/2)' '#(3)' '4@5')"));
+        assertTrue(image.getMegamorphicSendSites() > sitesBefore);
+    }
+
+    @Test
+    public void test17DoItMethodsAreCached() {
+        assertSame(evaluate("thisContext method"), evaluate("thisContext method"));
+        for (int i = 0; i < 3; i++) {
+            /* Each evaluation runs in a fresh context. */
+            assertEquals(1L, evaluate("| x | x := (x ifNil: [0]) + 1. x"));
+        }
+    }
+
+    @Test
+    public void test18NonLocalReturns() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(2L, evaluate("#(1 2 3) detect: [:x | x > 1] ifNone: [0]"));
+            assertEquals(42L, evaluate("(Dictionary new at: #a put: 1; yourself) at: #b ifAbsent: [42]"));
+            assertEquals(3L, compilerEvaluate("#(1 2 3) do: [:x | x > 2 ifTrue: [^ x]]. 0"));
+        }
+    }
+
+    @Test
+    public void test19VMParametersCountProcessSwitches() {
+        final long switchesBefore = (long) evaluate("Smalltalk vmParameterAt: 56");
+        evaluate("| sema | sema := Semaphore new. [sema signal] fork. sema wait");
+        assertTrue((long) evaluate("Smalltalk vmParameterAt: 56") > switchesBefore);
+        assertTrue((long) evaluate("Smalltalk vmParameterAt: 44") >= 0);
+    }
+
+    @Test
+    public void test20ResolverUsesHostsFile() {
+        assertEquals(BooleanObject.TRUE, evaluate("(NetNameResolver addressForName: 'graalsqueak.test') = #[10 11 12 13]"));
+        assertEquals(BooleanObject.TRUE, evaluate("(NetNameResolver nameForAddress: #[10 11 12 13] timeout: 5) = 'graalsqueak.test'"));
+    }
+
+    @Test
+    public void test21SendProfileFailsWhenProfilerIsDisabled() {
+        patchSendProfile();
+        assertSame(NilObject.SINGLETON, evaluate("nil sendProfile"));
+    }
+
+    @Test
+    public void test22SendProfile() {
+        patchSendProfile();
+        final SendProfiler profiler = context.getEngine().getInstruments().get(SendProfilerInstrument.ID).lookup(SendProfiler.class);
+        profiler.setEnabled(true);
+        try {
+            profiler.reset();
+            evaluate("| objects | objects := {1. $a. #b. 'c'. 2.5. nil. true. 1/2. #(3). 4@5}. 1 to: 100 do: [:i | objects do: [:each | each printString]]");
+            final String[] printString = findSendSite(sendProfile(), "#printString");
+            assertTrue(printString[0], printString[0].matches("\\[\\] in .+>>.+@\\d+"));
+            assertEquals("1000", printString[2]);
+            assertEquals("mega", printString[4]);
+
+            profiler.reset();
+            /* SmallInteger>>#+ fails for fractions, SmallInteger>>#- is inlined. */
+            evaluate("| x | x := 1/2. 1 to: 1000 do: [:i | i - 1. i + x]");
+            final String report = sendProfile();
+            final String[] plus = findSendSite(report, "#+");
+            assertEquals("1000", plus[2]);
+            assertEquals("1", plus[4]);
+            assertTrue(plus[5], Long.parseLong(plus[5]) > 0);
+            final String method = plus[0].substring(0, plus[0].lastIndexOf('@'));
+            for (final String line : report.split("\\R")) {
+                assertFalse(line, line.startsWith(method + "@") && line.contains(" #- "));
+            }
+        } finally {
+            profiler.setEnabled(false);
+            profiler.reset();
+        }
+    }
+
+    @Test
+    public void test23SecureHashPlugin() {
+        patchSecureHashPrimitive("testDigest:of:", "testDigest: algorithm of: bytes", "primitiveDigest");
+        patchSecureHashPrimitive("testHMAC:key:of:", "testHMAC: algorithm key: key of: bytes", "primitiveHMAC");
+        patchSecureHashPrimitive("testCreateDigest:", "testCreateDigest: algorithm", "primitiveCreateDigest");
+        patchSecureHashPrimitive("testCreateHMAC:key:", "testCreateHMAC: algorithm key: key", "primitiveCreateHMAC");
+        patchSecureHashPrimitive("testUpdate:with:from:to:", "testUpdate: handle with: bytes from: start to: stop", "primitiveUpdate");
+        patchSecureHashPrimitive("testFinish:", "testFinish: handle", "primitiveFinish");
+        patchSecureHashPrimitive("testDestroy:", "testDestroy: handle", "primitiveDestroy");
+        final String sha256OfAbc = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+        final String md5OfEmpty = "d41d8cd98f00b204e9800998ecf8427e";
+        /* RFC 4231, test case 2. */
+        final String hmacSHA256OfJefe = "5bdcc146bf60754e6a042426089575c75a003f089d2739839dec58b964ec3843";
+        assertDigest(sha256OfAbc, evaluate("nil testDigest: 'SHA-256' of: 'abc'"));
+        assertDigest(md5OfEmpty, evaluate("nil testDigest: 'MD5' of: ''"));
+        assertDigest(hmacSHA256OfJefe, evaluate("nil testHMAC: 'SHA-256' key: 'Jefe' of: 'what do ya want for nothing?'"));
+        assertFailed(evaluate("nil testDigest: 'SHA-999' of: 'abc'"));
+
+        /* Finishing resets a handle for reuse, destroying it makes it unknown. */
+        final ArrayObject results = (ArrayObject) evaluate("| handle hmac | handle := nil testCreateDigest: 'SHA-256'. " +
+                        "hmac := nil testCreateHMAC: 'SHA-256' key: 'Jefe'. " +
+                        "nil testUpdate: hmac with: 'what do ya want for nothing?' from: 1 to: 28. " +
+                        "{nil testUpdate: handle with: 'xabcx' from: 2 to: 4; testFinish: handle. " +
+                        "nil testUpdate: handle with: 'abc' from: 1 to: 3; testFinish: handle. " +
+                        "nil testFinish: hmac. " +
+                        "nil testDestroy: handle. " +
+                        "nil testDestroy: handle. " +
+                        "nil testFinish: handle. " +
+                        "nil testUpdate: handle with: 'abc' from: 1 to: 3. " +
+                        "nil testDestroy: hmac}");
+        assertDigest(sha256OfAbc, results.getObject(0));
+        assertDigest(sha256OfAbc, results.getObject(1));
+        assertDigest(hmacSHA256OfJefe, results.getObject(2));
+        assertEquals(BooleanObject.TRUE, results.getObject(3));
+        assertEquals(BooleanObject.FALSE, results.getObject(4));
+        assertFailed(results.getObject(5));
+        assertFailed(results.getObject(6));
+        assertEquals(BooleanObject.TRUE, results.getObject(7));
+        assertFailed(evaluate("nil testFinish: 42"));
+    }
+
+    @Test
+    public void test24DoItMethodsWithMutableLiteralsOrGlobalsAreNotCached() {
+        assertNotSame(evaluate("#(1 2 3). thisContext method"), evaluate("#(1 2 3). thisContext method"));
+        assertNotSame(evaluate("'abc'. thisContext method"), evaluate("'abc'. thisContext method"));
+        assertNotSame(evaluate("Smalltalk. thisContext method"), evaluate("Smalltalk. thisContext method"));
+        for (int i = 0; i < 3; i++) {
+            /* Each evaluation starts from the literals in the source code. */
+            assertEquals(2L, evaluate("| array | array := #(1 2 3). array at: 1 put: array first + 1. array first"));
+            assertEquals("bxc", ((NativeObject) evaluate("| string | string := 'abc'. string at: 1 put: (string at: 2); at: 2 put: $x; yourself")).asStringUnsafe());
+        }
+    }
+
+    private static void patchSecureHashPrimitive(final String selector, final String pattern, final String primitive) {
+        patchMethod("Object", selector, pattern + " <primitive: ''" + primitive + "'' module: ''SecureHashPlugin''> ^ #failed");
+    }
+
+    private static void assertFailed(final Object result) {
+        assertSame(evaluate("#failed"), result);
+    }
+
+    private static void assertDigest(final String expectedHex, final Object digest) {
+        assertTrue(String.valueOf(digest), digest instanceof NativeObject);
+        final StringBuilder hex = new StringBuilder();
+        for (final byte b : ((NativeObject) digest).getByteStorage()) {
+            hex.append(String.format("%02x", b & 0xFF));
+        }
+        assertEquals(expectedHex, hex.toString());
+    }
+
+    private static void patchSendProfile() {
+        patchMethod("Object", "sendProfile", "sendProfile <primitive: ''primitiveSendProfile'' module: ''GraalSqueakPlugin''> ^ nil");
+    }
+
+    private static String sendProfile() {
+        final Object report = evaluate("nil sendProfile");
+        assertTrue(report instanceof NativeObject);
+        return ((NativeObject) report).asStringUnsafe();
+    }
+
+    /* Answers site, selector, sends, time, classes, primitive failures, and deopts of a row. */
+    private static String[] findSendSite(final String report, final String selector) {
+        for (final String line : report.split("\\R")) {
+            final String[] columns = line.trim().split("\\s+");
+            if (columns.length >= 7 && columns[columns.length - 6].equals(selector)) {
+                final String[] row = new String[7];
+                row[0] = String.join(" ", Arrays.copyOfRange(columns, 0, columns.length - 6));
+                System.arraycopy(columns, columns.length - 6, row, 1, 6);
+                return row;
+            }
+        }
+        throw new AssertionError("No send site for " + selector + " in:\n" + report);
+    }
 }
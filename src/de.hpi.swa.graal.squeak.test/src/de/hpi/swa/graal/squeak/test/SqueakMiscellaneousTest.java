@@ -5,13 +5,33 @@
  */
 package de.hpi.swa.graal.squeak.test;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.awt.image.BufferedImage;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Assume;
 import org.junit.Test;
 
 import de.hpi.swa.graal.squeak.image.SqueakImageChunk;
+import de.hpi.swa.graal.squeak.io.InputEventQueue;
+import de.hpi.swa.graal.squeak.io.SqueakHeadlessDisplay;
+import de.hpi.swa.graal.squeak.io.SqueakIOConstants.EVENT_TYPE;
+import de.hpi.swa.graal.squeak.io.SqueakIOConstants.MOUSE;
 import de.hpi.swa.graal.squeak.model.CompiledCodeObject;
 import de.hpi.swa.graal.squeak.model.FloatObject;
 import de.hpi.swa.graal.squeak.model.NilObject;
@@ -22,6 +42,7 @@ import de.hpi.swa.graal.squeak.nodes.bytecodes.MiscellaneousBytecodes.DupNode;
 import de.hpi.swa.graal.squeak.nodes.bytecodes.MiscellaneousBytecodes.PopNode;
 import de.hpi.swa.graal.squeak.nodes.bytecodes.PushBytecodes.PushConstantNode;
 import de.hpi.swa.graal.squeak.nodes.bytecodes.ReturnBytecodes.ReturnReceiverNode;
+import de.hpi.swa.graal.squeak.nodes.plugins.SubProcess;
 import de.hpi.swa.graal.squeak.util.SqueakBytecodeDecoder;
 import de.hpi.swa.graal.squeak.util.UnsafeUtils;
 
@@ -204,6 +225,131 @@ public class SqueakMiscellaneousTest extends AbstractSqueakTestCaseWithDummyImag
         assertTrue(nan instanceof FloatObject && ((FloatObject) nan).isNaN());
     }
 
+    @Test
+    public void testHeadlessDisplay() throws IOException {
+        final int width = 4;
+        final int height = 3;
+        final int[] bits = new int[width * height];
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] = 0xFF000000 | i;
+        }
+        final SqueakHeadlessDisplay display = new SqueakHeadlessDisplay(image, 0);
+        try {
+            display.setFramebuffer(bits, width, height);
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), display.getPort())) {
+                socket.setSoTimeout(10000);
+                final DataInputStream in = new DataInputStream(socket.getInputStream());
+                assertEquals(SqueakHeadlessDisplay.MAGIC, in.readInt());
+                assertEquals(SqueakHeadlessDisplay.MESSAGE_RESIZE, in.readInt());
+                assertEquals(width, in.readInt());
+                assertEquals(height, in.readInt());
+                assertUpdate(in, bits, width, 0, 0, width, height);
+                bits[width + 1] = 0xFFFF0000;
+                bits[width + 2] = 0xFF00FF00;
+                display.showDisplayRect(1, 3, 1, 2);
+                assertUpdate(in, bits, width, 1, 1, 2, 1);
+            }
+            final File png = File.createTempFile("display", ".png");
+            try {
+                display.writePNG(png);
+                final BufferedImage dumped = ImageIO.read(png);
+                assertEquals(width, dumped.getWidth());
+                assertEquals(height, dumped.getHeight());
+                assertArrayEquals(bits, dumped.getRGB(0, 0, width, height, null, 0, width));
+            } finally {
+                png.delete();
+            }
+        } finally {
+            display.close();
+        }
+    }
+
+    @Test
+    public void testInputEventQueue() {
+        final InputEventQueue queue = new InputEventQueue(4);
+        queue.offer(EVENT_TYPE.MOUSE, 1, 10, 10, 0, 0, 0, 1);
+        queue.offer(EVENT_TYPE.MOUSE, 2, 20, 20, 0, 0, 0, 1);
+        queue.offer(EVENT_TYPE.MOUSE, 3, 20, 20, MOUSE.RED, 0, 0, 1);
+        queue.offer(EVENT_TYPE.KEYBOARD, 4, 'a', 0, 0, 0, 0, 1);
+        queue.offer(EVENT_TYPE.MOUSE, 5, 30, 30, 0, 0, 0, 1);
+        assertEquals(5, queue.getDepth());
+        assertEquals(1, queue.getOverflowed());
+        assertEquals(2, queue.poll()[1]); // The first move is coalesced into the second.
+        assertEquals(3, queue.poll()[1]); // Button state changed, not coalesced.
+        assertEquals(4, queue.poll()[1]);
+        assertEquals(5, queue.poll()[1]); // Overflowing events are polled after the ring.
+        assertNull(queue.poll());
+        assertEquals(1, queue.getCoalesced());
+        assertEquals(0, queue.getDepth());
+    }
+
+    @Test
+    public void testInputEventQueueKeepsButtonEventsWhenFull() {
+        final InputEventQueue queue = new InputEventQueue(4);
+        queue.offer(EVENT_TYPE.MOUSE, 1, 10, 10, MOUSE.RED, 0, 0, 1);
+        for (int i = 2; i <= 10; i++) { // Drags beyond the capacity of the ring.
+            queue.offer(EVENT_TYPE.MOUSE, i, 10 + i, 10, MOUSE.RED, 0, 0, 1);
+        }
+        queue.offer(EVENT_TYPE.MOUSE, 11, 50, 10, 0, 0, 0, 1); // Mouse up.
+        queue.offer(EVENT_TYPE.KEYBOARD, 12, 'a', 0, 0, 0, 0, 1);
+        queue.offer(EVENT_TYPE.MOUSE, 13, 60, 10, 0, 0, 0, 1);
+        assertEquals(1, queue.poll()[1]); // The mouse down is kept although drags follow.
+        assertEquals(4, queue.poll()[1]); // Moves in the ring are coalesced.
+        assertEquals(10, queue.poll()[1]); // Overflowing moves are coalesced into the latest.
+        final long[] mouseUp = queue.poll();
+        assertEquals(11, mouseUp[1]);
+        assertEquals(0, mouseUp[4]);
+        assertEquals(12, queue.poll()[1]);
+        assertEquals(13, queue.poll()[1]);
+        assertNull(queue.poll());
+        assertEquals(4, queue.getOverflowed());
+        queue.offer(EVENT_TYPE.MOUSE, 14, 70, 10, MOUSE.RED, 0, 0, 1); // Back to the ring.
+        assertEquals(14, queue.poll()[1]);
+    }
+
+    @Test
+    public void testSubProcess() throws IOException, InterruptedException {
+        Assume.assumeTrue("requires a POSIX shell", new File("/bin/sh").canExecute());
+        final SubProcess subProcess = SubProcess.spawn(new String[]{"/bin/sh", "-c", "read line; echo \"$line $GREETEE\"; echo done >&2; exit 3"}, new File("/"),
+                        Collections.singletonMap("GREETEE", "world"), image.interrupt, 0, 0);
+        final ByteBuffer input = ByteBuffer.wrap("hello\n".getBytes(StandardCharsets.US_ASCII));
+        assertEquals(6, subProcess.getStdin().write(input));
+        subProcess.getStdin().close();
+        assertEquals("hello world\n", readUntilEnd(subProcess.getStdout()));
+        assertEquals("done\n", readUntilEnd(subProcess.getStderr()));
+        final long deadline = System.currentTimeMillis() + 10000;
+        while (!subProcess.hasExited() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(3, subProcess.getExitStatus());
+    }
+
+    private static String readUntilEnd(final SeekableByteChannel channel) throws IOException, InterruptedException {
+        final ByteBuffer buffer = ByteBuffer.allocate(64);
+        final long deadline = System.currentTimeMillis() + 10000;
+        int read;
+        while ((read = channel.read(buffer)) >= 0 && System.currentTimeMillis() < deadline) {
+            if (read == 0) {
+                Thread.sleep(10); // Reads never block.
+            }
+        }
+        assertEquals(channel.size(), channel.position()); // At end.
+        return new String(buffer.array(), 0, buffer.position(), StandardCharsets.US_ASCII);
+    }
+
+    private static void assertUpdate(final DataInputStream in, final int[] bits, final int width, final int x, final int y, final int w, final int h) throws IOException {
+        assertEquals(SqueakHeadlessDisplay.MESSAGE_UPDATE, in.readInt());
+        assertEquals(x, in.readInt());
+        assertEquals(y, in.readInt());
+        assertEquals(w, in.readInt());
+        assertEquals(h, in.readInt());
+        for (int row = y; row < y + h; row++) {
+            for (int column = x; column < x + w; column++) {
+                assertEquals(bits[row * width + column], in.readInt());
+            }
+        }
+    }
+
     private static SqueakImageChunk newFloatChunk(final byte[] data) {
         final SqueakImageChunk chunk = new SqueakImageChunk(
                         null,
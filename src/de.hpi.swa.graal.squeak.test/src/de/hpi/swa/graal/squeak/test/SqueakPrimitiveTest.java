@@ -5,13 +5,23 @@
  */
 package de.hpi.swa.graal.squeak.test;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.math.BigInteger;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
 
 import org.junit.Test;
 
@@ -20,7 +30,10 @@ import de.hpi.swa.graal.squeak.model.AbstractSqueakObject;
 import de.hpi.swa.graal.squeak.model.ArrayObject;
 import de.hpi.swa.graal.squeak.model.BooleanObject;
 import de.hpi.swa.graal.squeak.model.LargeIntegerObject;
+import de.hpi.swa.graal.squeak.model.NativeObject;
 import de.hpi.swa.graal.squeak.model.NilObject;
+import de.hpi.swa.graal.squeak.nodes.plugins.JPEGReaderPlugin;
+import de.hpi.swa.graal.squeak.nodes.plugins.Zip;
 
 public class SqueakPrimitiveTest extends AbstractSqueakTestCaseWithDummyImage {
     @Test
@@ -79,4 +92,126 @@ public class SqueakPrimitiveTest extends AbstractSqueakTestCaseWithDummyImage {
         assertEquals(wrapNode.executeWrap(Long.MAX_VALUE),
                         runBinaryPrimitive(22, wrapNode.executeWrap(new LargeIntegerObject(image, BigInteger.valueOf(Long.MAX_VALUE).add(BigInteger.ONE))), wrapNode.executeWrap(1L)));
     }
+
+    @Test
+    public void testLargeIntegerDigitAccess() {
+        final BigInteger value = BigInteger.ONE.shiftLeft(200).subtract(BigInteger.valueOf(12345));
+        final byte[] bigEndianBytes = value.toByteArray();
+        final LargeIntegerObject largeInteger = new LargeIntegerObject(image, value.negate());
+        assertEquals(25, largeInteger.size());
+        for (int i = 0; i < largeInteger.size(); i++) {
+            assertEquals(Byte.toUnsignedLong(bigEndianBytes[bigEndianBytes.length - 1 - i]), largeInteger.getNativeAt0(i));
+        }
+        /* Write digits one by one and check that arithmetic sees the updated magnitude. */
+        final LargeIntegerObject copy = new LargeIntegerObject(image, image.largeNegativeIntegerClass, largeInteger.size());
+        assertTrue(copy.isZero());
+        for (int i = 0; i < largeInteger.size(); i++) {
+            copy.setNativeAt0(i, largeInteger.getNativeAt0(i));
+        }
+        assertEquals(largeInteger, copy);
+        assertEquals(value.negate(), copy.getBigInteger());
+        assertEquals(largeInteger.bitLength(), copy.bitLength());
+        copy.setNativeAt0(0, 0);
+        assertEquals(value.negate().add(BigInteger.valueOf(12345 & 0xFF)), copy.getBigInteger());
+        /* Negative powers of two do not need a bit for the sign. */
+        final LargeIntegerObject minValue = new LargeIntegerObject(image, image.largeNegativeIntegerClass, 8);
+        minValue.setNativeAt0(7, 0x80);
+        assertEquals(Long.MIN_VALUE, minValue.reduceIfPossible());
+    }
+
+    @Test
+    public void testLargeInteger128BitArithmetic() {
+        final Random random = new Random(42);
+        for (int i = 0; i < 1000; i++) {
+            final BigInteger a = randomLargeValue(random);
+            final BigInteger b = randomLargeValue(random);
+            final long l = random.nextLong();
+            final int shift = random.nextInt(200) - 100;
+            final LargeIntegerObject largeA = new LargeIntegerObject(image, a);
+            final LargeIntegerObject largeB = new LargeIntegerObject(image, b);
+            assertEquals(a.add(b), toBigInteger(largeA.add(largeB)));
+            assertEquals(a.subtract(b), toBigInteger(largeA.subtract(largeB)));
+            assertEquals(a.multiply(b), toBigInteger(largeA.multiply(largeB)));
+            assertEquals(a.add(BigInteger.valueOf(l)), toBigInteger(largeA.add(l)));
+            assertEquals(a.subtract(BigInteger.valueOf(l)), toBigInteger(largeA.subtract(l)));
+            assertEquals(BigInteger.valueOf(l).subtract(a), toBigInteger(LargeIntegerObject.subtract(l, largeA)));
+            assertEquals(a.multiply(BigInteger.valueOf(l)), toBigInteger(largeA.multiply(l)));
+            assertEquals(a.compareTo(b), largeA.compareTo(largeB));
+            final BigInteger shifted = shift < 0 ? a.abs().shiftRight(-shift) : a.abs().shiftLeft(shift);
+            assertEquals(a.signum() < 0 ? shifted.negate() : shifted, toBigInteger(largeA.shiftLeft(shift)));
+            final long m = random.nextLong();
+            assertEquals(BigInteger.valueOf(l).add(BigInteger.valueOf(m)), toBigInteger(LargeIntegerObject.add(image, l, m)));
+            assertEquals(BigInteger.valueOf(l).subtract(BigInteger.valueOf(m)), toBigInteger(LargeIntegerObject.subtract(image, l, m)));
+            assertEquals(BigInteger.valueOf(l).multiply(BigInteger.valueOf(m)), toBigInteger(LargeIntegerObject.multiply(image, l, m)));
+        }
+    }
+
+    @Test
+    public void testZipChecksumsAndBuffers() {
+        final Random random = new Random(42);
+        final byte[] bytes = new byte[100000];
+        random.nextBytes(bytes);
+        final NativeObject collection = image.asByteArray(bytes);
+        for (int i = 0; i < 100; i++) {
+            final int start = 1 + random.nextInt(bytes.length / 2);
+            final int stop = start + random.nextInt(bytes.length / 2);
+            final long crc = random.nextInt() & 0xFFFFFFFFL;
+            final long adler = (long) random.nextInt(65521) << 16 | random.nextInt(65521);
+            /* Steps shorter than 64 bytes use the table-driven loops of the InflatePlugin port. */
+            long steppedCrc = crc;
+            long steppedAdler = adler;
+            for (int index = start; index <= stop; index += 32) {
+                final int stepStop = Math.min(stop, index + 31);
+                steppedCrc = Zip.primitiveUpdateGZipCrc32(collection, index, stepStop, steppedCrc);
+                steppedAdler = Zip.primitiveUpdateAdler32(steppedAdler, index, stepStop, collection);
+            }
+            assertEquals(steppedCrc, Zip.primitiveUpdateGZipCrc32(collection, start, stop, crc));
+            assertEquals(steppedAdler, Zip.primitiveUpdateAdler32(adler, start, stop, collection));
+        }
+        for (final int format : new int[]{Zip.FORMAT_RAW, Zip.FORMAT_ZLIB, Zip.FORMAT_GZIP}) {
+            assertArrayEquals(bytes, Zip.inflate(Zip.deflate(bytes, format, 6), format));
+        }
+        assertNull(Zip.inflate(new byte[]{1, 2, 3}, Zip.FORMAT_ZLIB));
+    }
+
+    @Test
+    public void testJPEGDecodeImage() throws IOException {
+        final BufferedImage source = new BufferedImage(64, 48, BufferedImage.TYPE_INT_RGB);
+        final Graphics2D graphics = source.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, 64, 48);
+        graphics.setColor(Color.BLACK);
+        graphics.fillRect(32, 24, 32, 24);
+        graphics.dispose();
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        ImageIO.write(source, "jpeg", stream);
+        final byte[] jpegBytes = stream.toByteArray();
+        assertArrayEquals(new int[]{64, 48}, JPEGReaderPlugin.readExtent(jpegBytes));
+        final int[] bits = new int[64 * 48];
+        assertTrue(JPEGReaderPlugin.decode(jpegBytes, bits, 64, 48));
+        assertEquals(0xFFFFFFFF, bits[0]);
+        assertEquals(0xFF000000, bits[bits.length - 1]);
+        final int[] thumbnail = new int[16 * 12]; // Subsampled by four.
+        assertTrue(JPEGReaderPlugin.decode(jpegBytes, thumbnail, 16, 12));
+        assertEquals(0xFFFFFFFF, thumbnail[0]);
+        assertEquals(0xFF000000, thumbnail[thumbnail.length - 1]);
+        assertFalse(JPEGReaderPlugin.decode(jpegBytes, new int[20 * 12], 20, 12));
+        assertFalse(JPEGReaderPlugin.decode(new byte[]{1, 2, 3}, bits, 64, 48));
+    }
+
+    private static BigInteger randomLargeValue(final Random random) {
+        final BigInteger value = new BigInteger(Long.SIZE + random.nextInt(Long.SIZE + 8), random).setBit(Long.SIZE);
+        return random.nextBoolean() ? value : value.negate();
+    }
+
+    private static BigInteger toBigInteger(final Object value) {
+        if (value instanceof Long) {
+            return BigInteger.valueOf((long) value);
+        } else {
+            final LargeIntegerObject largeInteger = (LargeIntegerObject) value;
+            assertEquals(largeInteger.isNegative(), largeInteger.getBigInteger().signum() < 0);
+            assertTrue("non-normalized large integer", largeInteger.bitLength() >= Long.SIZE);
+            return largeInteger.getBigInteger();
+        }
+    }
 }
@@ -29,6 +29,8 @@ import de.hpi.swa.graal.squeak.interop.SqueakFileDetector;
 import de.hpi.swa.graal.squeak.interop.WrapToSqueakNode;
 import de.hpi.swa.graal.squeak.model.CompiledCodeObject;
 import de.hpi.swa.graal.squeak.model.FrameMarker;
+import de.hpi.swa.graal.squeak.nodes.PrimitiveFailedNode.PrimitiveFailedTag;
+import de.hpi.swa.graal.squeak.nodes.SpecialSelectorSentNode.SpecialSelectorSentTag;
 import de.hpi.swa.graal.squeak.nodes.SqueakGuards;
 import de.hpi.swa.graal.squeak.nodes.accessing.SqueakObjectClassNode;
 import de.hpi.swa.graal.squeak.shared.SqueakLanguageConfig;
@@ -46,7 +48,7 @@ import de.hpi.swa.graal.squeak.util.MiscUtils;
                 internal = false, //
                 name = SqueakLanguageConfig.NAME, //
                 version = SqueakLanguageConfig.VERSION)
-@ProvidedTags({StandardTags.StatementTag.class, StandardTags.CallTag.class, StandardTags.RootTag.class, DebuggerTags.AlwaysHalt.class})
+@ProvidedTags({StandardTags.StatementTag.class, StandardTags.CallTag.class, StandardTags.RootTag.class, DebuggerTags.AlwaysHalt.class, PrimitiveFailedTag.class, SpecialSelectorSentTag.class})
 public final class SqueakLanguage extends TruffleLanguage<SqueakImageContext> {
 
     @Override
@@ -26,15 +26,27 @@ public final class SqueakOptions {
     @Option(name = SqueakLanguageOptions.IMAGE_ARGUMENTS, category = OptionCategory.USER, stability = OptionStability.EXPERIMENTAL, help = SqueakLanguageOptions.IMAGE_ARGUMENTS_HELP)//
     public static final OptionKey<String> ImageArguments = new OptionKey<>("");
 
+    @Option(name = SqueakLanguageOptions.FRAMEBUFFER, category = OptionCategory.USER, stability = OptionStability.EXPERIMENTAL, help = SqueakLanguageOptions.FRAMEBUFFER_HELP)//
+    public static final OptionKey<Boolean> Framebuffer = new OptionKey<>(false);
+
+    @Option(name = SqueakLanguageOptions.FRAMEBUFFER_PORT, category = OptionCategory.USER, stability = OptionStability.EXPERIMENTAL, help = SqueakLanguageOptions.FRAMEBUFFER_PORT_HELP)//
+    public static final OptionKey<Integer> FramebufferPort = new OptionKey<>(-1);
+
     @Option(name = SqueakLanguageOptions.HEADLESS, category = OptionCategory.USER, stability = OptionStability.STABLE, help = SqueakLanguageOptions.HEADLESS_HELP)//
     public static final OptionKey<Boolean> Headless = new OptionKey<>(false);
 
+    @Option(name = SqueakLanguageOptions.PARALLEL_BITBLT, category = OptionCategory.USER, stability = OptionStability.EXPERIMENTAL, help = SqueakLanguageOptions.PARALLEL_BITBLT_HELP)//
+    public static final OptionKey<Boolean> ParallelBitBlt = new OptionKey<>(false);
+
     @Option(name = SqueakLanguageOptions.QUIET, category = OptionCategory.USER, stability = OptionStability.STABLE, help = SqueakLanguageOptions.QUIET_HELP)//
     public static final OptionKey<Boolean> Quiet = new OptionKey<>(true);
 
     @Option(name = SqueakLanguageOptions.INTERRUPTS, category = OptionCategory.USER, stability = OptionStability.STABLE, help = SqueakLanguageOptions.INTERRUPTS_HELP)//
     public static final OptionKey<Boolean> Interrupts = new OptionKey<>(false);
 
+    @Option(name = SqueakLanguageOptions.RESOLVER_HOSTS_FILE, category = OptionCategory.INTERNAL, stability = OptionStability.EXPERIMENTAL, help = SqueakLanguageOptions.RESOLVER_HOSTS_FILE_HELP)//
+    public static final OptionKey<String> ResolverHostsFile = new OptionKey<>("");
+
     @Option(name = SqueakLanguageOptions.SIGNAL_INPUT_SEMAPHORE, category = OptionCategory.INTERNAL, stability = OptionStability.EXPERIMENTAL, help = SqueakLanguageOptions.SIGNAL_INPUT_SEMAPHORE_HELP)//
     public static final OptionKey<Boolean> SignalInputSemaphore = new OptionKey<>(false);
 
@@ -61,12 +73,16 @@ public final class SqueakOptions {
         public final String imagePath;
         public final String[] imageArguments;
         public final boolean isHeadless;
+        public final boolean useFramebuffer;
+        public final int framebufferPort;
         public final boolean isQuiet;
         public final boolean disableInterruptHandler;
         public final boolean disableStartup;
+        public final boolean enableParallelBitBlt;
         public final boolean enableStackDepthProtection;
         public final boolean enableStorageStrategies;
         public final boolean isTesting;
+        public final String resolverHostsFile;
         public final boolean signalInputSemaphore;
 
         public SqueakContextOptions(final Env env) {
@@ -74,10 +90,14 @@ public final class SqueakOptions {
             imagePath = options.get(ImagePath);
             imageArguments = options.get(ImageArguments).isEmpty() ? new String[0] : options.get(ImageArguments).split(",");
             isHeadless = options.get(Headless);
+            useFramebuffer = options.get(Framebuffer);
+            framebufferPort = options.get(FramebufferPort);
             isQuiet = options.get(Quiet);
             disableInterruptHandler = options.get(Interrupts);
             disableStartup = options.get(Startup);
+            resolverHostsFile = options.get(ResolverHostsFile);
             signalInputSemaphore = options.get(SignalInputSemaphore);
+            enableParallelBitBlt = options.get(ParallelBitBlt);
             enableStackDepthProtection = options.get(StackDepthProtection);
             enableStorageStrategies = options.get(StorageStrategies);
             isTesting = options.get(Testing);
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2017-2020 Software Architecture Group, Hasso Plattner Institute
+ *
+ * Licensed under the MIT License.
+ */
+package de.hpi.swa.graal.squeak.image;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.oracle.truffle.api.Assumption;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+import de.hpi.swa.graal.squeak.model.ArrayObject;
+import de.hpi.swa.graal.squeak.model.ClassObject;
+import de.hpi.swa.graal.squeak.model.CompiledMethodObject;
+import de.hpi.swa.graal.squeak.model.FloatObject;
+import de.hpi.swa.graal.squeak.model.LargeIntegerObject;
+import de.hpi.swa.graal.squeak.model.NativeObject;
+import de.hpi.swa.graal.squeak.model.PointersObject;
+
+/**
+ * Recently compiled doIt methods, keyed by source code. All doIts are compiled for nil, so the
+ * source code alone determines the method. Reusing a doIt method reuses its call target, so that
+ * the same expression evaluated repeatedly gets compiled by Truffle instead of being compiled by
+ * the Smalltalk compiler every time. An entry is dropped when the Parser or Compiler class changes.
+ * Methods with literals that can be modified, such as literal arrays or strings, are not cached,
+ * because every evaluation must start from the literals in the source code. Neither are methods
+ * that refer to globals, because a global can be rebound to a new binding after compilation.
+ */
+final class DoItMethodCache {
+    private static final int MAX_ENTRIES = 64;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private static final class Entry {
+        private final CompiledMethodObject method;
+        private final Assumption[] assumptions;
+
+        private Entry(final CompiledMethodObject method, final Assumption[] assumptions) {
+            this.method = method;
+            this.assumptions = assumptions;
+        }
+
+        private boolean isValid() {
+            for (final Assumption assumption : assumptions) {
+                if (!assumption.isValid()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /** Answers the cached doIt method for `source` or `null`. */
+    @TruffleBoundary
+    CompiledMethodObject get(final String source) {
+        final Entry entry = entries.get(source);
+        if (entry == null) {
+            return null;
+        } else if (!entry.isValid()) {
+            entries.remove(source);
+            return null;
+        } else {
+            return entry.method;
+        }
+    }
+
+    @TruffleBoundary
+    void put(final String source, final CompiledMethodObject method, final ClassObject... compilerClasses) {
+        if (!isCacheable(method)) {
+            return;
+        }
+        final Assumption[] assumptions = new Assumption[compilerClasses.length * 2];
+        for (int i = 0; i < compilerClasses.length; i++) {
+            assumptions[i * 2] = compilerClasses[i].getMethodDictStable();
+            assumptions[i * 2 + 1] = compilerClasses[i].getClassHierarchyStable();
+        }
+        entries.put(source, new Entry(method, assumptions));
+    }
+
+    private static boolean isCacheable(final CompiledMethodObject method) {
+        final Object[] literals = method.getLiterals();
+        /* The last literal is the binding of the method class, which is not a global. */
+        for (int i = 0; i < literals.length - 1; i++) {
+            final Object literal = literals[i];
+            if (literal instanceof ArrayObject || literal instanceof FloatObject || literal instanceof LargeIntegerObject ||
+                            literal instanceof NativeObject && !((NativeObject) literal).isByteSymbol() || literal instanceof PointersObject) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
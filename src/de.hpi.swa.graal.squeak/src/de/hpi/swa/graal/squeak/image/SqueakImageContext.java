@@ -16,6 +16,7 @@ import java.nio.file.Paths;
 import java.util.logging.Level;
 
 import org.graalvm.collections.EconomicMap;
+import org.graalvm.collections.Equivalence;
 
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
@@ -37,6 +38,7 @@ import de.hpi.swa.graal.squeak.interop.LookupMethodByStringNode;
 import de.hpi.swa.graal.squeak.io.DisplayPoint;
 import de.hpi.swa.graal.squeak.io.SqueakDisplay;
 import de.hpi.swa.graal.squeak.io.SqueakDisplayInterface;
+import de.hpi.swa.graal.squeak.io.SqueakHeadlessDisplay;
 import de.hpi.swa.graal.squeak.model.AbstractSqueakObject;
 import de.hpi.swa.graal.squeak.model.AbstractSqueakObjectWithClassAndHash;
 import de.hpi.swa.graal.squeak.model.ArrayObject;
@@ -64,8 +66,11 @@ import de.hpi.swa.graal.squeak.nodes.accessing.AbstractPointersObjectNodes.Abstr
 import de.hpi.swa.graal.squeak.nodes.plugins.B2D;
 import de.hpi.swa.graal.squeak.nodes.plugins.BitBlt;
 import de.hpi.swa.graal.squeak.nodes.plugins.JPEGReader;
+import de.hpi.swa.graal.squeak.nodes.plugins.SecureHashPlugin.SecureHash;
 import de.hpi.swa.graal.squeak.nodes.plugins.SqueakSSL.SqSSL;
+import de.hpi.swa.graal.squeak.nodes.plugins.SubProcess;
 import de.hpi.swa.graal.squeak.nodes.plugins.Zip;
+import de.hpi.swa.graal.squeak.nodes.plugins.network.Resolver;
 import de.hpi.swa.graal.squeak.nodes.plugins.network.SqueakSocket;
 import de.hpi.swa.graal.squeak.shared.SqueakImageLocator;
 import de.hpi.swa.graal.squeak.shared.SqueakLanguageConfig;
@@ -73,6 +78,7 @@ import de.hpi.swa.graal.squeak.util.ArrayUtils;
 import de.hpi.swa.graal.squeak.util.DebugUtils;
 import de.hpi.swa.graal.squeak.util.InterruptHandlerState;
 import de.hpi.swa.graal.squeak.util.LoggerWrapper;
+import de.hpi.swa.graal.squeak.util.MegamorphicLookupTable;
 import de.hpi.swa.graal.squeak.util.MiscUtils;
 
 public final class SqueakImageContext {
@@ -149,17 +155,28 @@ public final class SqueakImageContext {
     @CompilationFinal private ClassObject compilerClass = null;
     @CompilationFinal private ClassObject parserClass = null;
     @CompilationFinal private PointersObject parserSharedInstance = null;
+    private final DoItMethodCache doItMethodCache = new DoItMethodCache();
     @CompilationFinal private PointersObject scheduler = null;
     @CompilationFinal private ClassObject wideStringClass = null;
 
+    /* Interop */
+    private final EconomicMap<String, NativeObject> interopSelectors = EconomicMap.create();
+
+    /* Send sites with too many receiver classes share one lookup table per selector. */
+    private final EconomicMap<NativeObject, MegamorphicLookupTable> megamorphicLookupTables = EconomicMap.create(Equivalence.IDENTITY);
+    private int megamorphicSendSites = 0;
+
     /* Plugins */
     public final B2D b2d = new B2D(this);
     public final BitBlt bitblt = new BitBlt();
     public String[] dropPluginFileList = new String[0];
     public final EconomicMap<Long, SeekableByteChannel> filePluginHandles = EconomicMap.create();
     public final JPEGReader jpegReader = new JPEGReader();
+    public final Resolver resolver;
+    public final EconomicMap<Long, SecureHash> secureHashHandles = EconomicMap.create();
     public final EconomicMap<Long, SqueakSocket> socketPluginHandles = EconomicMap.create();
     public final EconomicMap<Long, SqSSL> squeakSSLHandles = EconomicMap.create();
+    public final EconomicMap<Long, SubProcess> subProcessHandles = EconomicMap.create();
     public final Zip zip = new Zip();
 
     /* Error detection for headless execution */
@@ -174,6 +191,8 @@ public final class SqueakImageContext {
         options = new SqueakContextOptions(env);
         isHeadless = options.isHeadless;
         interrupt = InterruptHandlerState.create(this);
+        resolver = new Resolver(interrupt, options.resolverHostsFile);
+        bitblt.setUseParallelBands(options.enableParallelBitBlt);
         allocationReporter = env.lookup(AllocationReporter.class);
 // SqueakMessageInterceptor.enableIfRequested(environment);
     }
@@ -266,6 +285,24 @@ public final class SqueakImageContext {
         assert parserClass != null;
         assert compilerClass != null;
 
+        CompiledMethodObject doItMethod = doItMethodCache.get(source);
+        if (doItMethod == null) {
+            doItMethod = compileDoIt(source);
+            doItMethodCache.put(source, doItMethod, parserClass, compilerClass);
+        }
+
+        final ContextObject doItContext = ContextObject.create(this, doItMethod.getSqueakContextSize());
+        doItContext.atput0(CONTEXT.METHOD, doItMethod);
+        doItContext.atput0(CONTEXT.INSTRUCTION_POINTER, (long) doItMethod.getInitialPC());
+        doItContext.atput0(CONTEXT.RECEIVER, NilObject.SINGLETON);
+        doItContext.atput0(CONTEXT.STACKPOINTER, (long) doItMethod.getNumTemps());
+        doItContext.atput0(CONTEXT.CLOSURE_OR_NIL, NilObject.SINGLETON);
+        doItContext.atput0(CONTEXT.SENDER_OR_NIL, NilObject.SINGLETON);
+        doItContext.setProcess(getActiveProcessSlow());
+        return ExecuteTopLevelContextNode.create(getLanguage(), doItContext, false);
+    }
+
+    private CompiledMethodObject compileDoIt(final String source) {
         if (parserSharedInstance == null) {
             CompilerDirectives.transferToInterpreterAndInvalidate();
             parserSharedInstance = (PointersObject) parserClass.send("new");
@@ -283,17 +320,7 @@ public final class SqueakImageContext {
             CompilerDirectives.transferToInterpreter();
             throw new SqueakSyntaxError("Syntax Error in \"" + source + "\"");
         }
-        final CompiledMethodObject doItMethod = (CompiledMethodObject) methodNode.send("generate");
-
-        final ContextObject doItContext = ContextObject.create(this, doItMethod.getSqueakContextSize());
-        doItContext.atput0(CONTEXT.METHOD, doItMethod);
-        doItContext.atput0(CONTEXT.INSTRUCTION_POINTER, (long) doItMethod.getInitialPC());
-        doItContext.atput0(CONTEXT.RECEIVER, NilObject.SINGLETON);
-        doItContext.atput0(CONTEXT.STACKPOINTER, (long) doItMethod.getNumTemps());
-        doItContext.atput0(CONTEXT.CLOSURE_OR_NIL, NilObject.SINGLETON);
-        doItContext.atput0(CONTEXT.SENDER_OR_NIL, NilObject.SINGLETON);
-        doItContext.setProcess(getActiveProcessSlow());
-        return ExecuteTopLevelContextNode.create(getLanguage(), doItContext, false);
+        return (CompiledMethodObject) methodNode.send("generate");
     }
 
     /*
@@ -357,6 +384,42 @@ public final class SqueakImageContext {
         debugSyntaxErrorSelector = nativeObject;
     }
 
+    /**
+     * Returns the interned selector (a ByteSymbol) for an interop member name, or `null` if neither
+     * `classObject` nor its superclasses understand it. Each member name is resolved only once.
+     */
+    @TruffleBoundary
+    public NativeObject resolveInteropSelector(final ClassObject classObject, final String member) {
+        NativeObject selector = interopSelectors.get(member);
+        if (selector == null) {
+            selector = classObject.findSelectorSlow(MiscUtils.toBytes(member));
+            if (selector != null) {
+                interopSelectors.put(member, selector);
+            }
+        }
+        return selector;
+    }
+
+    /** Answers the lookup table for `selector` and counts the send site that goes megamorphic. */
+    @TruffleBoundary
+    public MegamorphicLookupTable getMegamorphicLookupTable(final NativeObject selector) {
+        megamorphicSendSites++;
+        MegamorphicLookupTable table = megamorphicLookupTables.get(selector);
+        if (table == null) {
+            table = new MegamorphicLookupTable(selector);
+            megamorphicLookupTables.put(selector, table);
+        }
+        return table;
+    }
+
+    public int getMegamorphicSendSites() {
+        return megamorphicSendSites;
+    }
+
+    public int getMegamorphicSelectors() {
+        return megamorphicLookupTables.size();
+    }
+
     public ClassObject getCompilerClass() {
         return compilerClass;
     }
@@ -559,6 +622,9 @@ public final class SqueakImageContext {
         if (!isHeadless) {
             CompilerDirectives.transferToInterpreterAndInvalidate();
             display = new SqueakDisplay(this);
+        } else if (options.useFramebuffer) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            display = new SqueakHeadlessDisplay(this, options.framebufferPort);
         }
     }
 
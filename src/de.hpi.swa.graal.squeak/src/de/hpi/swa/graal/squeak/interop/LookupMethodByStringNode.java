@@ -5,26 +5,19 @@
  */
 package de.hpi.swa.graal.squeak.interop;
 
-import java.util.Arrays;
-
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.GenerateUncached;
 import com.oracle.truffle.api.dsl.Specialization;
 
 import de.hpi.swa.graal.squeak.model.ClassObject;
 import de.hpi.swa.graal.squeak.model.NativeObject;
-import de.hpi.swa.graal.squeak.model.VariablePointersObject;
-import de.hpi.swa.graal.squeak.model.layout.ObjectLayouts.METHOD_DICT;
 import de.hpi.swa.graal.squeak.nodes.AbstractLookupMethodWithSelectorNodes.LookupMethodNode;
 import de.hpi.swa.graal.squeak.nodes.AbstractNode;
-import de.hpi.swa.graal.squeak.nodes.accessing.AbstractPointersObjectNodes.AbstractPointersObjectReadNode;
-import de.hpi.swa.graal.squeak.nodes.accessing.ArrayObjectNodes.ArrayObjectReadNode;
-import de.hpi.swa.graal.squeak.util.MiscUtils;
 
 /** Similar to {@link LookupMethodNode}, but for interop. */
 @GenerateUncached
 public abstract class LookupMethodByStringNode extends AbstractNode {
-    protected static final int LOOKUP_CACHE_SIZE = 3;
+    protected static final int LOOKUP_CACHE_SIZE = 6;
 
     public abstract Object executeLookup(ClassObject sqClass, String selectorBytes);
 
@@ -38,35 +31,16 @@ public abstract class LookupMethodByStringNode extends AbstractNode {
     protected static final Object doCached(final ClassObject classObject, final String selector,
                     @Cached("classObject") final ClassObject cachedClass,
                     @Cached("selector") final String cachedSelector,
-                    @Cached("doUncachedSlow(cachedClass, cachedSelector)") final Object cachedMethod) {
+                    @Cached("doUncached(cachedClass, cachedSelector)") final Object cachedMethod) {
         return cachedMethod;
     }
 
-    protected static final Object doUncachedSlow(final ClassObject classObject, final String selector) {
-        return doUncached(classObject, selector, AbstractPointersObjectReadNode.getUncached(), ArrayObjectReadNode.getUncached());
-    }
-
     @Specialization(replaces = "doCached")
-    protected static final Object doUncached(final ClassObject classObject, final String selector,
-                    /**
-                     * An AbstractPointersObjectReadNode is sufficient for accessing `values`
-                     * instance variable here.
-                     */
-                    @Cached final AbstractPointersObjectReadNode pointersReadValuesNode,
-                    @Cached final ArrayObjectReadNode arrayReadNode) {
-        final byte[] selectorBytes = MiscUtils.toBytes(selector);
-        ClassObject lookupClass = classObject;
-        while (lookupClass != null) {
-            final VariablePointersObject methodDict = lookupClass.getMethodDict();
-            final Object[] methodDictVariablePart = methodDict.getVariablePart();
-            for (int i = 0; i < methodDictVariablePart.length; i++) {
-                final Object methodSelector = methodDictVariablePart[i];
-                if (methodSelector instanceof NativeObject && Arrays.equals(selectorBytes, ((NativeObject) methodSelector).getByteStorage())) {
-                    return arrayReadNode.execute(pointersReadValuesNode.executeArray(methodDict, METHOD_DICT.VALUES), i);
-                }
-            }
-            lookupClass = lookupClass.getSuperclassOrNull();
+    protected static final Object doUncached(final ClassObject classObject, final String selector) {
+        final NativeObject internedSelector = classObject.image.resolveInteropSelector(classObject, selector);
+        if (internedSelector == null) {
+            return null; // Signals a doesNotUnderstand.
         }
-        return null; // Signals a doesNotUnderstand.
+        return classObject.lookupInMethodDictSlow(internedSelector);
     }
 }
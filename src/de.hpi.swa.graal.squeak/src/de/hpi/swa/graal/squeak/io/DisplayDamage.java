@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2017-2020 Software Architecture Group, Hasso Plattner Institute
+ *
+ * Licensed under the MIT License.
+ */
+package de.hpi.swa.graal.squeak.io;
+
+import java.awt.Rectangle;
+
+/**
+ * Accumulates damage rectangles reported by the image (e.g. via primitive showDisplayRect) and
+ * coalesces them into a single bounding rectangle, which is taken once per frame by whoever draws
+ * the display. Also keeps simple frame metrics. Damage is added by the interpreter thread and taken
+ * by a drawing thread, hence all methods are synchronized.
+ */
+public final class DisplayDamage {
+    private int left = Integer.MAX_VALUE;
+    private int top = Integer.MAX_VALUE;
+    private int right = Integer.MIN_VALUE;
+    private int bottom = Integer.MIN_VALUE;
+
+    /* Metrics */
+    private long damageReports;
+    private long frames;
+    private long damagedArea;
+    private long frameNanosTotal;
+    private long frameNanosMax;
+
+    /**
+     * Adds a damaged rectangle. Returns `true` if there was no damage before, so that the caller
+     * can schedule a frame.
+     */
+    public synchronized boolean add(final int damageLeft, final int damageTop, final int damageRight, final int damageBottom) {
+        damageReports++;
+        final boolean wasEmpty = isEmpty();
+        left = Math.min(left, damageLeft);
+        top = Math.min(top, damageTop);
+        right = Math.max(right, damageRight);
+        bottom = Math.max(bottom, damageBottom);
+        return wasEmpty;
+    }
+
+    /** Returns the merged damage (and resets it), or `null` if nothing has been damaged. */
+    public synchronized Rectangle take() {
+        if (isEmpty()) {
+            return null;
+        }
+        final Rectangle damage = new Rectangle(left, top, right - left, bottom - top);
+        left = top = Integer.MAX_VALUE;
+        right = bottom = Integer.MIN_VALUE;
+        return damage;
+    }
+
+    public synchronized boolean isEmpty() {
+        return left >= right || top >= bottom;
+    }
+
+    public synchronized void recordFrame(final Rectangle damage, final long frameNanos) {
+        frames++;
+        damagedArea += (long) damage.width * damage.height;
+        frameNanosTotal += frameNanos;
+        frameNanosMax = Math.max(frameNanosMax, frameNanos);
+    }
+
+    public synchronized long getFrames() {
+        return frames;
+    }
+
+    public synchronized long getDamageReports() {
+        return damageReports;
+    }
+
+    public synchronized long getDamagedArea() {
+        return damagedArea;
+    }
+
+    @Override
+    public synchronized String toString() {
+        final double averageMillis = frames == 0 ? 0 : frameNanosTotal / 1e6 / frames;
+        return String.format("%d damage reports coalesced into %d frames, %d damaged pixels, %.3fms average and %.3fms maximum frame time", damageReports, frames, damagedArea,
+                        averageMillis, frameNanosMax / 1e6);
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2017-2020 Software Architecture Group, Hasso Plattner Institute
+ *
+ * Licensed under the MIT License.
+ */
+package de.hpi.swa.graal.squeak.io;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.hpi.swa.graal.squeak.io.SqueakIOConstants.EVENT_TYPE;
+
+/**
+ * Bounded, lock-free single-producer/single-consumer queue of input events. Events are stored as
+ * records of {@link SqueakIOConstants#EVENT_SIZE} longs in one flat array, so the producer (e.g.
+ * the AWT event dispatch thread) does not allocate. The consumer (the interpreter) receives a
+ * fresh array per event because it becomes the storage of the image's event buffer.
+ *
+ * <p>
+ * A mouse event with the same buttons and modifiers as both the event before and the event after
+ * it is a pure move that the next event supersedes, so the consumer skips it. The first event after
+ * a button or modifier change is never skipped, otherwise the image would see the new state only at
+ * a later position. If the ring is full, events go to an overflow list until the consumer has caught
+ * up. A move is coalesced into the last overflowing event if that is a pure move too, so moves do
+ * not pile up while the image is behind. Button, keyboard
+ * and window events are never dropped, otherwise the image would see stuck buttons or lose keys.
+ * </p>
+ */
+public final class InputEventQueue {
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final int TYPE = 0;
+    private static final int BUTTONS = 4;
+    private static final int MODIFIERS = 5;
+
+    private final long[] records;
+    private final int mask;
+    /* Next record to read, only advanced by the consumer. */
+    private final AtomicLong head = new AtomicLong();
+    /* Next record to write, only advanced by the producer. */
+    private final AtomicLong tail = new AtomicLong();
+
+    /* Events that did not fit into the ring, guarded by itself. Used only under backpressure. */
+    private final ArrayDeque<long[]> overflow = new ArrayDeque<>();
+    /* Set while `overflow` is not empty, the producer must not use the ring until it is drained. */
+    private volatile boolean isOverflowing;
+    /* Whether the last event in `overflow` is a pure move, guarded by `overflow`. */
+    private boolean isOverflowMove;
+
+    /* Last event offered, only accessed by the producer. The image starts without buttons pressed. */
+    private long offeredType = EVENT_TYPE.MOUSE;
+    private long offeredButtons;
+    private long offeredModifiers;
+    /* Last event polled, only accessed by the consumer. */
+    private long polledType = EVENT_TYPE.MOUSE;
+    private long polledButtons;
+    private long polledModifiers;
+
+    /* Metrics, each only written by either the producer or the consumer and read racily. */
+    private long overflowed;
+    private long overflowCoalesced;
+    private long coalesced;
+    private long maxDepth;
+
+    public InputEventQueue() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public InputEventQueue(final int capacity) {
+        assert Integer.bitCount(capacity) == 1 : "Capacity must be a power of two";
+        records = new long[capacity * SqueakIOConstants.EVENT_SIZE];
+        mask = capacity - 1;
+    }
+
+    /** Adds an event. Producer only. */
+    public void offer(final long type, final long time, final long value3, final long value4, final long value5, final long value6, final long value7, final long windowId) {
+        final long currentTail = tail.get();
+        final long depth = currentTail - head.get();
+        if (isOverflowing || depth > mask) {
+            offerToOverflow(new long[]{type, time, value3, value4, value5, value6, value7, windowId});
+            setOffered(type, value5, value6);
+            return;
+        }
+        final int offset = recordOffset(currentTail);
+        records[offset] = type;
+        records[offset + 1] = time;
+        records[offset + 2] = value3;
+        records[offset + 3] = value4;
+        records[offset + 4] = value5;
+        records[offset + 5] = value6;
+        records[offset + 6] = value7;
+        records[offset + 7] = windowId;
+        if (depth + 1 > maxDepth) {
+            maxDepth = depth + 1;
+        }
+        setOffered(type, value5, value6);
+        tail.lazySet(currentTail + 1); // Publishes the record.
+    }
+
+    private void setOffered(final long type, final long buttons, final long modifiers) {
+        offeredType = type;
+        offeredButtons = buttons;
+        offeredModifiers = modifiers;
+    }
+
+    private void offerToOverflow(final long[] event) {
+        synchronized (overflow) {
+            final long[] last = overflow.peekLast();
+            if (isOverflowMove && isSameMouseState(last, 0, event, 0)) {
+                System.arraycopy(event, 0, last, 0, SqueakIOConstants.EVENT_SIZE);
+                overflowCoalesced++;
+            } else {
+                isOverflowMove = hasMouseState(event, 0, offeredType, offeredButtons, offeredModifiers);
+                overflow.addLast(event);
+                overflowed++;
+                isOverflowing = true;
+            }
+            final long depth = tail.get() - head.get() + overflow.size();
+            if (depth > maxDepth) {
+                maxDepth = depth;
+            }
+        }
+    }
+
+    /** Returns the next event or `null` if there is none. Consumer only. */
+    public long[] poll() {
+        long currentHead = head.get();
+        final long currentTail = tail.get();
+        if (currentHead == currentTail) {
+            return isOverflowing ? pollOverflow() : null;
+        }
+        long skipped = 0;
+        while (currentHead + 1 < currentTail && hasMouseState(records, recordOffset(currentHead), polledType, polledButtons, polledModifiers) &&
+                        isSameMouseState(records, recordOffset(currentHead), records, recordOffset(currentHead + 1))) {
+            currentHead++;
+            skipped++;
+        }
+        if (skipped > 0) {
+            coalesced += skipped;
+        }
+        final long[] event = new long[SqueakIOConstants.EVENT_SIZE];
+        System.arraycopy(records, recordOffset(currentHead), event, 0, SqueakIOConstants.EVENT_SIZE);
+        head.lazySet(currentHead + 1); // Releases the record to the producer.
+        return setPolled(event);
+    }
+
+    /* The ring is empty, so all events in `overflow` are newer than the ones already polled. */
+    private long[] pollOverflow() {
+        synchronized (overflow) {
+            final long[] event = overflow.pollFirst();
+            if (overflow.isEmpty()) {
+                isOverflowing = false;
+                isOverflowMove = false;
+            }
+            return setPolled(event);
+        }
+    }
+
+    private long[] setPolled(final long[] event) {
+        if (event != null) {
+            polledType = event[TYPE];
+            polledButtons = event[BUTTONS];
+            polledModifiers = event[MODIFIERS];
+        }
+        return event;
+    }
+
+    private static boolean isSameMouseState(final long[] event, final int offset, final long[] nextEvent, final int nextOffset) {
+        return hasMouseState(event, offset, nextEvent[nextOffset + TYPE], nextEvent[nextOffset + BUTTONS], nextEvent[nextOffset + MODIFIERS]);
+    }
+
+    private static boolean hasMouseState(final long[] event, final int offset, final long type, final long buttons, final long modifiers) {
+        return event[offset + TYPE] == EVENT_TYPE.MOUSE && type == EVENT_TYPE.MOUSE && event[offset + BUTTONS] == buttons && event[offset + MODIFIERS] == modifiers;
+    }
+
+    private int recordOffset(final long index) {
+        return ((int) index & mask) * SqueakIOConstants.EVENT_SIZE;
+    }
+
+    /** Returns the number of queued events (approximate if called concurrently). */
+    public int getDepth() {
+        synchronized (overflow) {
+            return (int) (tail.get() - head.get()) + overflow.size();
+        }
+    }
+
+    public long getMaxDepth() {
+        return maxDepth;
+    }
+
+    public long getOffered() {
+        return tail.get() + overflowed + overflowCoalesced;
+    }
+
+    /** Returns the number of events that did not fit into the ring. */
+    public long getOverflowed() {
+        return overflowed;
+    }
+
+    public long getCoalesced() {
+        return coalesced + overflowCoalesced;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d events offered, %d overflowed, %d mouse moves coalesced, %d queued (%d at most)", getOffered(), getOverflowed(), getCoalesced(), getDepth(), getMaxDepth());
+    }
+}
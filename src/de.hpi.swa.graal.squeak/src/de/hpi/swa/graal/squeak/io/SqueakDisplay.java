@@ -5,10 +5,14 @@
  */
 package de.hpi.swa.graal.squeak.io;
 
+import static de.hpi.swa.graal.squeak.util.LoggerWrapper.Name.IO;
+
 import java.awt.Cursor;
 import java.awt.Dimension;
+import java.awt.EventQueue;
 import java.awt.Graphics;
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.Toolkit;
 import java.awt.color.ColorSpace;
 import java.awt.datatransfer.Clipboard;
@@ -34,12 +38,12 @@ import java.awt.image.SampleModel;
 import java.awt.image.WritableRaster;
 import java.io.File;
 import java.io.IOException;
-import java.util.ArrayDeque;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
 
 import javax.swing.JComponent;
 import javax.swing.JFrame;
@@ -60,10 +64,12 @@ import de.hpi.swa.graal.squeak.model.layout.ObjectLayouts.FORM;
 import de.hpi.swa.graal.squeak.nodes.plugins.DropPlugin;
 import de.hpi.swa.graal.squeak.nodes.plugins.HostWindowPlugin;
 import de.hpi.swa.graal.squeak.shared.SqueakLanguageConfig;
+import de.hpi.swa.graal.squeak.util.LoggerWrapper;
 
 public final class SqueakDisplay implements SqueakDisplayInterface {
+    private static final LoggerWrapper LOG = LoggerWrapper.get(IO, Level.FINE);
     private static final String DEFAULT_WINDOW_TITLE = "GraalSqueak";
-    private static final boolean REPAINT_AUTOMATICALLY = false; // For debugging purposes.
+    private static final long FRAME_NANOS = TimeUnit.SECONDS.toNanos(1) / 60;
     private static final Dimension MINIMUM_WINDOW_SIZE = new Dimension(200, 150);
     private static final Toolkit TOOLKIT = Toolkit.getDefaultToolkit();
     @CompilationFinal(dimensions = 1) private static final int[] CURSOR_COLORS = new int[]{0x00000000, 0xFF0000FF, 0xFFFFFFFF, 0xFF000000};
@@ -80,11 +86,12 @@ public final class SqueakDisplay implements SqueakDisplayInterface {
     public final SqueakImageContext image;
     private final JFrame frame = new JFrame(DEFAULT_WINDOW_TITLE);
     private final Canvas canvas = new Canvas();
-    private boolean hasVisibleHardwareCursor;
     private final SqueakMouse mouse;
     private final SqueakKeyboard keyboard;
-    private final ArrayDeque<long[]> deferredEvents = new ArrayDeque<>();
-    private final ScheduledExecutorService repaintExecutor;
+    private final InputEventQueue eventQueue = new InputEventQueue();
+    private final DisplayDamage damage = new DisplayDamage();
+    private final ScheduledExecutorService frameScheduler;
+    private volatile long lastFrameStartNanos;
 
     @CompilationFinal private int inputSemaphoreIndex = -1;
 
@@ -105,12 +112,11 @@ public final class SqueakDisplay implements SqueakDisplayInterface {
         frame.setResizable(true);
 
         installEventListeners();
-        if (REPAINT_AUTOMATICALLY) {
-            repaintExecutor = Executors.newSingleThreadScheduledExecutor();
-            repaintExecutor.scheduleWithFixedDelay(() -> canvas.repaint(), 0, 20, TimeUnit.MILLISECONDS);
-        } else {
-            repaintExecutor = null;
-        }
+        frameScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "GraalSqueak Display Frames");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     @SuppressWarnings("unused")
@@ -182,7 +188,7 @@ public final class SqueakDisplay implements SqueakDisplayInterface {
     @TruffleBoundary
     public void showDisplayBitsLeftTopRightBottom(final PointersObject destForm, final int left, final int top, final int right, final int bottom) {
         if (left < right && top < bottom && !deferUpdates && destForm.isDisplay()) {
-            canvas.paintImmediately(left, top, right - left, bottom - top);
+            addDamage(left, top, right, bottom);
         }
     }
 
@@ -190,23 +196,46 @@ public final class SqueakDisplay implements SqueakDisplayInterface {
     @TruffleBoundary
     public void showDisplayRect(final int left, final int right, final int top, final int bottom) {
         assert left < right && top < bottom;
-        /**
-         * {@link Canvas#repaint} informs the repaint manager that the canvas should soon be
-         * repainted which is sufficient in most cases. When the user drags content and the hardware
-         * cursor is invisible, however, it is necessary to {@link Canvas#paintImmediately} which is
-         * expensive but avoids strange visual artifacts.
-         */
-        if (hasVisibleHardwareCursor) {
-            canvas.repaint(0, left, top, right - left, bottom - top);
-        } else {
-            canvas.paintImmediately(left, top, right - left, bottom - top);
+        addDamage(left, top, right, bottom);
+    }
+
+    /**
+     * Damage is coalesced and drawn at most once per frame. The first damage after a frame
+     * schedules the next one, so nothing is drawn while the display is idle.
+     */
+    private void addDamage(final int left, final int top, final int right, final int bottom) {
+        if (damage.add(left, top, right, bottom)) {
+            final long delay = Math.max(0, lastFrameStartNanos + FRAME_NANOS - System.nanoTime());
+            frameScheduler.schedule(() -> EventQueue.invokeLater(this::paintFrame), delay, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /* Runs on the AWT event dispatch thread. */
+    private void paintFrame() {
+        final Rectangle damagedRect = damage.take();
+        if (damagedRect == null) {
+            return;
         }
+        final long start = System.nanoTime();
+        lastFrameStartNanos = start;
+        canvas.paintImmediately(damagedRect);
+        damage.recordFrame(damagedRect, System.nanoTime() - start);
+    }
+
+    public DisplayDamage getDamage() {
+        return damage;
+    }
+
+    public InputEventQueue getEventQueue() {
+        return eventQueue;
     }
 
     @Override
     public void close() {
+        frameScheduler.shutdownNow();
         frame.setVisible(false);
         frame.dispose();
+        assert LOG.fine(() -> "Display: " + damage + "; input: " + eventQueue);
     }
 
     @Override
@@ -297,14 +326,6 @@ public final class SqueakDisplay implements SqueakDisplayInterface {
                   0        1     invert the underlying pixel
              * </pre>
              */
-            boolean allZero = true;
-            for (final int cursorWord : cursorWords) {
-                if (cursorWord != 0) {
-                    allZero = false;
-                    break;
-                }
-            }
-            hasVisibleHardwareCursor = !allZero;
             final int[] ints;
             if (mask != null) {
                 ints = mergeCursorWithMask(cursorWords, mask);
@@ -350,7 +371,7 @@ public final class SqueakDisplay implements SqueakDisplayInterface {
 
     @Override
     public long[] getNextEvent() {
-        return deferredEvents.pollFirst();
+        return eventQueue.poll();
     }
 
     public void addEvent(final long eventType, final long value3, final long value4, final long value5, final long value6) {
@@ -365,8 +386,9 @@ public final class SqueakDisplay implements SqueakDisplayInterface {
         addEvent(EVENT_TYPE.WINDOW, type, 0L, 0L, 0L);
     }
 
+    /* Events are only added on the AWT event dispatch thread, the only producer of eventQueue. */
     public void addEvent(final long eventType, final long value3, final long value4, final long value5, final long value6, final long value7) {
-        deferredEvents.add(new long[]{eventType, getEventTime(), value3, value4, value5, value6, value7, HostWindowPlugin.DEFAULT_HOST_WINDOW_ID});
+        eventQueue.offer(eventType, getEventTime(), value3, value4, value5, value6, value7, HostWindowPlugin.DEFAULT_HOST_WINDOW_ID);
         if (image.options.signalInputSemaphore && inputSemaphoreIndex > 0) {
             image.interrupt.signalSemaphoreWithIndex(inputSemaphoreIndex);
         }
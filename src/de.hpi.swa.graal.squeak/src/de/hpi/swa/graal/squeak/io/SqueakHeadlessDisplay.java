@@ -0,0 +1,340 @@
+/*
+ * Copyright (c) 2017-2020 Software Architecture Group, Hasso Plattner Institute
+ *
+ * Licensed under the MIT License.
+ */
+package de.hpi.swa.graal.squeak.io;
+
+import static de.hpi.swa.graal.squeak.util.LoggerWrapper.Name.IO;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+
+import javax.imageio.ImageIO;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+import de.hpi.swa.graal.squeak.exceptions.PrimitiveExceptions.PrimitiveFailed;
+import de.hpi.swa.graal.squeak.exceptions.SqueakExceptions.SqueakException;
+import de.hpi.swa.graal.squeak.image.SqueakImageContext;
+import de.hpi.swa.graal.squeak.model.NativeObject;
+import de.hpi.swa.graal.squeak.model.PointersObject;
+import de.hpi.swa.graal.squeak.model.layout.ObjectLayouts.FORM;
+import de.hpi.swa.graal.squeak.util.LoggerWrapper;
+
+/**
+ * A display for headless mode. It keeps a reference to the 32-bit bitmap of the Display form,
+ * tracks damage like {@link SqueakDisplay}, can dump the framebuffer as PNG, and can optionally
+ * stream incremental updates to a single client on a local port.
+ *
+ * <p>
+ * The streaming protocol is a minimal, RFB-like framebuffer protocol. All values are big-endian
+ * 32-bit integers, pixels are ARGB words as found in the Display bitmap. The server only sends,
+ * input is not supported.
+ * </p>
+ *
+ * <pre>
+ *   MAGIC                                     sent once after connecting
+ *   MESSAGE_RESIZE width height               sent whenever the Display form changes
+ *   MESSAGE_UPDATE x y width height pixels*   one per frame, pixels are sent row by row
+ * </pre>
+ *
+ * After a resize, a full update follows. Pixels are copied from the live bitmap by the streaming
+ * thread, so the interpreter is never blocked. An update may thus contain pixels of a drawing
+ * operation in progress, but that operation reports damage once done, which is sent in a later
+ * frame.
+ */
+public final class SqueakHeadlessDisplay implements SqueakDisplayInterface {
+    private static final LoggerWrapper LOG = LoggerWrapper.get(IO, Level.FINE);
+    private static final long FRAME_NANOS = TimeUnit.SECONDS.toNanos(1) / 60;
+
+    public static final int MAGIC = 0x47534642; // 'GSFB'
+    public static final int MESSAGE_RESIZE = 0;
+    public static final int MESSAGE_UPDATE = 1;
+
+    private final SqueakImageContext image;
+    private final DisplayDamage damage = new DisplayDamage();
+    private final ServerSocket serverSocket;
+    private final Thread streamingThread;
+
+    private volatile Framebuffer framebuffer;
+    private volatile boolean closed;
+    private boolean deferUpdates;
+    private String clipboardData = "";
+
+    /* The bitmap and its dimensions, replaced as a whole when the Display form changes. */
+    private static final class Framebuffer {
+        private final int[] bits;
+        private final int width;
+        private final int height;
+
+        private Framebuffer(final int[] bits, final int width, final int height) {
+            this.bits = bits;
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    /**
+     * Creates a headless display. If `port` is negative, no updates are streamed. Otherwise, a
+     * server is started on the loopback interface (0 picks any free port, see {@link #getPort()}).
+     */
+    public SqueakHeadlessDisplay(final SqueakImageContext image, final int port) {
+        this.image = image;
+        if (port < 0) {
+            serverSocket = null;
+            streamingThread = null;
+        } else {
+            try {
+                serverSocket = new ServerSocket(port, 1, InetAddress.getLoopbackAddress());
+            } catch (final IOException e) {
+                throw SqueakException.create("Unable to start framebuffer server on port " + port, e);
+            }
+            streamingThread = new Thread(this::serveClients, "GraalSqueak Framebuffer");
+            streamingThread.setDaemon(true);
+            streamingThread.start();
+            assert LOG.fine(() -> "Serving framebuffer on port " + getPort());
+        }
+    }
+
+    public int getPort() {
+        return serverSocket == null ? -1 : serverSocket.getLocalPort();
+    }
+
+    public DisplayDamage getDamage() {
+        return damage;
+    }
+
+    /** Uses `bits` as framebuffer. Only 32-bit depth is supported. */
+    public void setFramebuffer(final int[] bits, final int width, final int height) {
+        assert bits.length >= width * height;
+        framebuffer = new Framebuffer(bits, width, height);
+        addDamage(0, 0, width, height);
+    }
+
+    /** Writes a snapshot of the framebuffer to `file` in PNG format. */
+    @TruffleBoundary
+    public void writePNG(final File file) throws IOException {
+        final Framebuffer current = framebuffer;
+        if (current == null) {
+            throw new IOException("Display has not been opened");
+        }
+        final BufferedImage snapshot = new BufferedImage(current.width, current.height, BufferedImage.TYPE_INT_ARGB);
+        snapshot.setRGB(0, 0, current.width, current.height, current.bits, 0, current.width);
+        if (!ImageIO.write(snapshot, "png", file)) {
+            throw new IOException("No PNG writer available");
+        }
+    }
+
+    @Override
+    @TruffleBoundary
+    public void showDisplayBitsLeftTopRightBottom(final PointersObject destForm, final int left, final int top, final int right, final int bottom) {
+        if (left < right && top < bottom && !deferUpdates && destForm.isDisplay()) {
+            addDamage(left, top, right, bottom);
+        }
+    }
+
+    @Override
+    @TruffleBoundary
+    public void showDisplayRect(final int left, final int right, final int top, final int bottom) {
+        assert left < right && top < bottom;
+        addDamage(left, top, right, bottom);
+    }
+
+    private void addDamage(final int left, final int top, final int right, final int bottom) {
+        if (damage.add(left, top, right, bottom) && streamingThread != null) {
+            LockSupport.unpark(streamingThread);
+        }
+    }
+
+    /* Runs on the streaming thread, serves one client at a time until closed. */
+    private void serveClients() {
+        while (!closed && !serverSocket.isClosed()) {
+            try (Socket client = serverSocket.accept()) {
+                assert LOG.fine(() -> "Framebuffer client connected: " + client.getRemoteSocketAddress());
+                client.setTcpNoDelay(true);
+                streamTo(new DataOutputStream(new BufferedOutputStream(client.getOutputStream())));
+            } catch (final SocketException e) {
+                // Server socket closed or client disconnected.
+                assert LOG.fine(() -> "Framebuffer client disconnected: " + e.getMessage());
+            } catch (final IOException e) {
+                assert LOG.fine(() -> "Framebuffer streaming failed: " + e);
+            }
+        }
+    }
+
+    private void streamTo(final DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        Framebuffer sent = null;
+        ByteBuffer rowBuffer = null;
+        long lastFrameStartNanos = System.nanoTime() - FRAME_NANOS;
+        while (!closed) {
+            final long delay = lastFrameStartNanos + FRAME_NANOS - System.nanoTime();
+            if (delay > 0) {
+                /* Let more damage accumulate, it is merged into the next frame. */
+                LockSupport.parkNanos(this, delay);
+                continue;
+            }
+            final Framebuffer current = framebuffer;
+            Rectangle damagedRect = damage.take();
+            if (current != sent && current != null) {
+                out.writeInt(MESSAGE_RESIZE);
+                out.writeInt(current.width);
+                out.writeInt(current.height);
+                sent = current;
+                rowBuffer = ByteBuffer.allocate(current.width * Integer.BYTES);
+                damagedRect = new Rectangle(0, 0, current.width, current.height);
+            }
+            if (damagedRect == null || sent == null) {
+                out.flush();
+                LockSupport.park(this);
+                continue;
+            }
+            final long start = System.nanoTime();
+            lastFrameStartNanos = start;
+            final Rectangle clipped = damagedRect.intersection(new Rectangle(0, 0, sent.width, sent.height));
+            if (!clipped.isEmpty()) {
+                writeUpdate(out, sent, clipped, rowBuffer);
+                out.flush();
+            }
+            damage.recordFrame(clipped, System.nanoTime() - start);
+        }
+    }
+
+    private static void writeUpdate(final DataOutputStream out, final Framebuffer source, final Rectangle rect, final ByteBuffer rowBuffer) throws IOException {
+        out.writeInt(MESSAGE_UPDATE);
+        out.writeInt(rect.x);
+        out.writeInt(rect.y);
+        out.writeInt(rect.width);
+        out.writeInt(rect.height);
+        final int rowBytes = rect.width * Integer.BYTES;
+        for (int y = rect.y; y < rect.y + rect.height; y++) {
+            rowBuffer.clear();
+            rowBuffer.asIntBuffer().put(source.bits, y * source.width + rect.x, rect.width);
+            out.write(rowBuffer.array(), 0, rowBytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        if (serverSocket != null) {
+            try {
+                serverSocket.close();
+            } catch (final IOException e) {
+                assert LOG.fine(() -> "Closing framebuffer server failed: " + e);
+            }
+            LockSupport.unpark(streamingThread);
+        }
+        assert LOG.fine(() -> "Headless display: " + damage);
+    }
+
+    @Override
+    public void resizeTo(final int width, final int height) {
+        // Ignored, the framebuffer follows the Display form.
+    }
+
+    @Override
+    public DisplayPoint getWindowSize() {
+        final Framebuffer current = framebuffer;
+        if (current == null) {
+            return image.flags.getLastWindowSize();
+        }
+        return new DisplayPoint(current.width, current.height);
+    }
+
+    @Override
+    public void setFullscreen(final boolean enable) {
+        // Ignored.
+    }
+
+    @Override
+    @TruffleBoundary
+    public void open(final PointersObject sqDisplay) {
+        final Object bitmap = sqDisplay.instVarAt0Slow(FORM.BITS);
+        final Object width = sqDisplay.instVarAt0Slow(FORM.WIDTH);
+        final Object height = sqDisplay.instVarAt0Slow(FORM.HEIGHT);
+        final Object depth = sqDisplay.instVarAt0Slow(FORM.DEPTH);
+        /* The framebuffer holds 32-bit pixels, so other Display forms fail beDisplay. */
+        if (!(bitmap instanceof NativeObject && ((NativeObject) bitmap).isIntType() && width instanceof Long && height instanceof Long && depth instanceof Long &&
+                        (long) depth == 32 && holdsPixels((NativeObject) bitmap, (long) width, (long) height))) {
+            throw PrimitiveFailed.BAD_RECEIVER;
+        }
+        if ((long) width > 0 && (long) height > 0) {
+            setFramebuffer(((NativeObject) bitmap).getIntStorage(), (int) (long) width, (int) (long) height);
+        }
+    }
+
+    /* Checks each side first, so that their product cannot overflow. */
+    private static boolean holdsPixels(final NativeObject bitmap, final long width, final long height) {
+        final int length = bitmap.getIntLength();
+        return width <= length && height <= length && width * height <= length;
+    }
+
+    @Override
+    public boolean isVisible() {
+        return framebuffer != null;
+    }
+
+    @Override
+    public void setCursor(final int[] cursorWords, final int[] mask, final int width, final int height, final int depth) {
+        // Cursors are not part of the framebuffer.
+    }
+
+    @Override
+    public long[] getNextEvent() {
+        return null; // No input.
+    }
+
+    @Override
+    public void setDeferUpdates(final boolean flag) {
+        deferUpdates = flag;
+    }
+
+    @Override
+    public boolean getDeferUpdates() {
+        return deferUpdates;
+    }
+
+    @Override
+    public void setWindowTitle(final String title) {
+        // Ignored.
+    }
+
+    @Override
+    public void setInputSemaphoreIndex(final int interruptSemaphoreIndex) {
+        // Ignored, there is no input.
+    }
+
+    @Override
+    public String getClipboardData() {
+        return clipboardData;
+    }
+
+    @Override
+    public void setClipboardData(final String text) {
+        clipboardData = text;
+    }
+
+    @Override
+    public void beep() {
+        // Ignored.
+    }
+
+    @Override
+    public void pollEvents() {
+        // Nothing to poll.
+    }
+}
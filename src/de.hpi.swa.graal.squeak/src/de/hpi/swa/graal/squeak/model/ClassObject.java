@@ -35,6 +35,7 @@ import de.hpi.swa.graal.squeak.model.layout.ObjectLayouts.CLASS;
 import de.hpi.swa.graal.squeak.model.layout.ObjectLayouts.CLASS_DESCRIPTION;
 import de.hpi.swa.graal.squeak.model.layout.ObjectLayouts.CLASS_TRAIT;
 import de.hpi.swa.graal.squeak.model.layout.ObjectLayouts.METACLASS;
+import de.hpi.swa.graal.squeak.model.layout.ObjectLayouts.METHOD_DICT;
 import de.hpi.swa.graal.squeak.nodes.accessing.SqueakObjectNewNode;
 import de.hpi.swa.graal.squeak.util.ArrayUtils;
 import de.hpi.swa.graal.squeak.util.ObjectGraphUtils.ObjectTracer;
@@ -345,6 +346,48 @@ public final class ClassObject extends AbstractSqueakObjectWithClassAndHash {
         return methodDict;
     }
 
+    /** Answers the method for `selector` in this class or its superclasses, or `null`. */
+    @TruffleBoundary
+    public Object lookupInMethodDictSlow(final NativeObject selector) {
+        ClassObject lookupClass = this;
+        while (lookupClass != null) {
+            final Object method = lookupClass.lookupInOwnMethodDictSlow(selector);
+            if (method != null) {
+                return method;
+            }
+            lookupClass = lookupClass.getSuperclassOrNull();
+        }
+        return null;
+    }
+
+    /** Answers the method for `selector` in this class only, or `null`. */
+    @TruffleBoundary
+    public Object lookupInOwnMethodDictSlow(final NativeObject selector) {
+        final VariablePointersObject methodDictObject = getMethodDict();
+        final Object[] methodDictVariablePart = methodDictObject.getVariablePart();
+        for (int i = 0; i < methodDictVariablePart.length; i++) {
+            if (selector == methodDictVariablePart[i]) {
+                return ((ArrayObject) methodDictObject.instVarAt0Slow(METHOD_DICT.VALUES)).getObjectStorage()[i];
+            }
+        }
+        return null;
+    }
+
+    /** Answers the selector named `selectorBytes` in this class or its superclasses, or `null`. */
+    @TruffleBoundary
+    public NativeObject findSelectorSlow(final byte[] selectorBytes) {
+        ClassObject lookupClass = this;
+        while (lookupClass != null) {
+            for (final Object methodSelector : lookupClass.getMethodDict().getVariablePart()) {
+                if (methodSelector instanceof NativeObject && Arrays.equals(selectorBytes, ((NativeObject) methodSelector).getByteStorage())) {
+                    return (NativeObject) methodSelector;
+                }
+            }
+            lookupClass = lookupClass.getSuperclassOrNull();
+        }
+        return null;
+    }
+
     public boolean hasInstanceVariables() {
         return instanceVariables != null;
     }
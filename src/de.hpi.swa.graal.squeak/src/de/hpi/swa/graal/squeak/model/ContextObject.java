@@ -568,6 +568,7 @@ public final class ContextObject extends AbstractSqueakObjectWithHash {
         // Record a process to be awakened on the next interpreter cycle.
         final PointersObject currentProcess = newProcess.image.getActiveProcess(readNode);
         assert newProcess != currentProcess : "trying to switch to already active process";
+        image.interrupt.countProcessSwitch();
         // overwritten in next line.
         writeNode.execute(image.getScheduler(), PROCESS_SCHEDULER.ACTIVE_PROCESS, newProcess);
         writeNode.execute(currentProcess, PROCESS.SUSPENDED_CONTEXT, this);
@@ -29,43 +29,58 @@ public final class LargeIntegerObject extends AbstractSqueakObjectWithClassAndHa
     public static final BigInteger LONG_MIN_OVERFLOW_RESULT = BigInteger.valueOf(Long.MIN_VALUE).abs();
     @CompilationFinal(dimensions = 1) private static final byte[] LONG_MIN_OVERFLOW_RESULT_BYTES = toBytes(LONG_MIN_OVERFLOW_RESULT);
 
+    /*
+     * The magnitude is primarily kept as little-endian bytes (the object's Squeak layout), so that
+     * digit accesses are O(1). A BigInteger is materialized lazily for arithmetic and cached until
+     * the next digit write. At least one of the two representations is always present.
+     */
+    private byte[] bytes;
     private BigInteger integer;
     private int bitLength;
+    private int signum;
     private int exposedSize;
 
+    private static final int STALE = -1;
+
     public LargeIntegerObject(final SqueakImageContext image, final BigInteger integer) {
         super(image, integer.signum() >= 0 ? image.largePositiveIntegerClass : image.largeNegativeIntegerClass);
         this.integer = integer;
         bitLength = integer.bitLength();
+        signum = integer.signum();
         exposedSize = calculateExposedSize(integer);
         assert integer.signum() != 0 : "LargePositiveInteger>>isZero returns 'false'";
     }
 
     public LargeIntegerObject(final SqueakImageContext image, final long hash, final ClassObject klass, final byte[] bytes) {
         super(image, hash, klass);
-        integer = new BigInteger(isPositive() ? 1 : -1, ArrayUtils.swapOrderInPlace(bytes));
-        bitLength = integer.bitLength();
+        this.bytes = bytes;
+        bitLength = STALE;
         exposedSize = bytes.length;
     }
 
     public LargeIntegerObject(final SqueakImageContext image, final ClassObject klass, final byte[] bytes) {
         super(image, klass);
-        integer = new BigInteger(isPositive() ? 1 : -1, ArrayUtils.swapOrderInPlace(bytes));
-        bitLength = integer.bitLength();
+        this.bytes = bytes;
+        bitLength = STALE;
         exposedSize = bytes.length;
     }
 
     public LargeIntegerObject(final SqueakImageContext image, final ClassObject klass, final int size) {
         super(image, klass);
-        integer = BigInteger.ZERO;
+        bytes = new byte[size];
         bitLength = 0;
+        signum = 0;
         exposedSize = size;
     }
 
     private LargeIntegerObject(final LargeIntegerObject original) {
         super(original);
         integer = original.integer;
+        if (integer == null) {
+            bytes = original.bytes.clone();
+        }
         bitLength = original.bitLength;
+        signum = original.signum;
         exposedSize = original.exposedSize;
     }
 
@@ -98,82 +113,142 @@ public final class LargeIntegerObject extends AbstractSqueakObjectWithClassAndHa
         return bigInteger.abs().toByteArray();
     }
 
+    @TruffleBoundary
+    private static BigInteger toBigInteger(final byte[] littleEndianBytes, final boolean isPositive) {
+        return new BigInteger(isPositive ? 1 : -1, ArrayUtils.swapOrderCopy(littleEndianBytes));
+    }
+
+    /** Returns the little-endian magnitude of {@link #size()} bytes, materializing it if needed. */
+    private byte[] getMagnitude() {
+        if (bytes == null) {
+            bytes = toMagnitude(integer, exposedSize);
+        }
+        return bytes;
+    }
+
+    @TruffleBoundary
+    private static byte[] toMagnitude(final BigInteger integer, final int size) {
+        final byte[] minimalBytes = toBytes(integer);
+        return minimalBytes.length == size ? minimalBytes : Arrays.copyOf(minimalBytes, size);
+    }
+
+    private BigInteger integer() {
+        if (integer == null) {
+            integer = toBigInteger(bytes, isPositive());
+        }
+        return integer;
+    }
+
+    /** Must be called after every write to {@link #bytes}. */
+    private void invalidateInteger() {
+        integer = null;
+        bitLength = STALE;
+    }
+
+    private void ensureBitLengthAndSignum() {
+        if (bitLength == STALE) {
+            computeBitLengthAndSignum();
+        }
+    }
+
+    @TruffleBoundary
+    private void computeBitLengthAndSignum() {
+        if (integer != null) {
+            bitLength = integer.bitLength();
+            signum = integer.signum();
+            return;
+        }
+        final int usedBytes = usedBytes(bytes);
+        if (usedBytes == 0) {
+            bitLength = 0;
+            signum = 0;
+            return;
+        }
+        final int topIndex = usedBytes - 1;
+        final int topByte = bytes[topIndex] & 0xFF;
+        int magnitudeBitLength = topIndex * Byte.SIZE + Integer.SIZE - Integer.numberOfLeadingZeros(topByte);
+        if (isPositive()) {
+            signum = 1;
+        } else {
+            signum = -1;
+            /* Like BigInteger, bitLength excludes the sign bit, so -(2^n) only needs n bits. */
+            if (Integer.bitCount(topByte) == 1 && usedBytes(bytes, topIndex) == 0) {
+                magnitudeBitLength--;
+            }
+        }
+        bitLength = magnitudeBitLength;
+    }
+
+    private static int usedBytes(final byte[] littleEndianBytes) {
+        return usedBytes(littleEndianBytes, littleEndianBytes.length);
+    }
+
+    private static int usedBytes(final byte[] littleEndianBytes, final int length) {
+        int i = length;
+        while (i > 0 && littleEndianBytes[i - 1] == 0) {
+            i--;
+        }
+        return i;
+    }
+
     public long getNativeAt0(final long index) {
         assert index < size() : "Illegal index: " + index;
-        final byte[] bytes = toBigEndianBytes(integer);
-        final int length = bytes.length;
-        return index < length ? Byte.toUnsignedLong(bytes[length - 1 - (int) index]) : 0L;
+        return Byte.toUnsignedLong(getMagnitude()[(int) index]);
     }
 
     public void setNativeAt0(final long index, final long value) {
         assert index < size() : "Illegal index: " + index;
         assert 0 <= value && value <= NativeObject.BYTE_MAX : "Illegal value for LargeIntegerObject: " + value;
-        final byte[] bytes;
-        final byte[] bigIntegerBytes = toBigEndianBytes(integer);
-        final int offset = bigIntegerBytes[0] != 0 ? 0 : 1;
-        final int bigIntegerBytesActualLength = bigIntegerBytes.length - offset;
-        if (bigIntegerBytesActualLength <= index) {
-            final int newLength = Math.min(size(), (int) index + 1);
-            bytes = new byte[newLength];
-            System.arraycopy(bigIntegerBytes, offset, bytes, newLength - bigIntegerBytesActualLength, bigIntegerBytesActualLength);
-        } else {
-            bytes = bigIntegerBytes;
-        }
-        bytes[bytes.length - 1 - (int) index] = (byte) value;
-        integer = new BigInteger(isPositive() ? 1 : -1, bytes);
-        bitLength = integer.bitLength();
+        getMagnitude()[(int) index] = (byte) value;
+        invalidateInteger();
     }
 
+    /** Returns a copy of the minimal little-endian magnitude (without leading zero bytes). */
     public byte[] getBytes() {
-        return toBytes(integer);
+        final byte[] magnitude = getMagnitude();
+        return Arrays.copyOf(magnitude, usedBytes(magnitude));
     }
 
     public void replaceInternalValue(final LargeIntegerObject other) {
         assert size() == other.size();
-        integer = other.getSqueakClass() == getSqueakClass() ? other.integer : other.integer.negate();
-        bitLength = integer.bitLength();
+        if (other.integer != null) {
+            integer = other.getSqueakClass() == getSqueakClass() ? other.integer : negate(other.integer);
+            bytes = null;
+            bitLength = STALE;
+        } else {
+            bytes = other.bytes.clone();
+            invalidateInteger();
+        }
+    }
+
+    @TruffleBoundary
+    private static BigInteger negate(final BigInteger value) {
+        return value.negate();
+    }
+
+    /** Changes the class (and therefore the sign) of the receiver, see primitiveChangeClass. */
+    public void changeClassTo(final ClassObject newClass) {
+        if (newClass != getSqueakClass()) {
+            getMagnitude();
+            setSqueakClass(newClass);
+            invalidateInteger();
+        }
     }
 
     public void setBytes(final byte[] bytes) {
         assert size() == bytes.length;
-        integer = new BigInteger(isPositive() ? 1 : -1, ArrayUtils.swapOrderCopy(bytes));
-        bitLength = integer.bitLength();
+        this.bytes = Arrays.copyOf(bytes, bytes.length);
+        invalidateInteger();
     }
 
     public void setBytes(final LargeIntegerObject src, final int srcPos, final int destPos, final int length) {
-        final byte[] bytes;
-        final byte[] srcBytes = toBigEndianBytes(src.integer);
-        final byte[] bigIntegerBytes = toBigEndianBytes(integer);
-        final int offset = bigIntegerBytes[0] != 0 ? 0 : 1;
-        final int bigIntegerBytesActualLength = bigIntegerBytes.length - offset;
-        if (bigIntegerBytesActualLength < destPos + length) {
-            bytes = new byte[size()];
-            System.arraycopy(bigIntegerBytes, offset, bytes, 0, bigIntegerBytesActualLength);
-        } else {
-            bytes = bigIntegerBytes;
-        }
-        System.arraycopy(srcBytes, srcBytes.length - length - srcPos, bytes, bytes.length - length - destPos, length);
-        integer = new BigInteger(isPositive() ? 1 : -1, bytes);
-        bitLength = integer.bitLength();
+        System.arraycopy(src.getMagnitude(), srcPos, getMagnitude(), destPos, length);
+        invalidateInteger();
     }
 
     public void setBytes(final byte[] srcBytes, final int srcPos, final int destPos, final int length) {
-        // destination bytes are big-endian, source bytes are not
-        final byte[] bytes;
-        final byte[] bigIntegerBytes = toBigEndianBytes(integer);
-        final int offset = bigIntegerBytes[0] != 0 ? 0 : 1;
-        final int bigIntegerBytesActualLength = bigIntegerBytes.length - offset;
-        if (bigIntegerBytesActualLength < destPos + length) {
-            bytes = new byte[size()];
-            System.arraycopy(bigIntegerBytes, offset, bytes, 0, bigIntegerBytesActualLength);
-        } else {
-            bytes = bigIntegerBytes;
-        }
-        for (int i = 0; i < length; i++) {
-            bytes[bytes.length - 1 - (destPos + i)] = srcBytes[srcPos + i];
-        }
-        integer = new BigInteger(isPositive() ? 1 : -1, bytes);
-        bitLength = integer.bitLength();
+        System.arraycopy(srcBytes, srcPos, getMagnitude(), destPos, length);
+        invalidateInteger();
     }
 
     @Override
@@ -195,17 +270,17 @@ public final class LargeIntegerObject extends AbstractSqueakObjectWithClassAndHa
     @TruffleBoundary(transferToInterpreterOnException = false)
     public String toString() {
         CompilerAsserts.neverPartOfCompilation();
-        assert bitLength == integer.bitLength();
-        if (bitLength < Long.SIZE) {
-            return integer.longValue() + " - non-normalized " + getSqueakClass() + " of size " + exposedSize;
-        } else if (exposedSize != calculateExposedSize(integer)) {
-            return integer + " - non-normalized " + getSqueakClass() + " of size " + exposedSize;
+        assert bitLength() == integer().bitLength();
+        if (bitLength() < Long.SIZE) {
+            return integer().longValue() + " - non-normalized " + getSqueakClass() + " of size " + exposedSize;
+        } else if (exposedSize != calculateExposedSize(integer())) {
+            return integer() + " - non-normalized " + getSqueakClass() + " of size " + exposedSize;
         }
-        return integer.toString();
+        return integer().toString();
     }
 
     public boolean equals(final LargeIntegerObject other) {
-        return integer.equals(other.integer);
+        return integer().equals(other.integer());
     }
 
     @Override
@@ -230,9 +305,9 @@ public final class LargeIntegerObject extends AbstractSqueakObjectWithClassAndHa
         final int formatOffset = getNumSlots() * SqueakImageConstants.WORD_SIZE - size();
         assert 0 <= formatOffset && formatOffset <= 7 : "too many odd bits (see instSpec)";
         if (writeHeader(writerNode, formatOffset)) {
-            final byte[] bytes = getBytes();
-            writerNode.writeBytes(bytes);
-            final int offset = bytes.length % SqueakImageConstants.WORD_SIZE;
+            final byte[] magnitude = getMagnitude();
+            writerNode.writeBytes(magnitude);
+            final int offset = magnitude.length % SqueakImageConstants.WORD_SIZE;
             if (offset > 0) {
                 writerNode.writePadding(SqueakImageConstants.WORD_SIZE - offset);
             }
@@ -257,48 +332,64 @@ public final class LargeIntegerObject extends AbstractSqueakObjectWithClassAndHa
 
     @TruffleBoundary
     public Object reduceIfPossible() {
-        if (bitLength < Long.SIZE) {
-            return integer.longValue();
+        if (bitLength() < Long.SIZE) {
+            return longValue();
         } else {
-            exposedSize = calculateExposedSize(integer);
+            if (integer != null) {
+                exposedSize = calculateExposedSize(integer);
+            } else {
+                exposedSize = usedBytes(bytes);
+            }
+            if (bytes != null && bytes.length != exposedSize) {
+                bytes = Arrays.copyOf(bytes, exposedSize);
+            }
             return this;
         }
     }
 
     @TruffleBoundary
     public long longValue() {
-        return integer.longValue();
+        if (integer != null) {
+            return integer.longValue();
+        }
+        /* Same as BigInteger>>longValue: the low-order 64 bits of the two's complement. */
+        long value = 0;
+        for (int i = Math.min(bytes.length, Long.BYTES) - 1; i >= 0; i--) {
+            value = value << Byte.SIZE | bytes[i] & 0xFF;
+        }
+        return isPositive() ? value : -value;
     }
 
     @TruffleBoundary(transferToInterpreterOnException = false)
     public long longValueExact() throws ArithmeticException {
-        return integer.longValueExact();
+        return integer().longValueExact();
     }
 
     @TruffleBoundary(transferToInterpreterOnException = false)
     private byte byteValueExact() throws ArithmeticException {
-        return integer.byteValueExact();
+        return integer().byteValueExact();
     }
 
     @TruffleBoundary(transferToInterpreterOnException = false)
     private short shortValueExact() throws ArithmeticException {
-        return integer.shortValueExact();
+        return integer().shortValueExact();
     }
 
     @TruffleBoundary(transferToInterpreterOnException = false)
     public int intValueExact() throws ArithmeticException {
-        return integer.intValueExact();
+        return integer().intValueExact();
     }
 
     public boolean fitsIntoLong() {
-        return bitLength < Long.SIZE;
+        return bitLength() < Long.SIZE;
     }
 
     public boolean fitsIntoInt() {
-        return bitLength < Integer.SIZE;
+        return bitLength() < Integer.SIZE;
     }
 
     public int bitLength() {
+        ensureBitLengthAndSignum();
         return bitLength;
     }
 
@@ -325,68 +416,120 @@ public final class LargeIntegerObject extends AbstractSqueakObjectWithClassAndHa
      */
 
     // TODO: Find out when reduceIfPossible is really necessary
-    @TruffleBoundary(transferToInterpreterOnException = false)
     public Object add(final LargeIntegerObject b) {
-        return reduceIfPossible(integer.add(b.integer));
+        if (fitsInto128Bits() && b.fitsInto128Bits()) {
+            return add128(image, isNegative(), magnitudeHigh(), magnitudeLow(), b.isNegative(), b.magnitudeHigh(), b.magnitudeLow());
+        }
+        return addBigInteger(b);
     }
 
     @TruffleBoundary(transferToInterpreterOnException = false)
+    private Object addBigInteger(final LargeIntegerObject b) {
+        return reduceIfPossible(integer().add(b.integer()));
+    }
+
     public Object add(final long b) {
-        return reduceIfPossible(integer.add(BigInteger.valueOf(b)));
+        if (fitsInto128Bits()) {
+            return add128(image, isNegative(), magnitudeHigh(), magnitudeLow(), b < 0, 0L, Math.abs(b));
+        }
+        return addBigInteger(b);
     }
 
     @TruffleBoundary(transferToInterpreterOnException = false)
+    private Object addBigInteger(final long b) {
+        return reduceIfPossible(integer().add(BigInteger.valueOf(b)));
+    }
+
     public static Object add(final SqueakImageContext image, final long lhs, final long rhs) {
         /* Inlined version of Math.addExact(x, y) with large integer fallback. */
         final long result = lhs + rhs;
         // HD 2-12 Overflow iff both arguments have the opposite sign of the result
         if (((lhs ^ result) & (rhs ^ result)) < 0) {
-            return new LargeIntegerObject(image, BigInteger.valueOf(lhs).add(BigInteger.valueOf(rhs)));
+            return fromOverflowedLong(image, lhs < 0, result);
         }
         return result;
     }
 
-    @TruffleBoundary(transferToInterpreterOnException = false)
     public Object subtract(final LargeIntegerObject b) {
-        return reduceIfPossible(integer.subtract(b.integer));
+        if (fitsInto128Bits() && b.fitsInto128Bits()) {
+            return add128(image, isNegative(), magnitudeHigh(), magnitudeLow(), !b.isNegative(), b.magnitudeHigh(), b.magnitudeLow());
+        }
+        return subtractBigInteger(b);
     }
 
     @TruffleBoundary(transferToInterpreterOnException = false)
+    private Object subtractBigInteger(final LargeIntegerObject b) {
+        return reduceIfPossible(integer().subtract(b.integer()));
+    }
+
     public Object subtract(final long b) {
-        return reduceIfPossible(integer.subtract(BigInteger.valueOf(b)));
+        if (fitsInto128Bits()) {
+            return add128(image, isNegative(), magnitudeHigh(), magnitudeLow(), b >= 0, 0L, Math.abs(b));
+        }
+        return subtractBigInteger(b);
     }
 
     @TruffleBoundary(transferToInterpreterOnException = false)
+    private Object subtractBigInteger(final long b) {
+        return reduceIfPossible(integer().subtract(BigInteger.valueOf(b)));
+    }
+
     public static Object subtract(final SqueakImageContext image, final long lhs, final long rhs) {
         /* Inlined version of Math.subtractExact(x, y) with large integer fallback. */
         final long result = lhs - rhs;
         // HD 2-12 Overflow iff the arguments have different signs and
         // the sign of the result is different than the sign of x
         if (((lhs ^ rhs) & (lhs ^ result)) < 0) {
-            return new LargeIntegerObject(image, BigInteger.valueOf(lhs).subtract(BigInteger.valueOf(rhs)));
+            return fromOverflowedLong(image, lhs < 0, result);
         }
         return result;
     }
 
-    @TruffleBoundary(transferToInterpreterOnException = false)
     public static Object subtract(final long a, final LargeIntegerObject b) {
-        return reduceIfPossible(b.image, BigInteger.valueOf(a).subtract(b.integer));
+        if (b.fitsInto128Bits()) {
+            return add128(b.image, a < 0, 0L, Math.abs(a), !b.isNegative(), b.magnitudeHigh(), b.magnitudeLow());
+        }
+        return subtractBigInteger(a, b);
     }
 
     @TruffleBoundary(transferToInterpreterOnException = false)
+    private static Object subtractBigInteger(final long a, final LargeIntegerObject b) {
+        return reduceIfPossible(b.image, BigInteger.valueOf(a).subtract(b.integer()));
+    }
+
     public Object multiply(final LargeIntegerObject b) {
-        return reduceIfPossible(image, integer.multiply(b.integer));
+        if (fitsInto128Bits() && b.fitsInto128Bits()) {
+            final Object result = multiply128(image, isNegative() != b.isNegative(), magnitudeHigh(), magnitudeLow(), b.magnitudeHigh(), b.magnitudeLow());
+            if (result != null) {
+                return result;
+            }
+        }
+        return multiplyBigInteger(b);
     }
 
     @TruffleBoundary(transferToInterpreterOnException = false)
+    private Object multiplyBigInteger(final LargeIntegerObject b) {
+        return reduceIfPossible(image, integer().multiply(b.integer()));
+    }
+
     public Object multiply(final long b) {
         if (b == 0) {
             return 0L;
         }
-        return reduceIfPossible(image, integer.multiply(BigInteger.valueOf(b)));
+        if (fitsInto128Bits()) {
+            final Object result = multiply128(image, isNegative() != b < 0, magnitudeHigh(), magnitudeLow(), 0L, Math.abs(b));
+            if (result != null) {
+                return result;
+            }
+        }
+        return multiplyBigInteger(b);
     }
 
     @TruffleBoundary(transferToInterpreterOnException = false)
+    private Object multiplyBigInteger(final long b) {
+        return reduceIfPossible(image, integer().multiply(BigInteger.valueOf(b)));
+    }
+
     public static Object multiply(final SqueakImageContext image, final long lhs, final long rhs) {
         /* Inlined version of Math.multiplyExact(x, y) with large integer fallback. */
         final long result = lhs * rhs;
@@ -397,20 +540,142 @@ public final class LargeIntegerObject extends AbstractSqueakObjectWithClassAndHa
             // Check the result using the divide operator
             // and check for the special case of Long.MIN_VALUE * -1
             if (rhs != 0 && result / rhs != lhs || lhs == Long.MIN_VALUE && rhs == -1) {
-                return new LargeIntegerObject(image, BigInteger.valueOf(lhs).multiply(BigInteger.valueOf(rhs)));
+                /* Math.abs(Long.MIN_VALUE) is 2^63 when treated as unsigned. */
+                return fromMagnitude(image, (lhs ^ rhs) < 0, unsignedMultiplyHigh(ax, ay), ax * ay);
             }
         }
         return result;
     }
 
+    /*
+     * 128-bit fast paths: magnitudes of up to two longs (as unsigned high and low words) are
+     * combined without allocating BigIntegers. Results that do not fit into 128 bits fall back to
+     * the BigInteger-based operations.
+     */
+
+    /**
+     * Magnitude is smaller than 2^127, so that the sum or difference of two such values still fits
+     * into two longs.
+     */
+    public boolean fitsInto128Bits() {
+        return bitLength() < 2 * Long.SIZE - 1;
+    }
+
+    private long magnitudeLow() {
+        return magnitudeWord(0);
+    }
+
+    private long magnitudeHigh() {
+        return magnitudeWord(Long.BYTES);
+    }
+
+    private long magnitudeWord(final int start) {
+        final byte[] magnitude = getMagnitude();
+        long value = 0;
+        for (int i = Math.min(magnitude.length, start + Long.BYTES) - 1; i >= start; i--) {
+            value = value << Byte.SIZE | magnitude[i] & 0xFF;
+        }
+        return value;
+    }
+
+    private static Object add128(final SqueakImageContext image, final boolean aIsNegative, final long aHigh, final long aLow, final boolean bIsNegative, final long bHigh,
+                    final long bLow) {
+        if (aIsNegative == bIsNegative) {
+            final long low = aLow + bLow;
+            final long carry = Long.compareUnsigned(low, aLow) < 0 ? 1L : 0L;
+            return fromMagnitude(image, aIsNegative, aHigh + bHigh + carry, low);
+        }
+        final int comparison = compareMagnitudes(aHigh, aLow, bHigh, bLow);
+        if (comparison == 0) {
+            return 0L;
+        } else if (comparison > 0) {
+            return fromMagnitude(image, aIsNegative, subtractHigh(aHigh, aLow, bHigh, bLow), aLow - bLow);
+        } else {
+            return fromMagnitude(image, bIsNegative, subtractHigh(bHigh, bLow, aHigh, aLow), bLow - aLow);
+        }
+    }
+
+    private static long subtractHigh(final long aHigh, final long aLow, final long bHigh, final long bLow) {
+        return aHigh - bHigh - (Long.compareUnsigned(aLow, bLow) < 0 ? 1L : 0L);
+    }
+
+    /** Returns {@code null} if the product does not fit into 128 bits. */
+    private static Object multiply128(final SqueakImageContext image, final boolean isNegative, final long aHigh, final long aLow, final long bHigh, final long bLow) {
+        if (aHigh != 0 && bHigh != 0) {
+            return null;
+        }
+        final long high = aHigh != 0 ? aHigh : bHigh;
+        final long other = aHigh != 0 ? bLow : aLow;
+        final long lowProductHigh = unsignedMultiplyHigh(aLow, bLow);
+        if (high == 0) {
+            return fromMagnitude(image, isNegative, lowProductHigh, aLow * bLow);
+        }
+        final long crossProduct = high * other;
+        final long resultHigh = lowProductHigh + crossProduct;
+        if (unsignedMultiplyHigh(high, other) != 0 || Long.compareUnsigned(resultHigh, crossProduct) < 0) {
+            return null;
+        }
+        return fromMagnitude(image, isNegative, resultHigh, aLow * bLow);
+    }
+
+    private static int compareMagnitudes(final long aHigh, final long aLow, final long bHigh, final long bLow) {
+        if (aHigh != bHigh) {
+            return Long.compareUnsigned(aHigh, bHigh);
+        }
+        return Long.compareUnsigned(aLow, bLow);
+    }
+
+    /** Unsigned variant of Math.multiplyHigh (not available on Java 8). */
+    public static long unsignedMultiplyHigh(final long x, final long y) {
+        final long x0 = x & 0xFFFFFFFFL;
+        final long x1 = x >>> 32;
+        final long y0 = y & 0xFFFFFFFFL;
+        final long y1 = y >>> 32;
+        final long p01 = x0 * y1;
+        final long middle = x1 * y0 + (x0 * y0 >>> 32) + (p01 & 0xFFFFFFFFL);
+        return x1 * y1 + (middle >>> 32) + (p01 >>> 32);
+    }
+
+    /** Result of a long addition or subtraction that overflowed into the 65th bit. */
+    private static Object fromOverflowedLong(final SqueakImageContext image, final boolean isNegative, final long wrappedResult) {
+        if (isNegative) {
+            /* The true result is wrappedResult - 2^64, so its magnitude is 2^64 - wrappedResult. */
+            return fromMagnitude(image, true, wrappedResult == 0 ? 1L : 0L, -wrappedResult);
+        } else {
+            return fromMagnitude(image, false, 0L, wrappedResult);
+        }
+    }
+
+    /** Answers a (normalized) SmallInteger or LargeInteger for a sign and a 128-bit magnitude. */
+    public static Object fromMagnitude(final SqueakImageContext image, final boolean isNegative, final long high, final long low) {
+        if (high == 0) {
+            if (low >= 0) {
+                return isNegative ? -low : low;
+            } else if (isNegative && low == Long.MIN_VALUE) {
+                return Long.MIN_VALUE;
+            }
+        }
+        final int highBytes = byteLength(high);
+        final int size = highBytes == 0 ? byteLength(low) : Long.BYTES + highBytes;
+        final byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) (i < Long.BYTES ? low >>> i * Byte.SIZE : high >>> (i - Long.BYTES) * Byte.SIZE);
+        }
+        return new LargeIntegerObject(image, isNegative ? image.largeNegativeIntegerClass : image.largePositiveIntegerClass, bytes);
+    }
+
+    private static int byteLength(final long unsignedValue) {
+        return (Long.SIZE - Long.numberOfLeadingZeros(unsignedValue) + Byte.SIZE - 1) / Byte.SIZE;
+    }
+
     @TruffleBoundary(transferToInterpreterOnException = false)
     public Object divide(final LargeIntegerObject b) {
-        return reduceIfPossible(integer.divide(b.integer));
+        return reduceIfPossible(integer().divide(b.integer()));
     }
 
     @TruffleBoundary(transferToInterpreterOnException = false)
     public Object divide(final long b) {
-        return reduceIfPossible(integer.divide(BigInteger.valueOf(b)));
+        return reduceIfPossible(integer().divide(BigInteger.valueOf(b)));
     }
 
     public static long divide(@SuppressWarnings("unused") final long a, final LargeIntegerObject b) {
@@ -420,17 +685,17 @@ public final class LargeIntegerObject extends AbstractSqueakObjectWithClassAndHa
 
     @TruffleBoundary(transferToInterpreterOnException = false)
     public Object floorDivide(final LargeIntegerObject b) {
-        return reduceIfPossible(floorDivide(integer, b.integer));
+        return reduceIfPossible(floorDivide(integer(), b.integer()));
     }
 
     @TruffleBoundary(transferToInterpreterOnException = false)
     public Object floorDivide(final long b) {
-        return reduceIfPossible(floorDivide(integer, BigInteger.valueOf(b)));
+        return reduceIfPossible(floorDivide(integer(), BigInteger.valueOf(b)));
     }
 
     public static long floorDivide(final long a, final LargeIntegerObject b) {
         assert !b.fitsIntoLong() : "non-reduced large integer!";
-        if ((a ^ b.integer.signum()) < 0) {
+        if ((a ^ b.signum()) < 0) {
             return -1L;
         }
         return 0L;
@@ -447,19 +712,19 @@ public final class LargeIntegerObject extends AbstractSqueakObjectWithClassAndHa
 
     @TruffleBoundary(transferToInterpreterOnException = false)
     public Object floorMod(final LargeIntegerObject b) {
-        return reduceIfPossible(integer.subtract(floorDivide(integer, b.integer).multiply(b.integer)));
+        return reduceIfPossible(integer().subtract(floorDivide(integer(), b.integer()).multiply(b.integer())));
     }
 
     @TruffleBoundary(transferToInterpreterOnException = false)
     public Object floorMod(final long b) {
         final BigInteger bValue = BigInteger.valueOf(b);
-        return reduceIfPossible(integer.subtract(floorDivide(integer, bValue).multiply(bValue)));
+        return reduceIfPossible(integer().subtract(floorDivide(integer(), bValue).multiply(bValue)));
     }
 
     @TruffleBoundary(transferToInterpreterOnException = false)
     public static Object floorMod(final long a, final LargeIntegerObject b) {
         assert !b.fitsIntoLong() : "non-reduced large integer!";
-        if ((a ^ b.integer.signum()) < 0) {
+        if ((a ^ b.signum()) < 0) {
             return b.add(a);
         }
         return a;
@@ -467,65 +732,80 @@ public final class LargeIntegerObject extends AbstractSqueakObjectWithClassAndHa
 
     @TruffleBoundary(transferToInterpreterOnException = false)
     public long remainder(final long other) {
-        return integer.remainder(BigInteger.valueOf(other)).longValue();
+        return integer().remainder(BigInteger.valueOf(other)).longValue();
     }
 
     @TruffleBoundary(transferToInterpreterOnException = false)
     public Object remainder(final LargeIntegerObject b) {
-        return reduceIfPossible(integer.remainder(b.integer));
+        return reduceIfPossible(integer().remainder(b.integer()));
     }
 
     @TruffleBoundary(transferToInterpreterOnException = false)
     public Object negate() {
-        return reduceIfPossible(integer.negate());
+        return reduceIfPossible(integer().negate());
     }
 
-    @TruffleBoundary(transferToInterpreterOnException = false)
     public int compareTo(final LargeIntegerObject b) {
-        return integer.compareTo(b.integer);
+        final int signum = signum();
+        if (signum != b.signum()) {
+            return Integer.compare(signum, b.signum());
+        }
+        if (fitsInto128Bits() && b.fitsInto128Bits()) {
+            final int comparison = compareMagnitudes(magnitudeHigh(), magnitudeLow(), b.magnitudeHigh(), b.magnitudeLow());
+            return signum < 0 ? -comparison : comparison;
+        }
+        return compareToBigInteger(b);
+    }
+
+    @TruffleBoundary(transferToInterpreterOnException = false)
+    private int compareToBigInteger(final LargeIntegerObject b) {
+        return integer().compareTo(b.integer());
     }
 
     @TruffleBoundary(transferToInterpreterOnException = false)
     public int compareTo(final long b) {
-        if (bitLength < Long.SIZE) {
-            return Long.compare(integer.longValue(), b);
+        if (bitLength() < Long.SIZE) {
+            return Long.compare(longValue(), b);
         } else {
-            return integer.signum();
+            return signum();
         }
     }
 
     @TruffleBoundary(transferToInterpreterOnException = false)
     public double doubleValue() {
-        return integer.doubleValue();
+        return integer().doubleValue();
+    }
+
+    private int signum() {
+        ensureBitLengthAndSignum();
+        return signum;
     }
 
-    /** {@link BigInteger#signum()} does not need a {@link TruffleBoundary}. */
     public boolean isZero() {
-        return integer.signum() == 0;
+        return signum() == 0;
     }
 
-    /** {@link BigInteger#signum()} does not need a {@link TruffleBoundary}. */
     public boolean isZeroOrPositive() {
-        return integer.signum() >= 0;
+        return signum() >= 0;
     }
 
     @TruffleBoundary(transferToInterpreterOnException = false)
     public boolean lessThanOrEqualTo(final long value) {
-        if (bitLength < Long.SIZE) {
-            return integer.longValue() <= value;
+        if (bitLength() < Long.SIZE) {
+            return longValue() <= value;
         } else {
-            return integer.signum() < 0;
+            return signum() < 0;
         }
     }
 
     public boolean lessThanOneShiftedBy64() {
-        return bitLength < Long.SIZE + 1;
+        return bitLength() < Long.SIZE + 1;
     }
 
     @TruffleBoundary(transferToInterpreterOnException = false)
     public boolean inRange(final long minValue, final long maxValue) {
-        if (bitLength < Long.SIZE) {
-            final long longValueExact = integer.longValue();
+        if (bitLength() < Long.SIZE) {
+            final long longValueExact = longValue();
             return minValue <= longValueExact && longValueExact <= maxValue;
         }
         return false;
@@ -533,12 +813,12 @@ public final class LargeIntegerObject extends AbstractSqueakObjectWithClassAndHa
 
     @TruffleBoundary(transferToInterpreterOnException = false)
     public boolean isIntegralWhenDividedBy(final LargeIntegerObject other) {
-        return integer.remainder(other.integer).signum() == 0;
+        return integer().remainder(other.integer()).signum() == 0;
     }
 
     @TruffleBoundary(transferToInterpreterOnException = false)
     public boolean isIntegralWhenDividedBy(final long other) {
-        return integer.remainder(BigInteger.valueOf(other)).signum() == 0;
+        return integer().remainder(BigInteger.valueOf(other)).signum() == 0;
     }
 
     public boolean sameSign(final LargeIntegerObject other) {
@@ -551,11 +831,11 @@ public final class LargeIntegerObject extends AbstractSqueakObjectWithClassAndHa
 
     @TruffleBoundary(transferToInterpreterOnException = false)
     public long toSignedLong() {
-        assert isPositive() && bitLength <= Long.SIZE;
-        if (bitLength == Long.SIZE) {
-            return integer.subtract(ONE_SHIFTED_BY_64).longValue();
+        assert isPositive() && bitLength() <= Long.SIZE;
+        if (bitLength() == Long.SIZE) {
+            return integer().subtract(ONE_SHIFTED_BY_64).longValue();
         } else {
-            return integer.longValue();
+            return longValue();
         }
     }
 
@@ -576,50 +856,89 @@ public final class LargeIntegerObject extends AbstractSqueakObjectWithClassAndHa
 
     @TruffleBoundary(transferToInterpreterOnException = false)
     public Object and(final LargeIntegerObject b) {
-        return reduceIfPossible(integer.and(b.integer));
+        return reduceIfPossible(integer().and(b.integer()));
     }
 
     @TruffleBoundary(transferToInterpreterOnException = false)
     public Object and(final long b) {
-        return reduceIfPossible(integer.and(BigInteger.valueOf(b)));
+        return reduceIfPossible(integer().and(BigInteger.valueOf(b)));
     }
 
     @TruffleBoundary(transferToInterpreterOnException = false)
     public Object or(final LargeIntegerObject b) {
-        return reduceIfPossible(integer.or(b.integer));
+        return reduceIfPossible(integer().or(b.integer()));
     }
 
     @TruffleBoundary(transferToInterpreterOnException = false)
     public Object or(final long b) {
-        return reduceIfPossible(integer.or(BigInteger.valueOf(b)));
+        return reduceIfPossible(integer().or(BigInteger.valueOf(b)));
     }
 
     @TruffleBoundary(transferToInterpreterOnException = false)
     public Object xor(final LargeIntegerObject b) {
-        return reduceIfPossible(integer.xor(b.integer));
+        return reduceIfPossible(integer().xor(b.integer()));
     }
 
     @TruffleBoundary(transferToInterpreterOnException = false)
     public Object xor(final long b) {
-        return reduceIfPossible(integer.xor(BigInteger.valueOf(b)));
+        return reduceIfPossible(integer().xor(BigInteger.valueOf(b)));
     }
 
-    @TruffleBoundary(transferToInterpreterOnException = false)
+    /** Shifts the magnitude, so that negative receivers are shifted towards zero. */
     public Object shiftLeft(final int b) {
-        if (integer.signum() < 0 && b < 0) {
-            return reduceIfPossible(integer.abs().shiftLeft(b).negate());
+        if (fitsInto128Bits()) {
+            final long high = magnitudeHigh();
+            final long low = magnitudeLow();
+            if (b < 0) {
+                final long n = -(long) b;
+                if (n >= 2 * Long.SIZE) {
+                    return 0L;
+                } else if (n >= Long.SIZE) {
+                    return fromMagnitude(image, isNegative(), 0L, high >>> n - Long.SIZE);
+                } else {
+                    return fromMagnitude(image, isNegative(), high >>> n, low >>> n | high << Long.SIZE - n);
+                }
+            } else if (b <= Long.numberOfLeadingZeros(high)) {
+                /* Result fits into 128 bits. */
+                if (b == 0) {
+                    return fromMagnitude(image, isNegative(), high, low);
+                } else if (b < Long.SIZE) {
+                    return fromMagnitude(image, isNegative(), high << b | low >>> Long.SIZE - b, low << b);
+                } else if (b - Long.SIZE <= Long.numberOfLeadingZeros(low) && b < 2 * Long.SIZE) {
+                    return fromMagnitude(image, isNegative(), low << b - Long.SIZE, 0L);
+                }
+            }
         }
-        return reduceIfPossible(integer.shiftLeft(b));
+        return shiftLeftBigInteger(b);
     }
 
     @TruffleBoundary(transferToInterpreterOnException = false)
+    private Object shiftLeftBigInteger(final int b) {
+        if (signum() < 0 && b < 0) {
+            return reduceIfPossible(integer().abs().shiftLeft(b).negate());
+        }
+        return reduceIfPossible(integer().shiftLeft(b));
+    }
+
     public static Object shiftLeftPositive(final SqueakImageContext image, final long a, final int b) {
         assert b >= 0 : "This method must be used with a positive 'b' argument";
+        /* Left shifts are exact, so shifting the magnitude is the same as shifting a. */
+        final long magnitude = Math.abs(a);
+        if (b < Long.SIZE) {
+            return fromMagnitude(image, a < 0, b == 0 ? 0L : magnitude >>> Long.SIZE - b, magnitude << b);
+        } else if (b - Long.SIZE <= Long.numberOfLeadingZeros(magnitude) && b < 2 * Long.SIZE) {
+            return fromMagnitude(image, a < 0, magnitude << b - Long.SIZE, 0L);
+        }
+        return shiftLeftPositiveBigInteger(image, a, b);
+    }
+
+    @TruffleBoundary(transferToInterpreterOnException = false)
+    private static Object shiftLeftPositiveBigInteger(final SqueakImageContext image, final long a, final int b) {
         return reduceIfPossible(image, BigInteger.valueOf(a).shiftLeft(b));
     }
 
     public BigInteger getBigInteger() {
-        return integer;
+        return integer();
     }
 
     /*
@@ -634,35 +953,35 @@ public final class LargeIntegerObject extends AbstractSqueakObjectWithClassAndHa
 
     @ExportMessage
     public boolean fitsInByte() {
-        return bitLength < Byte.SIZE;
+        return bitLength() < Byte.SIZE;
     }
 
     @ExportMessage
     public boolean fitsInShort() {
-        return bitLength < Short.SIZE;
+        return bitLength() < Short.SIZE;
     }
 
     @ExportMessage
     public boolean fitsInInt() {
-        return bitLength < Integer.SIZE;
+        return bitLength() < Integer.SIZE;
     }
 
     @ExportMessage
     public boolean fitsInLong() {
-        return bitLength < Long.SIZE;
+        return bitLength() < Long.SIZE;
     }
 
     @ExportMessage
     @TruffleBoundary
     public boolean fitsInFloat() {
-        if (bitLength <= 24) { // 24 = size of float mantissa + 1
+        if (bitLength() <= 24) { // 24 = size of float mantissa + 1
             return true;
         } else {
-            final float floatValue = integer.floatValue();
+            final float floatValue = integer().floatValue();
             if (!Float.isFinite(floatValue)) {
                 return false;
             }
-            return new BigDecimal(floatValue).toBigIntegerExact().equals(integer);
+            return new BigDecimal(floatValue).toBigIntegerExact().equals(integer());
         }
     }
 
@@ -676,7 +995,7 @@ public final class LargeIntegerObject extends AbstractSqueakObjectWithClassAndHa
             if (!Double.isFinite(doubleValue)) {
                 return false;
             }
-            return new BigDecimal(doubleValue).toBigIntegerExact().equals(integer);
+            return new BigDecimal(doubleValue).toBigIntegerExact().equals(integer());
         }
     }
 
@@ -720,7 +1039,7 @@ public final class LargeIntegerObject extends AbstractSqueakObjectWithClassAndHa
     @TruffleBoundary
     public float asFloat() throws UnsupportedMessageException {
         if (fitsInFloat()) {
-            return integer.floatValue();
+            return integer().floatValue();
         } else {
             throw UnsupportedMessageException.create();
         }
@@ -48,8 +48,14 @@ public final class NativeObject extends AbstractSqueakObjectWithClassAndHash {
     public static final int BYTE_TO_WORD = Long.SIZE / Byte.SIZE;
     public static final int SHORT_TO_WORD = Long.SIZE / Short.SIZE;
     public static final int INTEGER_TO_WORD = Long.SIZE / Integer.SIZE;
+    public static final long NO_CACHED_BYTES_HASH = -1L;
 
     @CompilationFinal private Object storage;
+    /**
+     * Memoized result of hashing the bytes of an immutable ByteSymbol. The upper 32 bits hold the
+     * (masked) initial hash, the lower 32 bits the hash itself.
+     */
+    private long cachedBytesHash = NO_CACHED_BYTES_HASH;
 
     public NativeObject(final SqueakImageContext image) { // constructor for special selectors
         super(image, AbstractSqueakObjectWithHash.HASH_UNINITIALIZED, null);
@@ -202,6 +208,7 @@ public final class NativeObject extends AbstractSqueakObjectWithClassAndHash {
 
     public void setByte(final long index, final byte value) {
         assert isByteType();
+        cachedBytesHash = NO_CACHED_BYTES_HASH;
         UnsafeUtils.putByte((byte[]) storage, index, value);
     }
 
@@ -293,9 +300,36 @@ public final class NativeObject extends AbstractSqueakObjectWithClassAndHash {
 
     public void setStorage(final Object storage) {
         CompilerDirectives.transferToInterpreterAndInvalidate();
+        cachedBytesHash = NO_CACHED_BYTES_HASH;
         this.storage = storage;
     }
 
+    public boolean isByteSymbol() {
+        return getSqueakClass() == image.getByteSymbolClass();
+    }
+
+    /**
+     * Returns the memoized bytes hash for `maskedInitialHash`, or {@link #NO_CACHED_BYTES_HASH}. Only
+     * ByteSymbols memoize their hash, see {@link #setCachedBytesHash(long, long)}.
+     */
+    public long getCachedBytesHash(final long maskedInitialHash) {
+        final long cached = cachedBytesHash;
+        if (cached != NO_CACHED_BYTES_HASH && cached >>> 32 == maskedInitialHash) {
+            return cached & 0xFFFFFFFFL;
+        }
+        return NO_CACHED_BYTES_HASH;
+    }
+
+    public void setCachedBytesHash(final long maskedInitialHash, final long hash) {
+        assert isByteSymbol() && 0 <= maskedInitialHash && maskedInitialHash <= INTEGER_MAX && 0 <= hash && hash <= INTEGER_MAX;
+        cachedBytesHash = maskedInitialHash << 32 | hash;
+    }
+
+    /** Must be called after writing directly into the byte storage (see {@link #getByteStorage()}). */
+    public void invalidateCachedBytesHash() {
+        cachedBytesHash = NO_CACHED_BYTES_HASH;
+    }
+
     @TruffleBoundary
     public String asStringUnsafe() {
         return StandardCharsets.UTF_8.decode(ByteBuffer.wrap((byte[]) storage)).toString();
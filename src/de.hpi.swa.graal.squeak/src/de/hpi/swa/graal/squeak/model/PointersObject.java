@@ -23,7 +23,7 @@ import de.hpi.swa.graal.squeak.model.layout.ObjectLayouts.SPECIAL_OBJECT;
 import de.hpi.swa.graal.squeak.nodes.accessing.AbstractPointersObjectNodes.AbstractPointersObjectReadNode;
 import de.hpi.swa.graal.squeak.nodes.accessing.AbstractPointersObjectNodes.AbstractPointersObjectWriteNode;
 import de.hpi.swa.graal.squeak.nodes.accessing.SqueakObjectIdentityNode;
-import de.hpi.swa.graal.squeak.nodes.accessing.UpdateSqueakObjectHashNode;
+import de.hpi.swa.graal.squeak.util.ForwardingTable;
 import de.hpi.swa.graal.squeak.util.ObjectGraphUtils.ObjectTracer;
 
 public final class PointersObject extends AbstractPointersObject {
@@ -76,8 +76,8 @@ public final class PointersObject extends AbstractPointersObject {
         becomeLayout(other);
     }
 
-    public void pointersBecomeOneWay(final UpdateSqueakObjectHashNode updateHashNode, final Object[] from, final Object[] to, final boolean copyHash) {
-        layoutValuesBecomeOneWay(updateHashNode, from, to, copyHash);
+    public void pointersBecomeOneWay(final ForwardingTable forwarding) {
+        layoutValuesBecomeOneWay(forwarding);
     }
 
     @Override
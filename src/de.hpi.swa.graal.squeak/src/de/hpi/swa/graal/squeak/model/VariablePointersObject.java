@@ -16,8 +16,8 @@ import de.hpi.swa.graal.squeak.image.SqueakImageWriter;
 import de.hpi.swa.graal.squeak.model.layout.ObjectLayout;
 import de.hpi.swa.graal.squeak.nodes.accessing.AbstractPointersObjectNodes.AbstractPointersObjectWriteNode;
 import de.hpi.swa.graal.squeak.nodes.accessing.SqueakObjectIdentityNode;
-import de.hpi.swa.graal.squeak.nodes.accessing.UpdateSqueakObjectHashNode;
 import de.hpi.swa.graal.squeak.util.ArrayUtils;
+import de.hpi.swa.graal.squeak.util.ForwardingTable;
 import de.hpi.swa.graal.squeak.util.ObjectGraphUtils.ObjectTracer;
 import de.hpi.swa.graal.squeak.util.UnsafeUtils;
 
@@ -72,19 +72,13 @@ public final class VariablePointersObject extends AbstractPointersObject {
         return instsize() + variablePart.length;
     }
 
-    public void pointersBecomeOneWay(final UpdateSqueakObjectHashNode updateHashNode, final Object[] from, final Object[] to, final boolean copyHash) {
-        layoutValuesBecomeOneWay(updateHashNode, from, to, copyHash);
-        final int variableSize = variablePart.length;
-        if (variableSize > 0) {
-            for (int i = 0; i < from.length; i++) {
-                final Object fromPointer = from[i];
-                for (int j = 0; j < variableSize; j++) {
-                    final Object object = getFromVariablePart(j);
-                    if (object == fromPointer) {
-                        putIntoVariablePart(j, to[i]);
-                        updateHashNode.executeUpdate(fromPointer, to[i], copyHash);
-                    }
-                }
+    public void pointersBecomeOneWay(final ForwardingTable forwarding) {
+        layoutValuesBecomeOneWay(forwarding);
+        for (int i = 0; i < variablePart.length; i++) {
+            final Object object = getFromVariablePart(i);
+            final Object target = forwarding.forward(object);
+            if (target != object) {
+                putIntoVariablePart(i, target);
             }
         }
     }
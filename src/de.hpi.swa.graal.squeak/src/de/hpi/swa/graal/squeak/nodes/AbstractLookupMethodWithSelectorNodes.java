@@ -16,6 +16,7 @@ import de.hpi.swa.graal.squeak.nodes.AbstractLookupMethodWithSelectorNodesFactor
 import de.hpi.swa.graal.squeak.nodes.AbstractLookupMethodWithSelectorNodesFactory.LookupMethodWithSelectorAndBreakpointNodeGen;
 import de.hpi.swa.graal.squeak.nodes.AbstractLookupMethodWithSelectorNodesFactory.LookupMethodWithSelectorNodeGen;
 import de.hpi.swa.graal.squeak.nodes.accessing.AbstractPointersObjectNodes.AbstractPointersObjectReadNode;
+import de.hpi.swa.graal.squeak.util.MegamorphicLookupTable;
 import de.hpi.swa.graal.squeak.util.SqueakMessageInterceptor;
 
 public abstract class AbstractLookupMethodWithSelectorNodes extends AbstractNode {
@@ -91,6 +92,15 @@ public abstract class AbstractLookupMethodWithSelectorNodes extends AbstractNode
         }
 
         @Specialization(replaces = "doCached")
+        protected static final Object doMegamorphic(final ClassObject classObject,
+                        @Cached("getMegamorphicLookupTable()") final MegamorphicLookupTable table) {
+            return table.lookup(classObject);
+        }
+
+        protected final MegamorphicLookupTable getMegamorphicLookupTable() {
+            return selector.image.getMegamorphicLookupTable(selector);
+        }
+
         protected final Object doUncached(final ClassObject classObject) {
             ClassObject lookupClass = classObject;
             while (lookupClass != null) {
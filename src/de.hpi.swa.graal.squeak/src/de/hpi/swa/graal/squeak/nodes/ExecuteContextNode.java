@@ -61,6 +61,7 @@ public class ExecuteContextNode extends AbstractNodeWithCode implements Instrume
 
     @Child private FrameStackInitializationNode frameInitializationNode;
     @Child private HandlePrimitiveFailedNode handlePrimitiveFailedNode;
+    @Child private PrimitiveFailedNode primitiveFailedNode;
     @Child private InterruptHandlerNode interruptHandlerNode;
     @Child private MaterializeContextOnMethodExitNode materializeContextOnMethodExitNode;
 
@@ -138,7 +139,7 @@ public class ExecuteContextNode extends AbstractNodeWithCode implements Instrume
                     if (!initializeBeforePrimitiveCall) {
                         frameInitializationNode.executeInitialize(frame);
                     }
-                    getHandlePrimitiveFailedNode().executeHandle(frame, e.getReasonCode());
+                    handlePrimitiveFailed(frame, e);
                     /* continue with fallback code. */
                 }
             } else {
@@ -183,7 +184,7 @@ public class ExecuteContextNode extends AbstractNodeWithCode implements Instrume
                 }
                 return primitiveNode.executePrimitive(frame);
             } catch (final PrimitiveFailed e) {
-                getHandlePrimitiveFailedNode().executeHandle(frame, e.getReasonCode());
+                handlePrimitiveFailed(frame, e);
                 /* continue with fallback code. */
             }
         }
@@ -310,12 +311,14 @@ public class ExecuteContextNode extends AbstractNodeWithCode implements Instrume
         return returnValue;
     }
 
-    private HandlePrimitiveFailedNode getHandlePrimitiveFailedNode() {
+    private void handlePrimitiveFailed(final VirtualFrame frame, final PrimitiveFailed e) {
         if (handlePrimitiveFailedNode == null) {
             CompilerDirectives.transferToInterpreterAndInvalidate();
             handlePrimitiveFailedNode = insert(HandlePrimitiveFailedNode.create(code));
+            primitiveFailedNode = insert(PrimitiveFailedNode.create(code));
         }
-        return handlePrimitiveFailedNode;
+        primitiveFailedNode.execute(frame);
+        handlePrimitiveFailedNode.executeHandle(frame, e.getReasonCode());
     }
 
     /*
@@ -8,6 +8,7 @@ package de.hpi.swa.graal.squeak.nodes;
 import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.profiles.ConditionProfile;
 
 import de.hpi.swa.graal.squeak.exceptions.Returns.NonLocalReturn;
 import de.hpi.swa.graal.squeak.exceptions.Returns.NonVirtualReturn;
@@ -18,6 +19,8 @@ import de.hpi.swa.graal.squeak.util.FrameAccess;
 public abstract class HandleNonLocalReturnNode extends AbstractNodeWithCode {
     @Child private AboutToReturnNode aboutToReturnNode;
 
+    private final ConditionProfile isHomeContextProfile = ConditionProfile.createBinaryProfile();
+
     protected HandleNonLocalReturnNode(final CompiledCodeObject code) {
         super(code);
         aboutToReturnNode = AboutToReturnNode.create(code);
@@ -38,10 +41,20 @@ public abstract class HandleNonLocalReturnNode extends AbstractNodeWithCode {
         throw new NonVirtualReturn(nlr.getReturnValue(), target, newSender);
     }
 
+    /*
+     * The home context of the returning block answers the return value like a local return. When
+     * the block has been inlined into its home method, the exception is thrown and caught within
+     * the same compilation unit, so the compiler turns it into a jump and never allocates it.
+     */
     @Fallback
     protected final Object handleVirtualized(final VirtualFrame frame, final NonLocalReturn nlr) {
         aboutToReturnNode.executeAboutToReturn(frame, nlr); // handle ensure: or ifCurtailed:
+        final boolean isHomeContext = nlr.getTargetContextOrMarker() == FrameAccess.getSender(frame);
         FrameAccess.terminate(frame, code);
-        throw nlr;
+        if (isHomeContextProfile.profile(isHomeContext)) {
+            return nlr.getReturnValue();
+        } else {
+            throw nlr;
+        }
     }
 }
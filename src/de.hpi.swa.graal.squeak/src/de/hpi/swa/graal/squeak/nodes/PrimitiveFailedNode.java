@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2017-2020 Software Architecture Group, Hasso Plattner Institute
+ *
+ * Licensed under the MIT License.
+ */
+package de.hpi.swa.graal.squeak.nodes;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.instrumentation.GenerateWrapper;
+import com.oracle.truffle.api.instrumentation.InstrumentableNode;
+import com.oracle.truffle.api.instrumentation.ProbeNode;
+import com.oracle.truffle.api.instrumentation.Tag;
+import com.oracle.truffle.api.nodes.NodeCost;
+import com.oracle.truffle.api.nodes.NodeInfo;
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.api.source.SourceSection;
+
+import de.hpi.swa.graal.squeak.model.CompiledCodeObject;
+
+/**
+ * Executed when the primitive of a method has failed, before its fallback code runs. The node does
+ * nothing itself, but instruments can observe primitive failures through {@link PrimitiveFailedTag}.
+ */
+@GenerateWrapper
+@NodeInfo(cost = NodeCost.NONE)
+public class PrimitiveFailedNode extends AbstractNodeWithCode implements InstrumentableNode {
+    private SourceSection section;
+
+    protected PrimitiveFailedNode(final CompiledCodeObject code) {
+        super(code);
+    }
+
+    protected PrimitiveFailedNode(final PrimitiveFailedNode original) {
+        super(original);
+    }
+
+    public static PrimitiveFailedNode create(final CompiledCodeObject code) {
+        return new PrimitiveFailedNode(code);
+    }
+
+    @SuppressWarnings("unused")
+    public void execute(final VirtualFrame frame) {
+        // nothing to do
+    }
+
+    @Override
+    public final boolean isInstrumentable() {
+        return true;
+    }
+
+    @Override
+    public final WrapperNode createWrapper(final ProbeNode probe) {
+        return new PrimitiveFailedNodeWrapper(this, this, probe);
+    }
+
+    @Override
+    public final boolean hasTag(final Class<? extends Tag> tag) {
+        return PrimitiveFailedTag.class == tag;
+    }
+
+    @Override
+    public SourceSection getSourceSection() {
+        if (section == null) {
+            final Source source = code.getSource();
+            section = source.createSection(1, 1, source.getLength());
+        }
+        return section;
+    }
+
+    @Tag.Identifier("PRIMITIVE_FAILED")
+    public static final class PrimitiveFailedTag extends Tag {
+        private PrimitiveFailedTag() {
+        }
+    }
+}
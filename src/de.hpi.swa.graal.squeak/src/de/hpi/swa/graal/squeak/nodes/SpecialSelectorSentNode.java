@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2017-2020 Software Architecture Group, Hasso Plattner Institute
+ *
+ * Licensed under the MIT License.
+ */
+package de.hpi.swa.graal.squeak.nodes;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.instrumentation.GenerateWrapper;
+import com.oracle.truffle.api.instrumentation.InstrumentableNode;
+import com.oracle.truffle.api.instrumentation.ProbeNode;
+import com.oracle.truffle.api.instrumentation.Tag;
+import com.oracle.truffle.api.nodes.NodeCost;
+import com.oracle.truffle.api.nodes.NodeInfo;
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.api.source.SourceSection;
+
+import de.hpi.swa.graal.squeak.model.CompiledCodeObject;
+
+/**
+ * Executed when a special selector such as `+` or `<` is actually sent, because it could not be
+ * computed without a send. The node does nothing itself, but instruments can observe these sends
+ * through {@link SpecialSelectorSentTag}.
+ */
+@GenerateWrapper
+@NodeInfo(cost = NodeCost.NONE)
+public class SpecialSelectorSentNode extends AbstractNodeWithCode implements InstrumentableNode {
+    private SourceSection section;
+
+    protected SpecialSelectorSentNode(final CompiledCodeObject code) {
+        super(code);
+    }
+
+    protected SpecialSelectorSentNode(final SpecialSelectorSentNode original) {
+        super(original);
+    }
+
+    public static SpecialSelectorSentNode create(final CompiledCodeObject code) {
+        return new SpecialSelectorSentNode(code);
+    }
+
+    @SuppressWarnings("unused")
+    public void execute(final VirtualFrame frame) {
+        // nothing to do
+    }
+
+    @Override
+    public final boolean isInstrumentable() {
+        return true;
+    }
+
+    @Override
+    public final WrapperNode createWrapper(final ProbeNode probe) {
+        return new SpecialSelectorSentNodeWrapper(this, this, probe);
+    }
+
+    @Override
+    public final boolean hasTag(final Class<? extends Tag> tag) {
+        return SpecialSelectorSentTag.class == tag;
+    }
+
+    @Override
+    public SourceSection getSourceSection() {
+        if (section == null) {
+            final Source source = code.getSource();
+            section = source.createSection(1, 1, source.getLength());
+        }
+        return section;
+    }
+
+    @Tag.Identifier("SPECIAL_SELECTOR_SENT")
+    public static final class SpecialSelectorSentTag extends Tag {
+        private SpecialSelectorSentTag() {
+        }
+    }
+}
@@ -70,7 +70,7 @@ public abstract class SqueakObjectChangeClassOfToNode extends AbstractNode {
 
     @Specialization(guards = {"argument.isBytes()"})
     protected static final LargeIntegerObject doLargeInteger(final LargeIntegerObject receiver, final ClassObject argument) {
-        receiver.setSqueakClass(argument);
+        receiver.changeClassTo(argument);
         return receiver;
     }
 
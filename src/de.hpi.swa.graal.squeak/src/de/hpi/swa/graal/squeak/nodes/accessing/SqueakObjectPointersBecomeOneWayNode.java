@@ -5,8 +5,6 @@
  */
 package de.hpi.swa.graal.squeak.nodes.accessing;
 
-import java.util.Arrays;
-
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.Specialization;
@@ -32,50 +30,39 @@ import de.hpi.swa.graal.squeak.nodes.AbstractNode;
 import de.hpi.swa.graal.squeak.nodes.accessing.AbstractPointersObjectNodes.AbstractPointersObjectReadNode;
 import de.hpi.swa.graal.squeak.nodes.accessing.AbstractPointersObjectNodes.AbstractPointersObjectWriteNode;
 import de.hpi.swa.graal.squeak.nodes.accessing.ContextObjectNodes.ContextObjectWriteNode;
+import de.hpi.swa.graal.squeak.util.ForwardingTable;
 
 public abstract class SqueakObjectPointersBecomeOneWayNode extends AbstractNode {
-    @Child private UpdateSqueakObjectHashNode updateHashNode = UpdateSqueakObjectHashNode.create();
 
     public static SqueakObjectPointersBecomeOneWayNode create() {
         return SqueakObjectPointersBecomeOneWayNodeGen.create();
     }
 
-    public abstract void execute(Object obj, Object[] from, Object[] to, boolean copyHash);
+    public abstract void execute(Object obj, ForwardingTable forwarding);
 
     @Specialization
-    protected final void doClosure(final BlockClosureObject obj, final Object[] from, final Object[] to, final boolean copyHash) {
+    protected static final void doClosure(final BlockClosureObject obj, final ForwardingTable forwarding) {
+        final Object oldReceiver = obj.getReceiver();
+        final Object newReceiver = forwarding.forward(oldReceiver);
+        final ContextObject oldOuterContext = obj.getOuterContextOrNull();
+        assert oldOuterContext != null : "Outer context should probably not be null/nil here";
+        final ContextObject newOuterContext = (ContextObject) forwarding.forward(oldOuterContext);
         final Object[] oldCopied = obj.getCopied();
-        final int numOldCopied = oldCopied.length;
-        Object newReceiver = obj.getReceiver();
-        ContextObject newOuterContext = obj.getOuterContextOrNull();
-        assert newOuterContext != null : "Outer context should probably not be null/nil here";
         Object[] newCopied = null;
-        for (int i = 0; i < from.length; i++) {
-            final Object fromPointer = from[i];
-            if (newReceiver == fromPointer) {
-                newReceiver = to[i];
-                updateHashNode.executeUpdate(fromPointer, newReceiver, copyHash);
-            }
-            if (newOuterContext == fromPointer) {
-                newOuterContext = (ContextObject) to[i];
-                updateHashNode.executeUpdate(fromPointer, newOuterContext, copyHash);
-            }
-            for (int j = 0; j < oldCopied.length; j++) {
-                final Object newPointer = oldCopied[j];
-                if (newPointer == fromPointer) {
-                    if (newCopied == null) {
-                        newCopied = Arrays.copyOf(oldCopied, numOldCopied);
-                    }
-                    newCopied[j] = to[i];
-                    updateHashNode.executeUpdate(fromPointer, newCopied[j], copyHash);
+        for (int i = 0; i < oldCopied.length; i++) {
+            final Object newPointer = forwarding.forward(oldCopied[i]);
+            if (newPointer != oldCopied[i]) {
+                if (newCopied == null) {
+                    newCopied = oldCopied.clone();
                 }
+                newCopied[i] = newPointer;
             }
         }
         // Only update object if necessary to avoid redundant transferToInterpreters.
-        if (newReceiver != obj.getReceiver()) {
+        if (newReceiver != oldReceiver) {
             obj.setReceiver(newReceiver);
         }
-        if (newOuterContext != obj.getOuterContextOrNull()) {
+        if (newOuterContext != oldOuterContext) {
             obj.setOuterContext(newOuterContext);
         }
         if (newCopied != null) {
@@ -84,153 +71,108 @@ public abstract class SqueakObjectPointersBecomeOneWayNode extends AbstractNode
     }
 
     @Specialization
-    protected final void doClass(final ClassObject obj, final Object[] from, final Object[] to, final boolean copyHash) {
-        ClassObject newSuperclass = obj.getSuperclassOrNull();
-        VariablePointersObject newMethodDict = obj.getMethodDict();
-        ArrayObject newInstanceVariables = obj.getInstanceVariablesOrNull();
-        PointersObject newOrganization = obj.getOrganizationOrNull();
-        for (int i = 0; i < from.length; i++) {
-            final Object fromPointer = from[i];
-            if (fromPointer == newSuperclass) {
-                newSuperclass = to[i] == NilObject.SINGLETON ? null : (ClassObject) to[i];
-                updateHashNode.executeUpdate(fromPointer, newSuperclass, copyHash);
-            }
-            if (fromPointer == newMethodDict) {
-                newMethodDict = (VariablePointersObject) to[i];
-                updateHashNode.executeUpdate(fromPointer, newMethodDict, copyHash);
-            }
-            if (fromPointer == newInstanceVariables) {
-                newInstanceVariables = to[i] == NilObject.SINGLETON ? null : (ArrayObject) to[i];
-                updateHashNode.executeUpdate(fromPointer, newInstanceVariables, copyHash);
-            }
-            if (fromPointer == newOrganization) {
-                newOrganization = to[i] == NilObject.SINGLETON ? null : (PointersObject) to[i];
-                updateHashNode.executeUpdate(fromPointer, newOrganization, copyHash);
-            }
-        }
+    protected static final void doClass(final ClassObject obj, final ForwardingTable forwarding) {
+        final ClassObject oldSuperclass = obj.getSuperclassOrNull();
+        final Object newSuperclass = forwarding.forward(oldSuperclass);
+        final VariablePointersObject oldMethodDict = obj.getMethodDict();
+        final Object newMethodDict = forwarding.forward(oldMethodDict);
+        final ArrayObject oldInstanceVariables = obj.getInstanceVariablesOrNull();
+        final Object newInstanceVariables = forwarding.forward(oldInstanceVariables);
+        final PointersObject oldOrganization = obj.getOrganizationOrNull();
+        final Object newOrganization = forwarding.forward(oldOrganization);
         // Only update object if necessary to avoid redundant transferToInterpreters.
-        if (newSuperclass != obj.getSuperclass()) {
-            obj.setSuperclass(newSuperclass);
+        if (newSuperclass != oldSuperclass) {
+            obj.setSuperclass(newSuperclass == NilObject.SINGLETON ? null : (ClassObject) newSuperclass);
         }
-        if (newMethodDict != obj.getMethodDict()) {
-            obj.setMethodDict(newMethodDict);
+        if (newMethodDict != oldMethodDict) {
+            obj.setMethodDict((VariablePointersObject) newMethodDict);
         }
-        if (newInstanceVariables != obj.getInstanceVariables()) {
-            obj.setInstanceVariables(newInstanceVariables);
+        if (newInstanceVariables != oldInstanceVariables) {
+            obj.setInstanceVariables(newInstanceVariables == NilObject.SINGLETON ? null : (ArrayObject) newInstanceVariables);
         }
-        if (newOrganization != obj.getOrganization()) {
-            obj.setOrganization(newOrganization);
+        if (newOrganization != oldOrganization) {
+            obj.setOrganization(newOrganization == NilObject.SINGLETON ? null : (PointersObject) newOrganization);
         }
-        pointersBecomeOneWay(obj.getOtherPointers(), from, to, copyHash);
+        forwarding.forwardAll(obj.getOtherPointers());
     }
 
     @Specialization
-    protected final void doMethod(final CompiledMethodObject obj, final Object[] from, final Object[] to, final boolean copyHash,
+    protected static final void doMethod(final CompiledMethodObject obj, final ForwardingTable forwarding,
                     @Cached final AbstractPointersObjectReadNode readNode,
                     @Cached final AbstractPointersObjectWriteNode writeNode) {
-        final ClassObject oldClass = obj.image.compiledMethodClass;
-        for (int i = 0; i < from.length; i++) {
-            if (from[i] == oldClass) {
-                final ClassObject newClass = (ClassObject) to[i]; // must be a ClassObject
-                updateHashNode.executeUpdate(oldClass, newClass, copyHash);
-            }
-        }
         if (obj.hasMethodClass(readNode)) {
-            final ClassObject oldMethodClass = (ClassObject) obj.getMethodClass(readNode);
-            for (int i = 0; i < from.length; i++) {
-                if (from[i] == oldMethodClass) {
-                    final AbstractSqueakObject newMethodClass = (AbstractSqueakObject) to[i];
-                    obj.setMethodClass(writeNode, newMethodClass);
-                    updateHashNode.executeUpdate(oldMethodClass, newMethodClass, copyHash);
-                    // TODO: flush method caches correct here?
-                    if (newMethodClass instanceof ClassObject) {
-                        ((ClassObject) newMethodClass).invalidateMethodDictStableAssumption();
-                    }
+            final Object oldMethodClass = obj.getMethodClass(readNode);
+            final Object newMethodClass = forwarding.forward(oldMethodClass);
+            if (newMethodClass != oldMethodClass) {
+                obj.setMethodClass(writeNode, (AbstractSqueakObject) newMethodClass);
+                // TODO: flush method caches correct here?
+                if (newMethodClass instanceof ClassObject) {
+                    ((ClassObject) newMethodClass).invalidateMethodDictStableAssumption();
                 }
             }
         }
     }
 
     @Specialization
-    protected final void doContext(final ContextObject obj, final Object[] from, final Object[] to, final boolean copyHash,
+    protected static final void doContext(final ContextObject obj, final ForwardingTable forwarding,
                     @Cached final ContextObjectWriteNode writeNode) {
-        for (int i = 0; i < from.length; i++) {
-            final Object fromPointer = from[i];
-            final Object toPointer = to[i];
-            if (!obj.hasTruffleFrame()) {
-                return;
-            }
-            // TODO: Check that all pointers are actually traced (obj.size()?).
-            final MaterializedFrame truffleFrame = obj.getTruffleFrame();
-            final Object[] args = truffleFrame.getArguments();
-            for (int j = 0; j < args.length; j++) {
-                if (args[j] == fromPointer) {
-                    args[j] = toPointer;
-                    updateHashNode.executeUpdate(fromPointer, toPointer, copyHash);
-                }
+        if (!obj.hasTruffleFrame()) {
+            return;
+        }
+        // TODO: Check that all pointers are actually traced (obj.size()?).
+        final MaterializedFrame truffleFrame = obj.getTruffleFrame();
+        final Object[] args = truffleFrame.getArguments();
+        if (!forwarding.tryToVisitFrame(args)) {
+            return;
+        }
+        forwarding.forwardAll(args);
+        final CompiledCodeObject code = args[2] != null ? ((BlockClosureObject) args[2]).getCompiledBlock() : (CompiledMethodObject) args[0];
+        final int stackp = FrameUtil.getIntSafe(truffleFrame, code.getStackPointerSlot());
+        final FrameSlot[] stackSlots = code.getStackSlotsUnsafe();
+        final FrameDescriptor frameDescriptor = code.getFrameDescriptor();
+        for (int j = 0; j < stackp; j++) {
+            final FrameSlot slot = stackSlots[j];
+            if (slot == null) {
+                break; // Stop here, slot has not (yet) been created.
             }
-            final CompiledCodeObject code = args[2] != null ? ((BlockClosureObject) args[2]).getCompiledBlock() : (CompiledMethodObject) args[0];
-            final int stackp = FrameUtil.getIntSafe(truffleFrame, code.getStackPointerSlot());
-            final FrameSlot[] stackSlots = code.getStackSlotsUnsafe();
-            final FrameDescriptor frameDescriptor = code.getFrameDescriptor();
-            for (int j = 0; j < stackp; j++) {
-                final FrameSlot slot = stackSlots[j];
-                if (slot == null) {
-                    break; // Stop here, slot has not (yet) been created.
+            if (truffleFrame.isObject(slot)) {
+                final Object oldPointer = FrameUtil.getObjectSafe(truffleFrame, slot);
+                if (oldPointer == null) {
+                    break;
                 }
-                if (truffleFrame.isObject(slot)) {
-                    final Object newPointer = FrameUtil.getObjectSafe(truffleFrame, slot);
-                    if (newPointer == null) {
-                        break;
-                    }
-                    if (newPointer == fromPointer) {
-                        writeNode.execute(obj, j + CONTEXT.TEMP_FRAME_START, toPointer);
-                        updateHashNode.executeUpdate(fromPointer, toPointer, copyHash);
-                    }
-                } else if (frameDescriptor.getFrameSlotKind(slot) == FrameSlotKind.Illegal) {
-                    break; // Stop here, because this slot and all following are not used.
+                final Object newPointer = forwarding.forward(oldPointer);
+                if (newPointer != oldPointer) {
+                    writeNode.execute(obj, j + CONTEXT.TEMP_FRAME_START, newPointer);
                 }
+            } else if (frameDescriptor.getFrameSlotKind(slot) == FrameSlotKind.Illegal) {
+                break; // Stop here, because this slot and all following are not used.
             }
         }
     }
 
     @Specialization(guards = "obj.isTraceable()")
-    protected final void doArray(final ArrayObject obj, final Object[] from, final Object[] to, final boolean copyHash) {
-        pointersBecomeOneWay(obj.getObjectStorage(), from, to, copyHash);
+    protected static final void doArray(final ArrayObject obj, final ForwardingTable forwarding) {
+        forwarding.forwardAll(obj.getObjectStorage());
     }
 
     @Specialization
-    protected final void doPointers(final PointersObject obj, final Object[] from, final Object[] to, final boolean copyHash) {
-        obj.pointersBecomeOneWay(updateHashNode, from, to, copyHash);
+    protected static final void doPointers(final PointersObject obj, final ForwardingTable forwarding) {
+        obj.pointersBecomeOneWay(forwarding);
     }
 
     @Specialization
-    protected final void doVariablePointers(final VariablePointersObject obj, final Object[] from, final Object[] to, final boolean copyHash) {
-        obj.pointersBecomeOneWay(updateHashNode, from, to, copyHash);
+    protected static final void doVariablePointers(final VariablePointersObject obj, final ForwardingTable forwarding) {
+        obj.pointersBecomeOneWay(forwarding);
     }
 
     @Specialization
-    protected final void doWeakPointers(final WeakVariablePointersObject obj, final Object[] from, final Object[] to, final boolean copyHash) {
-        obj.pointersBecomeOneWay(updateHashNode, from, to, copyHash);
-    }
-
-    private void pointersBecomeOneWay(final Object[] original, final Object[] from, final Object[] to, final boolean copyHash) {
-        for (int i = 0; i < from.length; i++) {
-            final Object fromPointer = from[i];
-            for (int j = 0; j < original.length; j++) {
-                final Object newPointer = original[j];
-                if (newPointer == fromPointer) {
-                    final Object toPointer = to[i];
-                    original[j] = toPointer;
-                    updateHashNode.executeUpdate(fromPointer, toPointer, copyHash);
-                }
-            }
-        }
+    protected static final void doWeakPointers(final WeakVariablePointersObject obj, final ForwardingTable forwarding) {
+        obj.pointersBecomeOneWay(forwarding);
     }
 
     @SuppressWarnings("unused")
     @Fallback
-    protected static final void doFallback(final Object obj, final Object[] from, final Object[] to, final boolean copyHash) {
+    protected static final void doFallback(final Object obj, final ForwardingTable forwarding) {
         // nothing to do
     }
 }
@@ -41,6 +41,10 @@ public abstract class AbstractBytecodeNode extends AbstractNode {
 
     public abstract void executeVoid(VirtualFrame frame);
 
+    public final CompiledCodeObject getCode() {
+        return code;
+    }
+
     public final int getSuccessorIndex() {
         return index + numBytecodes;
     }
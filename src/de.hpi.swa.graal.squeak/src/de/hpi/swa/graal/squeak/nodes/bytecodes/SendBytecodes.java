@@ -25,8 +25,10 @@ import de.hpi.swa.graal.squeak.model.NativeObject;
 import de.hpi.swa.graal.squeak.nodes.AbstractLookupMethodWithSelectorNodes.AbstractLookupMethodWithSelectorNode;
 import de.hpi.swa.graal.squeak.nodes.AbstractNode;
 import de.hpi.swa.graal.squeak.nodes.DispatchSendNode;
+import de.hpi.swa.graal.squeak.nodes.SpecialSelectorSentNode;
 import de.hpi.swa.graal.squeak.nodes.accessing.AbstractPointersObjectNodes.AbstractPointersObjectReadNode;
 import de.hpi.swa.graal.squeak.nodes.accessing.SqueakObjectClassNode;
+import de.hpi.swa.graal.squeak.nodes.bytecodes.SpecialSelectorNodes.AbstractSpecialSelectorNode;
 import de.hpi.swa.graal.squeak.nodes.context.frame.FrameStackPopNNode;
 import de.hpi.swa.graal.squeak.nodes.context.frame.FrameStackPushNode;
 import de.hpi.swa.graal.squeak.nodes.primitives.impl.ControlPrimitives.PrimExitToDebuggerNode;
@@ -67,8 +69,19 @@ public final class SendBytecodes {
         }
 
         @Override
-        public final void executeVoid(final VirtualFrame frame) {
-            final Object[] rcvrAndArgs = popNNode.execute(frame);
+        public void executeVoid(final VirtualFrame frame) {
+            executeSend(frame, popReceiverAndArguments(frame));
+        }
+
+        protected final Object[] popReceiverAndArguments(final VirtualFrame frame) {
+            return popNNode.execute(frame);
+        }
+
+        protected final void pushResult(final VirtualFrame frame, final Object result) {
+            getPushNode().execute(frame, result);
+        }
+
+        protected final void executeSend(final VirtualFrame frame, final Object[] rcvrAndArgs) {
             final ClassObject rcvrClass = lookupClassNode.executeLookup(rcvrAndArgs[0]);
             final Object lookupResult = lookupMethodNode.executeLookup(rcvrClass);
             try {
@@ -106,6 +119,10 @@ public final class SendBytecodes {
             return selector;
         }
 
+        public final int getArgumentCount() {
+            return argumentCount;
+        }
+
         @Override
         public final boolean hasTag(final Class<? extends Tag> tag) {
             if (tag == StandardTags.CallTag.class) {
@@ -174,14 +191,48 @@ public final class SendBytecodes {
     }
 
     public static final class SendSpecialSelectorNode extends AbstractSendNode {
-        private SendSpecialSelectorNode(final CompiledCodeObject code, final int index, final int numBytecodes, final Object selector, final int argcount) {
+        /* Computes arithmetic selectors for SmallIntegers and SmallFloat64s without a send. */
+        @Child private AbstractSpecialSelectorNode inlinedNode;
+        /* Lets instruments such as the SendProfiler tell actual sends from computed results. */
+        @Child private SpecialSelectorSentNode sentNode;
+
+        private final ConditionProfile inlinedProfile = ConditionProfile.createBinaryProfile();
+
+        private SendSpecialSelectorNode(final CompiledCodeObject code, final int index, final int numBytecodes, final Object selector, final int argcount,
+                        final AbstractSpecialSelectorNode inlinedNode) {
             super(code, index, numBytecodes, selector, argcount);
+            this.inlinedNode = inlinedNode;
         }
 
         public static SendSpecialSelectorNode create(final CompiledCodeObject code, final int index, final int selectorIndex) {
             final NativeObject specialSelector = code.image.getSpecialSelector(selectorIndex);
             final int numArguments = code.image.getSpecialSelectorNumArgs(selectorIndex);
-            return new SendSpecialSelectorNode(code, index, 1, specialSelector, numArguments);
+            return new SendSpecialSelectorNode(code, index, 1, specialSelector, numArguments, SpecialSelectorNodes.create(code, selectorIndex));
+        }
+
+        @Override
+        public void executeVoid(final VirtualFrame frame) {
+            if (inlinedNode == null) {
+                getSentNode().execute(frame);
+                super.executeVoid(frame);
+                return;
+            }
+            final Object[] rcvrAndArgs = popReceiverAndArguments(frame);
+            final Object result = inlinedNode.execute(rcvrAndArgs[0], rcvrAndArgs[1]);
+            if (inlinedProfile.profile(result != SpecialSelectorNodes.NOT_INLINED)) {
+                pushResult(frame, result);
+            } else {
+                getSentNode().execute(frame);
+                executeSend(frame, rcvrAndArgs);
+            }
+        }
+
+        private SpecialSelectorSentNode getSentNode() {
+            if (sentNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                sentNode = insert(SpecialSelectorSentNode.create(code));
+            }
+            return sentNode;
         }
     }
 
@@ -0,0 +1,451 @@
+/*
+ * Copyright (c) 2017-2020 Software Architecture Group, Hasso Plattner Institute
+ *
+ * Licensed under the MIT License.
+ */
+package de.hpi.swa.graal.squeak.nodes.bytecodes;
+
+import com.oracle.truffle.api.Assumption;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Fallback;
+import com.oracle.truffle.api.dsl.Specialization;
+
+import de.hpi.swa.graal.squeak.model.BooleanObject;
+import de.hpi.swa.graal.squeak.model.ClassObject;
+import de.hpi.swa.graal.squeak.model.CompiledCodeObject;
+import de.hpi.swa.graal.squeak.model.CompiledMethodObject;
+import de.hpi.swa.graal.squeak.model.LargeIntegerObject;
+import de.hpi.swa.graal.squeak.model.NativeObject;
+import de.hpi.swa.graal.squeak.nodes.AbstractNodeWithCode;
+import de.hpi.swa.graal.squeak.nodes.SqueakGuards;
+import de.hpi.swa.graal.squeak.nodes.accessing.AbstractPointersObjectNodes.AbstractPointersObjectWriteNode;
+import de.hpi.swa.graal.squeak.nodes.bytecodes.SpecialSelectorNodesFactory.AddNodeGen;
+import de.hpi.swa.graal.squeak.nodes.bytecodes.SpecialSelectorNodesFactory.BitAndNodeGen;
+import de.hpi.swa.graal.squeak.nodes.bytecodes.SpecialSelectorNodesFactory.BitOrNodeGen;
+import de.hpi.swa.graal.squeak.nodes.bytecodes.SpecialSelectorNodesFactory.BitShiftNodeGen;
+import de.hpi.swa.graal.squeak.nodes.bytecodes.SpecialSelectorNodesFactory.DivideNodeGen;
+import de.hpi.swa.graal.squeak.nodes.bytecodes.SpecialSelectorNodesFactory.EqualNodeGen;
+import de.hpi.swa.graal.squeak.nodes.bytecodes.SpecialSelectorNodesFactory.FloorDivideNodeGen;
+import de.hpi.swa.graal.squeak.nodes.bytecodes.SpecialSelectorNodesFactory.FloorModNodeGen;
+import de.hpi.swa.graal.squeak.nodes.bytecodes.SpecialSelectorNodesFactory.GreaterOrEqualNodeGen;
+import de.hpi.swa.graal.squeak.nodes.bytecodes.SpecialSelectorNodesFactory.GreaterThanNodeGen;
+import de.hpi.swa.graal.squeak.nodes.bytecodes.SpecialSelectorNodesFactory.LessOrEqualNodeGen;
+import de.hpi.swa.graal.squeak.nodes.bytecodes.SpecialSelectorNodesFactory.LessThanNodeGen;
+import de.hpi.swa.graal.squeak.nodes.bytecodes.SpecialSelectorNodesFactory.MakePointNodeGen;
+import de.hpi.swa.graal.squeak.nodes.bytecodes.SpecialSelectorNodesFactory.MultiplyNodeGen;
+import de.hpi.swa.graal.squeak.nodes.bytecodes.SpecialSelectorNodesFactory.NotEqualNodeGen;
+import de.hpi.swa.graal.squeak.nodes.bytecodes.SpecialSelectorNodesFactory.SubtractNodeGen;
+import de.hpi.swa.graal.squeak.util.SqueakMessageInterceptor;
+
+/**
+ * Inlined arithmetic and comparison special selectors (the first 16 of them) for SmallInteger and
+ * SmallFloat64 receivers. The nodes compute what the primitive of the method in SmallInteger or
+ * SmallFloat64 would compute, as long as that method is unchanged. For all other receivers and
+ * arguments, for changed methods, and where the primitive would fail, the nodes answer
+ * {@link #NOT_INLINED} and the send node performs a full send.
+ */
+public final class SpecialSelectorNodes {
+    public static final Object NOT_INLINED = new Object();
+
+    /* Primitive indices of the SmallInteger methods, indexed by special selector. */
+    private static final int[] SMALL_INTEGER_PRIMITIVES = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 18, 17, 12, 14, 15};
+    /* Primitive indices of the SmallFloat64 methods for +, -, <, >, <=, >=, =, ~=, *, and /. */
+    private static final int[] SMALL_FLOAT_PRIMITIVES = {541, 542, 543, 544, 545, 546, 547, 548, 549, 550};
+
+    /** Answers a node for the special selector at `selectorIndex`, or `null` if it is not inlined. */
+    public static AbstractSpecialSelectorNode create(final CompiledCodeObject code, final int selectorIndex) {
+        if (selectorIndex >= SMALL_INTEGER_PRIMITIVES.length || SqueakMessageInterceptor.breakpointClassFor(code.image.getSpecialSelector(selectorIndex)) != null) {
+            return null;
+        }
+        switch (selectorIndex) {
+            case 0:
+                return AddNodeGen.create(code, selectorIndex);
+            case 1:
+                return SubtractNodeGen.create(code, selectorIndex);
+            case 2:
+                return LessThanNodeGen.create(code, selectorIndex);
+            case 3:
+                return GreaterThanNodeGen.create(code, selectorIndex);
+            case 4:
+                return LessOrEqualNodeGen.create(code, selectorIndex);
+            case 5:
+                return GreaterOrEqualNodeGen.create(code, selectorIndex);
+            case 6:
+                return EqualNodeGen.create(code, selectorIndex);
+            case 7:
+                return NotEqualNodeGen.create(code, selectorIndex);
+            case 8:
+                return MultiplyNodeGen.create(code, selectorIndex);
+            case 9:
+                return DivideNodeGen.create(code, selectorIndex);
+            case 10:
+                return FloorModNodeGen.create(code, selectorIndex);
+            case 11:
+                return MakePointNodeGen.create(code, selectorIndex);
+            case 12:
+                return BitShiftNodeGen.create(code, selectorIndex);
+            case 13:
+                return FloorDivideNodeGen.create(code, selectorIndex);
+            case 14:
+                return BitAndNodeGen.create(code, selectorIndex);
+            case 15:
+                return BitOrNodeGen.create(code, selectorIndex);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Whether the method for a selector in a class still has a given primitive. The answer is
+     * recomputed when the method dictionary or hierarchy of the class changes.
+     */
+    protected static final class ExpectedPrimitive {
+        private final ClassObject classObject;
+        private final NativeObject selector;
+        private final int primitiveIndex;
+
+        @CompilationFinal private Assumption methodDictStable;
+        @CompilationFinal private Assumption classHierarchyStable;
+        @CompilationFinal private boolean isValid;
+
+        private ExpectedPrimitive(final ClassObject classObject, final NativeObject selector, final int primitiveIndex) {
+            this.classObject = classObject;
+            this.selector = selector;
+            this.primitiveIndex = primitiveIndex;
+        }
+
+        protected boolean isValid() {
+            if (classObject == null) {
+                return false; /* No SmallFloat64 in 32-bit images. */
+            }
+            if (methodDictStable == null || !methodDictStable.isValid() || !classHierarchyStable.isValid()) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                methodDictStable = classObject.getMethodDictStable();
+                classHierarchyStable = classObject.getClassHierarchyStable();
+                final Object method = classObject.lookupInMethodDictSlow(selector);
+                isValid = method instanceof CompiledMethodObject && ((CompiledMethodObject) method).hasPrimitive() &&
+                                ((CompiledMethodObject) method).primitiveIndex() == primitiveIndex;
+            }
+            return isValid;
+        }
+    }
+
+    public abstract static class AbstractSpecialSelectorNode extends AbstractNodeWithCode {
+        private final ExpectedPrimitive smallIntegerPrimitive;
+        private final ExpectedPrimitive smallFloatPrimitive;
+
+        protected AbstractSpecialSelectorNode(final CompiledCodeObject code, final int selectorIndex) {
+            super(code);
+            final NativeObject selector = code.image.getSpecialSelector(selectorIndex);
+            smallIntegerPrimitive = new ExpectedPrimitive(code.image.smallIntegerClass, selector, SMALL_INTEGER_PRIMITIVES[selectorIndex]);
+            smallFloatPrimitive = new ExpectedPrimitive(selectorIndex < SMALL_FLOAT_PRIMITIVES.length ? code.image.getSmallFloatClass() : null, selector,
+                            selectorIndex < SMALL_FLOAT_PRIMITIVES.length ? SMALL_FLOAT_PRIMITIVES[selectorIndex] : -1);
+        }
+
+        /** Answers the result of the send or {@link SpecialSelectorNodes#NOT_INLINED}. */
+        public abstract Object execute(Object receiver, Object argument);
+
+        protected final boolean inlinesSmallInteger() {
+            return smallIntegerPrimitive.isValid();
+        }
+
+        protected final boolean inlinesSmallFloat() {
+            return smallFloatPrimitive.isValid();
+        }
+
+        /* Non-finite results are boxed by the primitives, so leave them to a full send. */
+        protected static final Object finiteOrNotInlined(final double value) {
+            return Double.isFinite(value) ? value : NOT_INLINED;
+        }
+
+        @SuppressWarnings("unused")
+        @Fallback
+        protected static final Object doNotInlined(final Object receiver, final Object argument) {
+            return NOT_INLINED;
+        }
+    }
+
+    public abstract static class AddNode extends AbstractSpecialSelectorNode {
+        protected AddNode(final CompiledCodeObject code, final int selectorIndex) {
+            super(code, selectorIndex);
+        }
+
+        @Specialization(guards = "inlinesSmallInteger()", rewriteOn = ArithmeticException.class)
+        protected static final long doLong(final long lhs, final long rhs) {
+            return Math.addExact(lhs, rhs);
+        }
+
+        @Specialization(guards = "inlinesSmallInteger()", replaces = "doLong")
+        protected final Object doLongWithOverflow(final long lhs, final long rhs) {
+            return LargeIntegerObject.add(code.image, lhs, rhs);
+        }
+
+        @Specialization(guards = "inlinesSmallInteger()")
+        protected static final Object doLongDouble(final long lhs, final double rhs) {
+            return finiteOrNotInlined(lhs + rhs);
+        }
+
+        @Specialization(guards = "inlinesSmallFloat()")
+        protected static final Object doDouble(final double lhs, final double rhs) {
+            return finiteOrNotInlined(lhs + rhs);
+        }
+    }
+
+    public abstract static class SubtractNode extends AbstractSpecialSelectorNode {
+        protected SubtractNode(final CompiledCodeObject code, final int selectorIndex) {
+            super(code, selectorIndex);
+        }
+
+        @Specialization(guards = "inlinesSmallInteger()", rewriteOn = ArithmeticException.class)
+        protected static final long doLong(final long lhs, final long rhs) {
+            return Math.subtractExact(lhs, rhs);
+        }
+
+        @Specialization(guards = "inlinesSmallInteger()", replaces = "doLong")
+        protected final Object doLongWithOverflow(final long lhs, final long rhs) {
+            return LargeIntegerObject.subtract(code.image, lhs, rhs);
+        }
+
+        @Specialization(guards = "inlinesSmallInteger()")
+        protected static final Object doLongDouble(final long lhs, final double rhs) {
+            return finiteOrNotInlined(lhs - rhs);
+        }
+
+        @Specialization(guards = "inlinesSmallFloat()")
+        protected static final Object doDouble(final double lhs, final double rhs) {
+            return finiteOrNotInlined(lhs - rhs);
+        }
+    }
+
+    public abstract static class MultiplyNode extends AbstractSpecialSelectorNode {
+        protected MultiplyNode(final CompiledCodeObject code, final int selectorIndex) {
+            super(code, selectorIndex);
+        }
+
+        @Specialization(guards = "inlinesSmallInteger()", rewriteOn = ArithmeticException.class)
+        protected static final long doLong(final long lhs, final long rhs) {
+            return Math.multiplyExact(lhs, rhs);
+        }
+
+        @Specialization(guards = "inlinesSmallInteger()", replaces = "doLong")
+        protected final Object doLongWithOverflow(final long lhs, final long rhs) {
+            return LargeIntegerObject.multiply(code.image, lhs, rhs);
+        }
+
+        @Specialization(guards = "inlinesSmallInteger()")
+        protected static final Object doLongDouble(final long lhs, final double rhs) {
+            return finiteOrNotInlined(lhs * rhs);
+        }
+
+        @Specialization(guards = "inlinesSmallFloat()")
+        protected static final Object doDouble(final double lhs, final double rhs) {
+            return finiteOrNotInlined(lhs * rhs);
+        }
+    }
+
+    public abstract static class DivideNode extends AbstractSpecialSelectorNode {
+        protected DivideNode(final CompiledCodeObject code, final int selectorIndex) {
+            super(code, selectorIndex);
+        }
+
+        /* Inexact divisions answer Fractions, which the image creates. */
+        @Specialization(guards = {"inlinesSmallInteger()", "rhs != 0", "isIntegralWhenDividedBy(lhs, rhs)"})
+        protected final Object doLong(final long lhs, final long rhs) {
+            if (SqueakGuards.isOverflowDivision(lhs, rhs)) {
+                return LargeIntegerObject.createLongMinOverflowResult(code.image);
+            } else {
+                return lhs / rhs;
+            }
+        }
+
+        @Specialization(guards = {"inlinesSmallInteger()", "!isZero(rhs)"})
+        protected static final Object doLongDouble(final long lhs, final double rhs) {
+            return finiteOrNotInlined(lhs / rhs);
+        }
+
+        @Specialization(guards = {"inlinesSmallFloat()", "!isZero(rhs)"})
+        protected static final Object doDouble(final double lhs, final double rhs) {
+            return finiteOrNotInlined(lhs / rhs);
+        }
+    }
+
+    public abstract static class FloorModNode extends AbstractSpecialSelectorNode {
+        protected FloorModNode(final CompiledCodeObject code, final int selectorIndex) {
+            super(code, selectorIndex);
+        }
+
+        @Specialization(guards = {"inlinesSmallInteger()", "rhs != 0"})
+        protected static final long doLong(final long lhs, final long rhs) {
+            return Math.floorMod(lhs, rhs);
+        }
+    }
+
+    public abstract static class FloorDivideNode extends AbstractSpecialSelectorNode {
+        protected FloorDivideNode(final CompiledCodeObject code, final int selectorIndex) {
+            super(code, selectorIndex);
+        }
+
+        @Specialization(guards = {"inlinesSmallInteger()", "rhs != 0"})
+        protected final Object doLong(final long lhs, final long rhs) {
+            if (SqueakGuards.isOverflowDivision(lhs, rhs)) {
+                return LargeIntegerObject.createLongMinOverflowResult(code.image);
+            } else {
+                return Math.floorDiv(lhs, rhs);
+            }
+        }
+    }
+
+    public abstract static class LessThanNode extends AbstractSpecialSelectorNode {
+        protected LessThanNode(final CompiledCodeObject code, final int selectorIndex) {
+            super(code, selectorIndex);
+        }
+
+        @Specialization(guards = "inlinesSmallInteger()")
+        protected static final boolean doLong(final long lhs, final long rhs) {
+            return BooleanObject.wrap(lhs < rhs);
+        }
+
+        @Specialization(guards = "inlinesSmallFloat()")
+        protected static final boolean doDouble(final double lhs, final double rhs) {
+            return BooleanObject.wrap(lhs < rhs);
+        }
+    }
+
+    public abstract static class GreaterThanNode extends AbstractSpecialSelectorNode {
+        protected GreaterThanNode(final CompiledCodeObject code, final int selectorIndex) {
+            super(code, selectorIndex);
+        }
+
+        @Specialization(guards = "inlinesSmallInteger()")
+        protected static final boolean doLong(final long lhs, final long rhs) {
+            return BooleanObject.wrap(lhs > rhs);
+        }
+
+        @Specialization(guards = "inlinesSmallFloat()")
+        protected static final boolean doDouble(final double lhs, final double rhs) {
+            return BooleanObject.wrap(lhs > rhs);
+        }
+    }
+
+    public abstract static class LessOrEqualNode extends AbstractSpecialSelectorNode {
+        protected LessOrEqualNode(final CompiledCodeObject code, final int selectorIndex) {
+            super(code, selectorIndex);
+        }
+
+        @Specialization(guards = "inlinesSmallInteger()")
+        protected static final boolean doLong(final long lhs, final long rhs) {
+            return BooleanObject.wrap(lhs <= rhs);
+        }
+
+        @Specialization(guards = "inlinesSmallFloat()")
+        protected static final boolean doDouble(final double lhs, final double rhs) {
+            return BooleanObject.wrap(lhs <= rhs);
+        }
+    }
+
+    public abstract static class GreaterOrEqualNode extends AbstractSpecialSelectorNode {
+        protected GreaterOrEqualNode(final CompiledCodeObject code, final int selectorIndex) {
+            super(code, selectorIndex);
+        }
+
+        @Specialization(guards = "inlinesSmallInteger()")
+        protected static final boolean doLong(final long lhs, final long rhs) {
+            return BooleanObject.wrap(lhs >= rhs);
+        }
+
+        @Specialization(guards = "inlinesSmallFloat()")
+        protected static final boolean doDouble(final double lhs, final double rhs) {
+            return BooleanObject.wrap(lhs >= rhs);
+        }
+    }
+
+    public abstract static class EqualNode extends AbstractSpecialSelectorNode {
+        protected EqualNode(final CompiledCodeObject code, final int selectorIndex) {
+            super(code, selectorIndex);
+        }
+
+        @Specialization(guards = "inlinesSmallInteger()")
+        protected static final boolean doLong(final long lhs, final long rhs) {
+            return BooleanObject.wrap(lhs == rhs);
+        }
+
+        @Specialization(guards = "inlinesSmallFloat()")
+        protected static final boolean doDouble(final double lhs, final double rhs) {
+            return BooleanObject.wrap(lhs == rhs);
+        }
+    }
+
+    public abstract static class NotEqualNode extends AbstractSpecialSelectorNode {
+        protected NotEqualNode(final CompiledCodeObject code, final int selectorIndex) {
+            super(code, selectorIndex);
+        }
+
+        @Specialization(guards = "inlinesSmallInteger()")
+        protected static final boolean doLong(final long lhs, final long rhs) {
+            return BooleanObject.wrap(lhs != rhs);
+        }
+
+        @Specialization(guards = "inlinesSmallFloat()")
+        protected static final boolean doDouble(final double lhs, final double rhs) {
+            return BooleanObject.wrap(lhs != rhs);
+        }
+    }
+
+    public abstract static class MakePointNode extends AbstractSpecialSelectorNode {
+        protected MakePointNode(final CompiledCodeObject code, final int selectorIndex) {
+            super(code, selectorIndex);
+        }
+
+        @Specialization(guards = "inlinesSmallInteger()")
+        protected final Object doLong(final long xPos, final Object yPos,
+                        @Cached final AbstractPointersObjectWriteNode writeNode) {
+            return code.image.asPoint(writeNode, xPos, yPos);
+        }
+    }
+
+    public abstract static class BitShiftNode extends AbstractSpecialSelectorNode {
+        protected BitShiftNode(final CompiledCodeObject code, final int selectorIndex) {
+            super(code, selectorIndex);
+        }
+
+        /* Left shifts that overflow are left to the primitive. */
+        @Specialization(guards = {"inlinesSmallInteger()", "arg >= 0", "arg < numberOfLeadingZeros(receiver)"})
+        protected static final long doShiftLeft(final long receiver, final long arg) {
+            return receiver << arg;
+        }
+
+        @Specialization(guards = {"inlinesSmallInteger()", "arg < 0"})
+        protected static final long doShiftRight(final long receiver, final long arg) {
+            return -Long.SIZE < arg ? receiver >> -arg : receiver >> Long.SIZE - 1;
+        }
+
+        /* Minus one, because a positive long must not be shifted into a negative one. */
+        protected static final int numberOfLeadingZeros(final long value) {
+            return Long.numberOfLeadingZeros(value) - 1;
+        }
+    }
+
+    public abstract static class BitAndNode extends AbstractSpecialSelectorNode {
+        protected BitAndNode(final CompiledCodeObject code, final int selectorIndex) {
+            super(code, selectorIndex);
+        }
+
+        @Specialization(guards = "inlinesSmallInteger()")
+        protected static final long doLong(final long receiver, final long arg) {
+            return receiver & arg;
+        }
+    }
+
+    public abstract static class BitOrNode extends AbstractSpecialSelectorNode {
+        protected BitOrNode(final CompiledCodeObject code, final int selectorIndex) {
+            super(code, selectorIndex);
+        }
+
+        @Specialization(guards = "inlinesSmallInteger()")
+        protected static final long doLong(final long receiver, final long arg) {
+            return receiver | arg;
+        }
+    }
+}
@@ -5,6 +5,12 @@
  */
 package de.hpi.swa.graal.squeak.nodes.plugins;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.SeekableByteChannel;
+import java.util.HashMap;
+import java.util.Map;
+
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
@@ -22,12 +28,18 @@ import com.oracle.truffle.api.source.Source;
 
 import de.hpi.swa.graal.squeak.exceptions.PrimitiveExceptions.PrimitiveFailed;
 import de.hpi.swa.graal.squeak.exceptions.SqueakExceptions.SqueakException;
+import de.hpi.swa.graal.squeak.image.SqueakImageContext;
+import de.hpi.swa.graal.squeak.model.ArrayObject;
+import de.hpi.swa.graal.squeak.model.BooleanObject;
 import de.hpi.swa.graal.squeak.model.CompiledMethodObject;
 import de.hpi.swa.graal.squeak.model.NativeObject;
 import de.hpi.swa.graal.squeak.model.NilObject;
+import de.hpi.swa.graal.squeak.nodes.accessing.ArrayObjectNodes.ArrayObjectToObjectArrayCopyNode;
 import de.hpi.swa.graal.squeak.nodes.primitives.AbstractPrimitiveFactoryHolder;
 import de.hpi.swa.graal.squeak.nodes.primitives.AbstractPrimitiveNode;
 import de.hpi.swa.graal.squeak.nodes.primitives.PrimitiveInterfaces.BinaryPrimitive;
+import de.hpi.swa.graal.squeak.nodes.primitives.PrimitiveInterfaces.SenaryPrimitive;
+import de.hpi.swa.graal.squeak.nodes.primitives.PrimitiveInterfaces.TernaryPrimitive;
 import de.hpi.swa.graal.squeak.nodes.primitives.PrimitiveInterfaces.UnaryPrimitive;
 import de.hpi.swa.graal.squeak.nodes.primitives.PrimitiveInterfaces.UnaryPrimitiveWithoutFallback;
 import de.hpi.swa.graal.squeak.nodes.primitives.SqueakPrimitive;
@@ -183,4 +195,155 @@ public abstract class AbstractOSProcessPlugin extends AbstractPrimitiveFactoryHo
             sessionByteArray = method.image.asByteArray(bytes);
         }
     }
+
+    /**
+     * Spawns `command` (an Array of Strings, the first naming the executable) in `directory` (nil
+     * for the current working directory) with `environment` (an Array of 'NAME=value' Strings, nil
+     * to inherit). Answers an Array with the handle of the subprocess followed by FilePlugin handles
+     * for its stdin, stdout, and stderr. Reading from these handles never blocks; the external
+     * semaphores at `dataSemaphoreIndex` and `exitSemaphoreIndex` (zero for none) are signalled
+     * whenever output becomes available and once the subprocess has exited.
+     */
+    @GenerateNodeFactory
+    @SqueakPrimitive(names = "primitiveSpawn")
+    protected abstract static class PrimSpawnNode extends AbstractPrimitiveNode implements SenaryPrimitive {
+
+        protected PrimSpawnNode(final CompiledMethodObject method) {
+            super(method);
+        }
+
+        @Specialization
+        protected final ArrayObject doSpawn(@SuppressWarnings("unused") final Object receiver, final ArrayObject command, final Object directory, final Object environment,
+                        final long dataSemaphoreIndex, final long exitSemaphoreIndex,
+                        @Cached final ArrayObjectToObjectArrayCopyNode toObjectArrayNode) {
+            final Object[] commandObjects = toObjectArrayNode.execute(command);
+            final Object[] environmentObjects;
+            if (environment instanceof ArrayObject) {
+                environmentObjects = toObjectArrayNode.execute((ArrayObject) environment);
+            } else if (environment == NilObject.SINGLETON) {
+                environmentObjects = null;
+            } else {
+                throw PrimitiveFailed.BAD_ARGUMENT;
+            }
+            return spawn(method.image, commandObjects, directory, environmentObjects, (int) dataSemaphoreIndex, (int) exitSemaphoreIndex);
+        }
+
+        @TruffleBoundary(transferToInterpreterOnException = false)
+        private static ArrayObject spawn(final SqueakImageContext image, final Object[] commandObjects, final Object directory, final Object[] environmentObjects,
+                        final int dataSemaphoreIndex, final int exitSemaphoreIndex) {
+            if (commandObjects.length == 0) {
+                throw PrimitiveFailed.BAD_ARGUMENT;
+            }
+            final String[] command = new String[commandObjects.length];
+            for (int i = 0; i < command.length; i++) {
+                command[i] = asString(commandObjects[i]);
+            }
+            final Map<String, String> environment;
+            if (environmentObjects == null) {
+                environment = null;
+            } else {
+                environment = new HashMap<>();
+                for (final Object object : environmentObjects) {
+                    final String assignment = asString(object);
+                    final int equalsIndex = assignment.indexOf('=');
+                    if (equalsIndex <= 0) {
+                        throw PrimitiveFailed.BAD_ARGUMENT;
+                    }
+                    environment.put(assignment.substring(0, equalsIndex), assignment.substring(equalsIndex + 1));
+                }
+            }
+            final File workingDirectory;
+            try {
+                if (directory == NilObject.SINGLETON) {
+                    workingDirectory = new File(image.env.getCurrentWorkingDirectory().getPath());
+                } else {
+                    workingDirectory = new File(image.env.getPublicTruffleFile(asString(directory)).getAbsoluteFile().getPath());
+                }
+            } catch (final UnsupportedOperationException | IllegalArgumentException | SecurityException e) {
+                throw PrimitiveFailed.BAD_ARGUMENT;
+            }
+            final SubProcess subProcess;
+            try {
+                subProcess = SubProcess.spawn(command, workingDirectory, environment, image.interrupt, dataSemaphoreIndex, exitSemaphoreIndex);
+            } catch (final IOException | SecurityException e) {
+                throw PrimitiveFailed.GENERIC_ERROR;
+            }
+            final long handle = subProcess.hashCode();
+            image.subProcessHandles.put(handle, subProcess);
+            return image.asArrayOfLongs(handle, registerFileHandle(image, subProcess.getStdin()), registerFileHandle(image, subProcess.getStdout()),
+                            registerFileHandle(image, subProcess.getStderr()));
+        }
+
+        private static String asString(final Object object) {
+            if (object instanceof NativeObject && ((NativeObject) object).isByteType()) {
+                return ((NativeObject) object).asStringUnsafe();
+            } else {
+                throw PrimitiveFailed.BAD_ARGUMENT;
+            }
+        }
+
+        private static long registerFileHandle(final SqueakImageContext image, final SeekableByteChannel channel) {
+            final long handle = channel.hashCode();
+            image.filePluginHandles.put(handle, channel);
+            return handle;
+        }
+    }
+
+    protected static final SubProcess getSubProcessOrPrimFail(final CompiledMethodObject method, final long handle) {
+        final SubProcess subProcess = method.image.subProcessHandles.get(handle);
+        if (subProcess == null) {
+            throw PrimitiveFailed.BAD_ARGUMENT;
+        }
+        return subProcess;
+    }
+
+    /** Answers the exit status of a subprocess, or nil while it is still running. */
+    @GenerateNodeFactory
+    @SqueakPrimitive(names = "primitiveSubProcessExitStatus")
+    protected abstract static class PrimSubProcessExitStatusNode extends AbstractPrimitiveNode implements BinaryPrimitive {
+
+        protected PrimSubProcessExitStatusNode(final CompiledMethodObject method) {
+            super(method);
+        }
+
+        @Specialization
+        @TruffleBoundary(transferToInterpreterOnException = false)
+        protected final Object doExitStatus(@SuppressWarnings("unused") final Object receiver, final long handle) {
+            final SubProcess subProcess = getSubProcessOrPrimFail(method, handle);
+            return subProcess.hasExited() ? (long) subProcess.getExitStatus() : NilObject.SINGLETON;
+        }
+    }
+
+    /** Forgets a subprocess. Its pipes remain open until closed with primitiveFileClose. */
+    @GenerateNodeFactory
+    @SqueakPrimitive(names = "primitiveSubProcessRelease")
+    protected abstract static class PrimSubProcessReleaseNode extends AbstractPrimitiveNode implements BinaryPrimitive {
+
+        protected PrimSubProcessReleaseNode(final CompiledMethodObject method) {
+            super(method);
+        }
+
+        @Specialization
+        @TruffleBoundary
+        protected final boolean doRelease(@SuppressWarnings("unused") final Object receiver, final long handle) {
+            return BooleanObject.wrap(method.image.subProcessHandles.removeKey(handle) != null);
+        }
+    }
+
+    /** Asks a subprocess to terminate, or kills it if `forcibly` is true. */
+    @GenerateNodeFactory
+    @SqueakPrimitive(names = "primitiveSubProcessTerminate")
+    protected abstract static class PrimSubProcessTerminateNode extends AbstractPrimitiveNode implements TernaryPrimitive {
+
+        protected PrimSubProcessTerminateNode(final CompiledMethodObject method) {
+            super(method);
+        }
+
+        @Specialization
+        @TruffleBoundary(transferToInterpreterOnException = false)
+        protected final Object doTerminate(final Object receiver, final long handle, final boolean forcibly) {
+            getSubProcessOrPrimFail(method, handle).terminate(forcibly);
+            return receiver;
+        }
+    }
 }
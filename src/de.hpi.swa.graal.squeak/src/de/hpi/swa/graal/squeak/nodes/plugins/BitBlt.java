@@ -5,7 +5,10 @@
  */
 package de.hpi.swa.graal.squeak.nodes.plugins;
 
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.LongBinaryOperator;
+import java.util.stream.IntStream;
 
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
@@ -59,6 +62,8 @@ public final class BitBlt {
     private static final int GREEN_INDEX = 1;
     private static final int OP_TABLE_SIZE = 43;
     private static final int RED_INDEX = 0;
+    private static final long PARALLEL_MIN_PIXELS = 256 * 256;
+    private static final int PARALLEL_MIN_ROWS_PER_BAND = 16;
 
     /* Return the default translation table from 1..8 bit indexed colors to 32bit */
     /* The table has been generated by the following statements */
@@ -211,10 +216,17 @@ public final class BitBlt {
 
     private boolean successFlag = false;
 
+    /* GraalSqueak-specific: split large 32-bit operations into row bands (see #forEachRowBand). */
+    private boolean useParallelBands = false;
+
     public BitBlt() {
         initialiseModule();
     }
 
+    public void setUseParallelBands(final boolean value) {
+        useParallelBands = value;
+    }
+
     /* BitBltSimulation>>#addWord:with: */
     private long addWordwith(final long sourceWord, final long destinationWord) {
         return sourceWord + destinationWord;
@@ -472,6 +484,10 @@ public final class BitBlt {
 
     /* BitBltSimulation>>#alphaSourceBlendBits32 */
     private void alphaSourceBlendBits32() {
+        if (sourceBitsIsWords && destBits != null && isSourceInBounds32()) {
+            forEachRowBand(this::alphaSourceBlendBits32Words, sourceBits != destBits);
+            return;
+        }
         int deltaX;
         int deltaY;
         long destWord;
@@ -2359,6 +2375,9 @@ public final class BitBlt {
     /* BitBltSimulation>>#performCopyLoop */
     private void performCopyLoop() {
         destMaskAndPointerInit();
+        if (tryCopyLoop32()) {
+            return;
+        }
         if (noSource) {
             /* Simple fill loop */
             copyLoopNoSource();
@@ -2379,6 +2398,157 @@ public final class BitBlt {
         }
     }
 
+    /*
+     * GraalSqueak-specific: kernels for the most common operations on 32-bit Forms with word
+     * storage. They are selected after clipping, work on int[] directly, and produce the same
+     * results as the generic copy loops, which remain the fallback for everything else. Each kernel
+     * processes a band of rows, so that large operations can be split across the fork-join pool
+     * (see #forEachRowBand).
+     */
+
+    private boolean tryCopyLoop32() {
+        if (destDepth != 32 || destBits == null || cmFlags != 0) {
+            return false;
+        }
+        if (noSource) {
+            return tryFillLoop32();
+        }
+        if (sourceDepth != 32 || !sourceBitsIsWords || sourceMSB != destMSB || !noHalftone || !isSourceInBounds32()) {
+            return false;
+        }
+        if (combinationRule == 3) {
+            if (sourceBits == destBits && dy > sy) {
+                /* Overlapping downwards, so rows must be copied bottom-up. */
+                copyLoop32StoreBottomUp();
+            } else {
+                forEachRowBand(this::copyLoop32Store, sourceBits != destBits);
+            }
+            return true;
+        } else if (combinationRule == 24 && sourceBits != destBits) {
+            forEachRowBand(this::copyLoop32AlphaBlend, true);
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    private boolean isSourceInBounds32() {
+        return sx >= 0 && sy >= 0 && (long) (sy + bbH - 1) * (sourcePitch >> 2) + sx + bbW <= endOfSource >> 2;
+    }
+
+    /**
+     * Runs `rowKernel` for all `bbH` rows, split into bands on the common fork-join pool if enabled,
+     * `canRunInParallel`, and the operation is large enough. Bands write disjoint rows, so the result
+     * is the same as when run sequentially.
+     */
+    private void forEachRowBand(final RowBandKernel rowKernel, final boolean canRunInParallel) {
+        final int height32 = bbH;
+        if (useParallelBands && canRunInParallel && (long) bbW * height32 >= PARALLEL_MIN_PIXELS) {
+            final int numBands = Math.min(ForkJoinPool.getCommonPoolParallelism() + 1, height32 / PARALLEL_MIN_ROWS_PER_BAND);
+            if (numBands > 1) {
+                IntStream.range(0, numBands).parallel().forEach(band -> rowKernel.run(height32 * band / numBands, height32 * (band + 1) / numBands));
+                return;
+            }
+        }
+        rowKernel.run(0, height32);
+    }
+
+    @FunctionalInterface
+    private interface RowBandKernel {
+        void run(int startRow, int endRow);
+    }
+
+    /* Rule 3 (store). */
+    private void copyLoop32Store(final int startRow, final int endRow) {
+        final int[] srcWords = (int[]) sourceBits;
+        final int[] dstWords = destBits;
+        final int srcWordsPerRow = sourcePitch >> 2;
+        final int dstWordsPerRow = destPitch >> 2;
+        final int width32 = bbW;
+        for (int y = startRow; y < endRow; y++) {
+            System.arraycopy(srcWords, (sy + y) * srcWordsPerRow + sx, dstWords, (dy + y) * dstWordsPerRow + dx, width32);
+        }
+    }
+
+    private void copyLoop32StoreBottomUp() {
+        final int[] srcWords = (int[]) sourceBits;
+        final int[] dstWords = destBits;
+        final int srcWordsPerRow = sourcePitch >> 2;
+        final int dstWordsPerRow = destPitch >> 2;
+        final int width32 = bbW;
+        for (int y = bbH - 1; y >= 0; y--) {
+            System.arraycopy(srcWords, (sy + y) * srcWordsPerRow + sx, dstWords, (dy + y) * dstWordsPerRow + dx, width32);
+        }
+    }
+
+    /* Rule 24 (alphaBlend), source and destination must not share their bits. */
+    private void copyLoop32AlphaBlend(final int startRow, final int endRow) {
+        final int[] srcWords = (int[]) sourceBits;
+        final int[] dstWords = destBits;
+        final int srcWordsPerRow = sourcePitch >> 2;
+        final int dstWordsPerRow = destPitch >> 2;
+        final int width32 = bbW;
+        for (int y = startRow; y < endRow; y++) {
+            final int srcStart = (sy + y) * srcWordsPerRow + sx;
+            final int dstStart = (dy + y) * dstWordsPerRow + dx;
+            for (int x = 0; x < width32; x++) {
+                final int dstIndex = dstStart + x;
+                dstWords[dstIndex] = (int) alphaBlendwith(Integer.toUnsignedLong(srcWords[srcStart + x]), Integer.toUnsignedLong(dstWords[dstIndex]));
+            }
+        }
+    }
+
+    /* Fills with rules 0 (clear), 3 (store), and 24 (alphaBlend). */
+    private boolean tryFillLoop32() {
+        if (combinationRule != 0 && combinationRule != 3 && combinationRule != 24) {
+            return false;
+        }
+        forEachRowBand(this::fillLoop32, true);
+        return true;
+    }
+
+    private void fillLoop32(final int startRow, final int endRow) {
+        final int[] dstWords = destBits;
+        final int dstWordsPerRow = destPitch >> 2;
+        final int width32 = bbW;
+        for (int y = startRow; y < endRow; y++) {
+            final int dstStart = (dy + y) * dstWordsPerRow + dx;
+            final long halftoneWord = noHalftone ? ALL_ONES : halftoneLongAt(dy + y);
+            if (combinationRule == 0) {
+                Arrays.fill(dstWords, dstStart, dstStart + width32, 0);
+            } else if (combinationRule == 3) {
+                Arrays.fill(dstWords, dstStart, dstStart + width32, (int) halftoneWord);
+            } else {
+                for (int dstIndex = dstStart; dstIndex < dstStart + width32; dstIndex++) {
+                    dstWords[dstIndex] = (int) alphaBlendwith(halftoneWord, Integer.toUnsignedLong(dstWords[dstIndex]));
+                }
+            }
+        }
+    }
+
+    /* Same as the loop in #alphaSourceBlendBits32, but directly on word storage. */
+    private void alphaSourceBlendBits32Words(final int startRow, final int endRow) {
+        final int[] srcWords = (int[]) sourceBits;
+        final int[] dstWords = destBits;
+        final int srcWordsPerRow = sourcePitch >> 2;
+        final int dstWordsPerRow = destPitch >> 2;
+        final int width32 = bbW;
+        for (int y = startRow; y < endRow; y++) {
+            final int srcStart = (sy + y) * srcWordsPerRow + sx;
+            final int dstStart = (dy + y) * dstWordsPerRow + dx;
+            for (int x = 0; x < width32; x++) {
+                final int sourceWord = srcWords[srcStart + x];
+                final int srcAlpha = sourceWord >>> 24;
+                if (srcAlpha == 0xFF) {
+                    dstWords[dstStart + x] = sourceWord;
+                } else if (srcAlpha != 0) {
+                    final int dstIndex = dstStart + x;
+                    dstWords[dstIndex] = (int) alphaBlendScaledwith(Integer.toUnsignedLong(sourceWord), Integer.toUnsignedLong(dstWords[dstIndex]));
+                }
+            }
+        }
+    }
+
     /*
      * Pick nPix pixels starting at srcBitIndex from the source, map by the color map, and justify
      * them according to dstBitIndex in the resulting destWord.
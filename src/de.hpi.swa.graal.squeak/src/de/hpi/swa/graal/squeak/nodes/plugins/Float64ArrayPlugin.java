@@ -0,0 +1,385 @@
+/*
+ * Copyright (c) 2017-2020 Software Architecture Group, Hasso Plattner Institute
+ *
+ * Licensed under the MIT License.
+ */
+package de.hpi.swa.graal.squeak.nodes.plugins;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+
+import de.hpi.swa.graal.squeak.exceptions.PrimitiveExceptions.PrimitiveFailed;
+import de.hpi.swa.graal.squeak.model.BooleanObject;
+import de.hpi.swa.graal.squeak.model.CompiledMethodObject;
+import de.hpi.swa.graal.squeak.model.FloatObject;
+import de.hpi.swa.graal.squeak.model.NativeObject;
+import de.hpi.swa.graal.squeak.model.NilObject;
+import de.hpi.swa.graal.squeak.nodes.primitives.AbstractPrimitiveFactoryHolder;
+import de.hpi.swa.graal.squeak.nodes.primitives.AbstractPrimitiveNode;
+import de.hpi.swa.graal.squeak.nodes.primitives.PrimitiveInterfaces.BinaryPrimitive;
+import de.hpi.swa.graal.squeak.nodes.primitives.PrimitiveInterfaces.TernaryPrimitive;
+import de.hpi.swa.graal.squeak.nodes.primitives.PrimitiveInterfaces.UnaryPrimitive;
+import de.hpi.swa.graal.squeak.nodes.primitives.SqueakPrimitive;
+
+/** Primitives for Float64Array (64-bit floats in long storage), see {@link FloatArrayPlugin}. */
+public class Float64ArrayPlugin extends AbstractPrimitiveFactoryHolder {
+
+    @Override
+    public List<? extends NodeFactory<? extends AbstractPrimitiveNode>> getFactories() {
+        return Float64ArrayPluginFactory.getFactories();
+    }
+
+    @GenerateNodeFactory
+    @SqueakPrimitive(names = "primitiveAddFloat64Array")
+    public abstract static class PrimAddFloat64ArrayNode extends AbstractPrimitiveNode implements BinaryPrimitive {
+
+        public PrimAddFloat64ArrayNode(final CompiledMethodObject method) {
+            super(method);
+        }
+
+        @Specialization(guards = {"receiver.isLongType()", "floatArray.isLongType()", "receiver.getLongLength() == floatArray.getLongLength()"})
+        protected static final NativeObject doAdd(final NativeObject receiver, final NativeObject floatArray) {
+            final long[] longs1 = receiver.getLongStorage();
+            final long[] longs2 = floatArray.getLongStorage();
+            for (int i = 0; i < longs1.length; i++) {
+                longs1[i] = Double.doubleToRawLongBits(Double.longBitsToDouble(longs1[i]) + Double.longBitsToDouble(longs2[i]));
+            }
+            return receiver;
+        }
+    }
+
+    @GenerateNodeFactory
+    @SqueakPrimitive(names = "primitiveAddScalar")
+    public abstract static class PrimAddScalarNode extends AbstractPrimitiveNode implements BinaryPrimitive {
+
+        public PrimAddScalarNode(final CompiledMethodObject method) {
+            super(method);
+        }
+
+        @Specialization(guards = {"receiver.isLongType()"})
+        protected static final NativeObject doAdd(final NativeObject receiver, final double scalarValue) {
+            final long[] longs = receiver.getLongStorage();
+            for (int i = 0; i < longs.length; i++) {
+                longs[i] = Double.doubleToRawLongBits(Double.longBitsToDouble(longs[i]) + scalarValue);
+            }
+            return receiver;
+        }
+    }
+
+    @GenerateNodeFactory
+    @SqueakPrimitive(names = "primitiveAt")
+    public abstract static class PrimFloat64ArrayAtNode extends AbstractPrimitiveNode implements BinaryPrimitive {
+
+        public PrimFloat64ArrayAtNode(final CompiledMethodObject method) {
+            super(method);
+        }
+
+        @Specialization(guards = {"receiver.isLongType()", "index >= 1", "index <= receiver.getLongLength()"})
+        protected static final double doAt(final NativeObject receiver, final long index) {
+            return Double.longBitsToDouble(receiver.getLong(index - 1));
+        }
+    }
+
+    @GenerateNodeFactory
+    @SqueakPrimitive(names = "primitiveAtPut")
+    public abstract static class PrimFloat64ArrayAtPutNode extends AbstractPrimitiveNode implements TernaryPrimitive {
+
+        public PrimFloat64ArrayAtPutNode(final CompiledMethodObject method) {
+            super(method);
+        }
+
+        @Specialization(guards = {"receiver.isLongType()", "index >= 1", "index <= receiver.getLongLength()"})
+        protected static final double doDouble(final NativeObject receiver, final long index, final double value) {
+            receiver.setLong(index - 1, Double.doubleToRawLongBits(value));
+            return value;
+        }
+
+        @Specialization(guards = {"receiver.isLongType()", "index >= 1", "index <= receiver.getLongLength()"})
+        protected final FloatObject doFloat(final NativeObject receiver, final long index, final FloatObject value) {
+            return FloatObject.valueOf(method.image, doDouble(receiver, index, value.getValue()));
+        }
+
+        @Specialization(guards = {"receiver.isLongType()", "index >= 1", "index <= receiver.getLongLength()"})
+        protected static final double doLong(final NativeObject receiver, final long index, final long value) {
+            return doDouble(receiver, index, value);
+        }
+    }
+
+    @GenerateNodeFactory
+    @SqueakPrimitive(names = "primitiveDivFloat64Array")
+    public abstract static class PrimDivFloat64ArrayNode extends AbstractPrimitiveNode implements BinaryPrimitive {
+
+        public PrimDivFloat64ArrayNode(final CompiledMethodObject method) {
+            super(method);
+        }
+
+        @Specialization(guards = {"receiver.isLongType()", "floatArray.isLongType()", "receiver.getLongLength() == floatArray.getLongLength()"})
+        protected static final NativeObject doDiv(final NativeObject receiver, final NativeObject floatArray) {
+            final long[] longs1 = receiver.getLongStorage();
+            final long[] longs2 = floatArray.getLongStorage();
+            for (int i = 0; i < longs1.length; i++) {
+                longs1[i] = Double.doubleToRawLongBits(Double.longBitsToDouble(longs1[i]) / Double.longBitsToDouble(longs2[i]));
+            }
+            return receiver;
+        }
+    }
+
+    @GenerateNodeFactory
+    @SqueakPrimitive(names = "primitiveDivScalar")
+    public abstract static class PrimDivScalarNode extends AbstractPrimitiveNode implements BinaryPrimitive {
+
+        public PrimDivScalarNode(final CompiledMethodObject method) {
+            super(method);
+        }
+
+        @Specialization(guards = {"receiver.isLongType()"})
+        protected static final NativeObject doDiv(final NativeObject receiver, final double scalarValue) {
+            final long[] longs = receiver.getLongStorage();
+            for (int i = 0; i < longs.length; i++) {
+                longs[i] = Double.doubleToRawLongBits(Double.longBitsToDouble(longs[i]) / scalarValue);
+            }
+            return receiver;
+        }
+    }
+
+    @GenerateNodeFactory
+    @SqueakPrimitive(names = "primitiveDotProduct")
+    public abstract static class PrimDotProductNode extends AbstractPrimitiveNode implements BinaryPrimitive {
+
+        public PrimDotProductNode(final CompiledMethodObject method) {
+            super(method);
+        }
+
+        @Specialization(guards = {"receiver.isLongType()", "aFloatVector.isLongType()", "receiver.getLongLength() == aFloatVector.getLongLength()"})
+        protected static final double doDot(final NativeObject receiver, final NativeObject aFloatVector) {
+            final long[] longs1 = receiver.getLongStorage();
+            final long[] longs2 = aFloatVector.getLongStorage();
+            double result = 0;
+            for (int i = 0; i < longs1.length; i++) {
+                result += Double.longBitsToDouble(longs1[i]) * Double.longBitsToDouble(longs2[i]);
+            }
+            return result;
+        }
+    }
+
+    @GenerateNodeFactory
+    @SqueakPrimitive(names = "primitiveEqual")
+    public abstract static class PrimFloat64ArrayEqualNode extends AbstractPrimitiveNode implements BinaryPrimitive {
+
+        public PrimFloat64ArrayEqualNode(final CompiledMethodObject method) {
+            super(method);
+        }
+
+        @Specialization(guards = {"receiver.isLongType()", "other.isLongType()"})
+        protected static final boolean doEqual(final NativeObject receiver, final NativeObject other) {
+            return BooleanObject.wrap(Arrays.equals(receiver.getLongStorage(), other.getLongStorage()));
+        }
+
+        @SuppressWarnings("unused")
+        @Specialization
+        protected static final boolean doNilCase(final NativeObject receiver, final NilObject other) {
+            return BooleanObject.FALSE;
+        }
+    }
+
+    @GenerateNodeFactory
+    @SqueakPrimitive(names = "primitiveHashArray")
+    public abstract static class PrimHashArrayNode extends AbstractPrimitiveNode implements UnaryPrimitive {
+
+        public PrimHashArrayNode(final CompiledMethodObject method) {
+            super(method);
+        }
+
+        @Specialization(guards = "receiver.isLongType()")
+        protected static final long doHash(final NativeObject receiver) {
+            final long[] words = receiver.getLongStorage();
+            long hash = 0;
+            for (int i = 0; i < words.length; i++) {
+                hash += words[i] ^ words[i] >>> 32;
+            }
+            return hash & 0x1fffffff;
+        }
+    }
+
+    @GenerateNodeFactory
+    @SqueakPrimitive(names = "primitiveLength")
+    public abstract static class PrimFloat64ArrayLengthNode extends AbstractPrimitiveNode implements UnaryPrimitive {
+
+        public PrimFloat64ArrayLengthNode(final CompiledMethodObject method) {
+            super(method);
+        }
+
+        @Specialization(guards = {"receiver.isLongType()"})
+        protected static final double doLength(final NativeObject receiver) {
+            return Math.sqrt(sumOfSquares(receiver.getLongStorage()));
+        }
+    }
+
+    @GenerateNodeFactory
+    @SqueakPrimitive(names = "primitiveMax")
+    public abstract static class PrimFloat64ArrayMaxNode extends AbstractPrimitiveNode implements UnaryPrimitive {
+
+        public PrimFloat64ArrayMaxNode(final CompiledMethodObject method) {
+            super(method);
+        }
+
+        @Specialization(guards = {"receiver.isLongType()", "receiver.getLongLength() > 0"})
+        protected static final double doMax(final NativeObject receiver) {
+            final long[] longs = receiver.getLongStorage();
+            double max = Double.longBitsToDouble(longs[0]);
+            for (int i = 1; i < longs.length; i++) {
+                final double value = Double.longBitsToDouble(longs[i]);
+                max = value > max ? value : max;
+            }
+            return max;
+        }
+    }
+
+    @GenerateNodeFactory
+    @SqueakPrimitive(names = "primitiveMin")
+    public abstract static class PrimFloat64ArrayMinNode extends AbstractPrimitiveNode implements UnaryPrimitive {
+
+        public PrimFloat64ArrayMinNode(final CompiledMethodObject method) {
+            super(method);
+        }
+
+        @Specialization(guards = {"receiver.isLongType()", "receiver.getLongLength() > 0"})
+        protected static final double doMin(final NativeObject receiver) {
+            final long[] longs = receiver.getLongStorage();
+            double min = Double.longBitsToDouble(longs[0]);
+            for (int i = 1; i < longs.length; i++) {
+                final double value = Double.longBitsToDouble(longs[i]);
+                min = value < min ? value : min;
+            }
+            return min;
+        }
+    }
+
+    @GenerateNodeFactory
+    @SqueakPrimitive(names = "primitiveMulFloat64Array")
+    public abstract static class PrimMulFloat64ArrayNode extends AbstractPrimitiveNode implements BinaryPrimitive {
+
+        public PrimMulFloat64ArrayNode(final CompiledMethodObject method) {
+            super(method);
+        }
+
+        @Specialization(guards = {"receiver.isLongType()", "floatArray.isLongType()", "receiver.getLongLength() == floatArray.getLongLength()"})
+        protected static final NativeObject doMul(final NativeObject receiver, final NativeObject floatArray) {
+            final long[] longs1 = receiver.getLongStorage();
+            final long[] longs2 = floatArray.getLongStorage();
+            for (int i = 0; i < longs1.length; i++) {
+                longs1[i] = Double.doubleToRawLongBits(Double.longBitsToDouble(longs1[i]) * Double.longBitsToDouble(longs2[i]));
+            }
+            return receiver;
+        }
+    }
+
+    @GenerateNodeFactory
+    @SqueakPrimitive(names = "primitiveMulScalar")
+    public abstract static class PrimMulScalarNode extends AbstractPrimitiveNode implements BinaryPrimitive {
+
+        public PrimMulScalarNode(final CompiledMethodObject method) {
+            super(method);
+        }
+
+        @Specialization(guards = {"receiver.isLongType()"})
+        protected static final NativeObject doMul(final NativeObject receiver, final double scalarValue) {
+            final long[] longs = receiver.getLongStorage();
+            for (int i = 0; i < longs.length; i++) {
+                longs[i] = Double.doubleToRawLongBits(Double.longBitsToDouble(longs[i]) * scalarValue);
+            }
+            return receiver;
+        }
+    }
+
+    @GenerateNodeFactory
+    @SqueakPrimitive(names = "primitiveNormalize")
+    public abstract static class PrimFloat64ArrayNormalizeNode extends AbstractPrimitiveNode implements UnaryPrimitive {
+
+        public PrimFloat64ArrayNormalizeNode(final CompiledMethodObject method) {
+            super(method);
+        }
+
+        @Specialization(guards = {"receiver.isLongType()"})
+        protected static final NativeObject doNormalize(final NativeObject receiver) {
+            final long[] longs = receiver.getLongStorage();
+            final double length = Math.sqrt(sumOfSquares(longs));
+            if (!(length > 0)) {
+                throw PrimitiveFailed.andTransferToInterpreter();
+            }
+            for (int i = 0; i < longs.length; i++) {
+                longs[i] = Double.doubleToRawLongBits(Double.longBitsToDouble(longs[i]) / length);
+            }
+            return receiver;
+        }
+    }
+
+    @GenerateNodeFactory
+    @SqueakPrimitive(names = "primitiveSubFloat64Array")
+    public abstract static class PrimSubFloat64ArrayNode extends AbstractPrimitiveNode implements BinaryPrimitive {
+
+        public PrimSubFloat64ArrayNode(final CompiledMethodObject method) {
+            super(method);
+        }
+
+        @Specialization(guards = {"receiver.isLongType()", "floatArray.isLongType()", "receiver.getLongLength() == floatArray.getLongLength()"})
+        protected static final NativeObject doSub(final NativeObject receiver, final NativeObject floatArray) {
+            final long[] longs1 = receiver.getLongStorage();
+            final long[] longs2 = floatArray.getLongStorage();
+            for (int i = 0; i < longs1.length; i++) {
+                longs1[i] = Double.doubleToRawLongBits(Double.longBitsToDouble(longs1[i]) - Double.longBitsToDouble(longs2[i]));
+            }
+            return receiver;
+        }
+    }
+
+    @GenerateNodeFactory
+    @SqueakPrimitive(names = "primitiveSubScalar")
+    public abstract static class PrimSubScalarNode extends AbstractPrimitiveNode implements BinaryPrimitive {
+
+        public PrimSubScalarNode(final CompiledMethodObject method) {
+            super(method);
+        }
+
+        @Specialization(guards = {"receiver.isLongType()"})
+        protected static final NativeObject doSub(final NativeObject receiver, final double scalarValue) {
+            final long[] longs = receiver.getLongStorage();
+            for (int i = 0; i < longs.length; i++) {
+                longs[i] = Double.doubleToRawLongBits(Double.longBitsToDouble(longs[i]) - scalarValue);
+            }
+            return receiver;
+        }
+    }
+
+    @GenerateNodeFactory
+    @SqueakPrimitive(names = "primitiveSum")
+    public abstract static class PrimFloat64ArraySumNode extends AbstractPrimitiveNode implements UnaryPrimitive {
+
+        public PrimFloat64ArraySumNode(final CompiledMethodObject method) {
+            super(method);
+        }
+
+        @Specialization(guards = {"receiver.isLongType()"})
+        protected static final double doSum(final NativeObject receiver) {
+            final long[] longs = receiver.getLongStorage();
+            double sum = 0;
+            for (int i = 0; i < longs.length; i++) {
+                sum += Double.longBitsToDouble(longs[i]);
+            }
+            return sum;
+        }
+    }
+
+    private static double sumOfSquares(final long[] longs) {
+        double sum = 0;
+        for (int i = 0; i < longs.length; i++) {
+            final double value = Double.longBitsToDouble(longs[i]);
+            sum += value * value;
+        }
+        return sum;
+    }
+}
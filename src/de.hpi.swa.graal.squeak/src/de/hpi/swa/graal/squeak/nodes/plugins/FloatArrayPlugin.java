@@ -12,6 +12,7 @@ import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
 
+import de.hpi.swa.graal.squeak.exceptions.PrimitiveExceptions.PrimitiveFailed;
 import de.hpi.swa.graal.squeak.model.BooleanObject;
 import de.hpi.swa.graal.squeak.model.CompiledMethodObject;
 import de.hpi.swa.graal.squeak.model.FloatObject;
@@ -212,7 +213,59 @@ public class FloatArrayPlugin extends AbstractPrimitiveFactoryHolder {
         }
     }
 
-    // primitiveLength: no Implementation because it is not used in Squeak.
+    @GenerateNodeFactory
+    @SqueakPrimitive(names = "primitiveLength")
+    public abstract static class PrimFloatArrayLengthNode extends AbstractPrimitiveNode implements UnaryPrimitive {
+
+        public PrimFloatArrayLengthNode(final CompiledMethodObject method) {
+            super(method);
+        }
+
+        @Specialization(guards = {"receiver.isIntType()"})
+        protected static final double doLength(final NativeObject receiver) {
+            return Math.sqrt(sumOfSquares(receiver.getIntStorage()));
+        }
+    }
+
+    @GenerateNodeFactory
+    @SqueakPrimitive(names = "primitiveMax")
+    public abstract static class PrimFloatArrayMaxNode extends AbstractPrimitiveNode implements UnaryPrimitive {
+
+        public PrimFloatArrayMaxNode(final CompiledMethodObject method) {
+            super(method);
+        }
+
+        @Specialization(guards = {"receiver.isIntType()", "receiver.getIntLength() > 0"})
+        protected static final double doMax(final NativeObject receiver) {
+            final int[] ints = receiver.getIntStorage();
+            float max = Float.intBitsToFloat(ints[0]);
+            for (int i = 1; i < ints.length; i++) {
+                final float value = Float.intBitsToFloat(ints[i]);
+                max = value > max ? value : max;
+            }
+            return max;
+        }
+    }
+
+    @GenerateNodeFactory
+    @SqueakPrimitive(names = "primitiveMin")
+    public abstract static class PrimFloatArrayMinNode extends AbstractPrimitiveNode implements UnaryPrimitive {
+
+        public PrimFloatArrayMinNode(final CompiledMethodObject method) {
+            super(method);
+        }
+
+        @Specialization(guards = {"receiver.isIntType()", "receiver.getIntLength() > 0"})
+        protected static final double doMin(final NativeObject receiver) {
+            final int[] ints = receiver.getIntStorage();
+            float min = Float.intBitsToFloat(ints[0]);
+            for (int i = 1; i < ints.length; i++) {
+                final float value = Float.intBitsToFloat(ints[i]);
+                min = value < min ? value : min;
+            }
+            return min;
+        }
+    }
 
     @GenerateNodeFactory
     @SqueakPrimitive(names = "primitiveMulFloatArray")
@@ -256,13 +309,25 @@ public class FloatArrayPlugin extends AbstractPrimitiveFactoryHolder {
     }
 
     @GenerateNodeFactory
-    @SqueakPrimitive(names = "primitiveNormalize") // TODO: implement primitive
-    public abstract static class PrimFloatArrayNormalizeNode extends AbstractPrimitiveNode {
+    @SqueakPrimitive(names = "primitiveNormalize")
+    public abstract static class PrimFloatArrayNormalizeNode extends AbstractPrimitiveNode implements UnaryPrimitive {
 
         public PrimFloatArrayNormalizeNode(final CompiledMethodObject method) {
             super(method);
         }
 
+        @Specialization(guards = {"receiver.isIntType()"})
+        protected static final NativeObject doNormalize(final NativeObject receiver) {
+            final int[] ints = receiver.getIntStorage();
+            final double length = Math.sqrt(sumOfSquares(ints));
+            if (!(length > 0)) {
+                throw PrimitiveFailed.andTransferToInterpreter();
+            }
+            for (int i = 0; i < ints.length; i++) {
+                ints[i] = Float.floatToRawIntBits((float) (Float.intBitsToFloat(ints[i]) / length));
+            }
+            return receiver;
+        }
     }
 
     @GenerateNodeFactory
@@ -323,4 +388,13 @@ public class FloatArrayPlugin extends AbstractPrimitiveFactoryHolder {
             return sum;
         }
     }
+
+    private static double sumOfSquares(final int[] ints) {
+        double sum = 0;
+        for (final int word : ints) {
+            final double value = Float.intBitsToFloat(word);
+            sum += value * value;
+        }
+        return sum;
+    }
 }
@@ -5,6 +5,8 @@
  */
 package de.hpi.swa.graal.squeak.nodes.plugins;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.List;
 
 import com.oracle.truffle.api.dsl.Cached;
@@ -18,6 +20,8 @@ import com.oracle.truffle.api.profiles.BranchProfile;
 import de.hpi.swa.graal.squeak.SqueakLanguage;
 import de.hpi.swa.graal.squeak.exceptions.PrimitiveExceptions.PrimitiveFailed;
 import de.hpi.swa.graal.squeak.image.SqueakImageContext;
+import de.hpi.swa.graal.squeak.io.SqueakHeadlessDisplay;
+import de.hpi.swa.graal.squeak.model.ArrayObject;
 import de.hpi.swa.graal.squeak.model.CompiledCodeObject;
 import de.hpi.swa.graal.squeak.model.CompiledMethodObject;
 import de.hpi.swa.graal.squeak.model.NativeObject;
@@ -26,7 +30,9 @@ import de.hpi.swa.graal.squeak.nodes.primitives.AbstractPrimitiveFactoryHolder;
 import de.hpi.swa.graal.squeak.nodes.primitives.AbstractPrimitiveNode;
 import de.hpi.swa.graal.squeak.nodes.primitives.PrimitiveInterfaces.BinaryPrimitive;
 import de.hpi.swa.graal.squeak.nodes.primitives.PrimitiveInterfaces.BinaryPrimitiveWithoutFallback;
+import de.hpi.swa.graal.squeak.nodes.primitives.PrimitiveInterfaces.UnaryPrimitive;
 import de.hpi.swa.graal.squeak.nodes.primitives.SqueakPrimitive;
+import de.hpi.swa.graal.squeak.tools.SendProfiler;
 
 public final class GraalSqueakPlugin extends AbstractPrimitiveFactoryHolder {
 
@@ -90,4 +96,58 @@ public final class GraalSqueakPlugin extends AbstractPrimitiveFactoryHolder {
             return image.env.asGuestValue(code.getCallTarget());
         }
     }
+
+    @GenerateNodeFactory
+    @SqueakPrimitive(names = "primitiveWriteDisplayPNG")
+    protected abstract static class PrimWriteDisplayPNGNode extends AbstractPrimitiveNode implements BinaryPrimitive {
+        protected PrimWriteDisplayPNGNode(final CompiledMethodObject method) {
+            super(method);
+        }
+
+        @Specialization(guards = {"path.isByteType()", "hasHeadlessDisplay()"})
+        protected final Object doWrite(final Object receiver, final NativeObject path) {
+            try {
+                ((SqueakHeadlessDisplay) method.image.getDisplay()).writePNG(new File(path.asStringUnsafe()));
+            } catch (final IOException e) {
+                throw PrimitiveFailed.andTransferToInterpreter();
+            }
+            return receiver;
+        }
+
+        protected final boolean hasHeadlessDisplay() {
+            return method.image.hasDisplay() && method.image.getDisplay() instanceof SqueakHeadlessDisplay;
+        }
+    }
+
+    /** Answers the number of send sites that use a shared lookup table and of their selectors. */
+    @GenerateNodeFactory
+    @SqueakPrimitive(names = "primitiveMegamorphicSendSites")
+    protected abstract static class PrimMegamorphicSendSitesNode extends AbstractPrimitiveNode implements UnaryPrimitive {
+        protected PrimMegamorphicSendSitesNode(final CompiledMethodObject method) {
+            super(method);
+        }
+
+        @Specialization
+        protected final ArrayObject doGet(@SuppressWarnings("unused") final Object receiver) {
+            return method.image.asArrayOfLongs(method.image.getMegamorphicSendSites(), method.image.getMegamorphicSelectors());
+        }
+    }
+
+    /** Answers the send profile as a String. Fails unless the image runs with `--send-profiler`. */
+    @GenerateNodeFactory
+    @SqueakPrimitive(names = "primitiveSendProfile")
+    protected abstract static class PrimSendProfileNode extends AbstractPrimitiveNode implements UnaryPrimitive {
+        protected PrimSendProfileNode(final CompiledMethodObject method) {
+            super(method);
+        }
+
+        @Specialization
+        protected final NativeObject doReport(@SuppressWarnings("unused") final Object receiver) {
+            final String report = SendProfiler.reportFor(method.image.env);
+            if (report == null) {
+                throw PrimitiveFailed.GENERIC_ERROR;
+            }
+            return method.image.asByteString(report);
+        }
+    }
 }
@@ -5,7 +5,20 @@
  */
 package de.hpi.swa.graal.squeak.nodes.plugins;
 
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.PixelInterleavedSampleModel;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.MemoryCacheImageInputStream;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
@@ -13,19 +26,137 @@ import com.oracle.truffle.api.dsl.ImportStatic;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
 
+import de.hpi.swa.graal.squeak.exceptions.PrimitiveExceptions.PrimitiveFailed;
 import de.hpi.swa.graal.squeak.model.ArrayObject;
 import de.hpi.swa.graal.squeak.model.CompiledMethodObject;
 import de.hpi.swa.graal.squeak.model.NativeObject;
 import de.hpi.swa.graal.squeak.model.PointersObject;
+import de.hpi.swa.graal.squeak.model.layout.ObjectLayouts.FORM;
+import de.hpi.swa.graal.squeak.nodes.accessing.AbstractPointersObjectNodes.AbstractPointersObjectReadNode;
 import de.hpi.swa.graal.squeak.nodes.primitives.AbstractPrimitiveFactoryHolder;
 import de.hpi.swa.graal.squeak.nodes.primitives.AbstractPrimitiveNode;
+import de.hpi.swa.graal.squeak.nodes.primitives.PrimitiveInterfaces.BinaryPrimitive;
 import de.hpi.swa.graal.squeak.nodes.primitives.PrimitiveInterfaces.QuinaryPrimitive;
 import de.hpi.swa.graal.squeak.nodes.primitives.PrimitiveInterfaces.SenaryPrimitive;
 import de.hpi.swa.graal.squeak.nodes.primitives.PrimitiveInterfaces.TernaryPrimitive;
 import de.hpi.swa.graal.squeak.nodes.primitives.PrimitiveInterfaces.UnaryPrimitiveWithoutFallback;
 import de.hpi.swa.graal.squeak.nodes.primitives.SqueakPrimitive;
 
+/**
+ * Besides the MCU primitives of the {@link JPEGReader} port, which decode one 8x8 block per call,
+ * this plugin decodes whole images with ImageIO:
+ *
+ * <pre>
+ * extent := JPEGReaderPlugin primitiveImageExtent: jpegBytes. "{width. height}"
+ * form := Form extent: extent first @ extent second depth: 32.
+ * JPEGReaderPlugin primitiveDecodeImage: jpegBytes into: form.
+ * </pre>
+ *
+ * For thumbnails, the Form may instead have the extent of the image subsampled by an integer
+ * factor, which ImageIO applies while decoding.
+ */
 public final class JPEGReaderPlugin extends AbstractPrimitiveFactoryHolder {
+    /* Number of pixels from which rows are converted to ARGB in parallel. */
+    private static final int PARALLEL_CONVERSION_THRESHOLD = 512 * 512;
+
+    /** Answers {width, height} of a JPEG image or `null` if it cannot be read. */
+    public static int[] readExtent(final byte[] jpegBytes) {
+        final ImageReader reader = newReader(jpegBytes);
+        if (reader == null) {
+            return null;
+        }
+        try {
+            return new int[]{reader.getWidth(0), reader.getHeight(0)};
+        } catch (final IOException e) {
+            return null;
+        } finally {
+            reader.dispose();
+        }
+    }
+
+    /**
+     * Decodes a JPEG image into the 32-bit ARGB `bits` of a `width` by `height` Form, which must
+     * be the extent of the image, or of the image subsampled by an integer factor. Answers `false`
+     * if the image cannot be decoded or does not fit.
+     */
+    public static boolean decode(final byte[] jpegBytes, final int[] bits, final int width, final int height) {
+        final ImageReader reader = newReader(jpegBytes);
+        if (reader == null) {
+            return false;
+        }
+        try {
+            final int sourceWidth = reader.getWidth(0);
+            final int sourceHeight = reader.getHeight(0);
+            final int factor = (sourceWidth + width - 1) / width;
+            if (factor < 1 || (sourceWidth + factor - 1) / factor != width || (sourceHeight + factor - 1) / factor != height) {
+                return false;
+            }
+            final ImageReadParam param = reader.getDefaultReadParam();
+            if (factor > 1) {
+                param.setSourceSubsampling(factor, factor, 0, 0);
+            }
+            final BufferedImage image = reader.read(0, param);
+            if (image.getWidth() != width || image.getHeight() != height) {
+                return false;
+            }
+            copyPixels(image, bits);
+            return true;
+        } catch (final IOException | IllegalArgumentException e) {
+            return false; /* For example, CMYK images are not supported by ImageIO. */
+        } finally {
+            reader.dispose();
+        }
+    }
+
+    private static ImageReader newReader(final byte[] jpegBytes) {
+        final Iterator<ImageReader> readers = ImageIO.getImageReadersByFormatName("jpeg");
+        if (!readers.hasNext()) {
+            return null;
+        }
+        final ImageReader reader = readers.next();
+        reader.setInput(new MemoryCacheImageInputStream(new ByteArrayInputStream(jpegBytes)), true, true);
+        return reader;
+    }
+
+    /*
+     * Converts interleaved RGB and grayscale rasters directly, the latter like
+     * primitiveColorConvertGrayscaleMCU and without the gamma correction of getRGB(). Rows of large
+     * images are converted in parallel.
+     */
+    private static void copyPixels(final BufferedImage image, final int[] bits) {
+        final int width = image.getWidth();
+        final int type = image.getType();
+        final IntConsumer convertRow;
+        if ((type == BufferedImage.TYPE_3BYTE_BGR || type == BufferedImage.TYPE_BYTE_GRAY) && image.getRaster().getSampleModel() instanceof PixelInterleavedSampleModel) {
+            final PixelInterleavedSampleModel sampleModel = (PixelInterleavedSampleModel) image.getRaster().getSampleModel();
+            final byte[] data = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+            final int scanlineStride = sampleModel.getScanlineStride();
+            final int pixelStride = sampleModel.getPixelStride();
+            final int[] offsets = sampleModel.getBandOffsets();
+            if (type == BufferedImage.TYPE_3BYTE_BGR) {
+                convertRow = y -> {
+                    int source = y * scanlineStride;
+                    final int end = (y + 1) * width;
+                    for (int target = y * width; target < end; target++, source += pixelStride) {
+                        bits[target] = 0xFF000000 | (data[source + offsets[0]] & 0xFF) << 16 | (data[source + offsets[1]] & 0xFF) << 8 | data[source + offsets[2]] & 0xFF;
+                    }
+                };
+            } else {
+                convertRow = y -> {
+                    int source = y * scanlineStride + offsets[0];
+                    final int end = (y + 1) * width;
+                    for (int target = y * width; target < end; target++, source += pixelStride) {
+                        final int gray = data[source] & 0xFF;
+                        bits[target] = 0xFF000000 | gray << 16 | gray << 8 | gray;
+                    }
+                };
+            }
+        } else {
+            convertRow = y -> image.getRGB(0, y, width, 1, bits, y * width, width);
+        }
+        final IntStream rows = IntStream.range(0, image.getHeight());
+        (bits.length >= PARALLEL_CONVERSION_THRESHOLD ? rows.parallel() : rows).forEach(convertRow);
+    }
 
     @GenerateNodeFactory
     @SqueakPrimitive(names = "primitiveColorConvertGrayscaleMCU")
@@ -57,6 +188,35 @@ public final class JPEGReaderPlugin extends AbstractPrimitiveFactoryHolder {
         }
     }
 
+    @GenerateNodeFactory
+    @SqueakPrimitive(names = "primitiveDecodeImage")
+    protected abstract static class PrimDecodeImageNode extends AbstractPrimitiveNode implements TernaryPrimitive {
+        @Child private AbstractPointersObjectReadNode readNode = AbstractPointersObjectReadNode.create();
+
+        protected PrimDecodeImageNode(final CompiledMethodObject method) {
+            super(method);
+        }
+
+        @Specialization(guards = "jpegBytes.isByteType()")
+        protected final PointersObject doDecode(@SuppressWarnings("unused") final Object receiver, final NativeObject jpegBytes, final PointersObject form) {
+            final NativeObject bits = readNode.executeNative(form, FORM.BITS);
+            final int width = form.getFormWidth(readNode);
+            final int height = form.getFormHeight(readNode);
+            if (!bits.isIntType() || form.getFormDepth(readNode) != 32 || width <= 0 || height <= 0 || bits.getIntLength() != width * height) {
+                throw PrimitiveFailed.BAD_ARGUMENT;
+            }
+            if (!decode(jpegBytes, bits.getIntStorage(), width, height)) {
+                throw PrimitiveFailed.GENERIC_ERROR;
+            }
+            return form;
+        }
+
+        @TruffleBoundary
+        private static boolean decode(final NativeObject jpegBytes, final int[] bits, final int width, final int height) {
+            return JPEGReaderPlugin.decode(jpegBytes.getByteStorage(), bits, width, height);
+        }
+    }
+
     @ImportStatic(JPEGReader.class)
     @GenerateNodeFactory
     @SqueakPrimitive(names = "primitiveDecodeMCU")
@@ -91,6 +251,25 @@ public final class JPEGReaderPlugin extends AbstractPrimitiveFactoryHolder {
         }
     }
 
+    @GenerateNodeFactory
+    @SqueakPrimitive(names = "primitiveImageExtent")
+    protected abstract static class PrimImageExtentNode extends AbstractPrimitiveNode implements BinaryPrimitive {
+
+        protected PrimImageExtentNode(final CompiledMethodObject method) {
+            super(method);
+        }
+
+        @Specialization(guards = "jpegBytes.isByteType()")
+        @TruffleBoundary(transferToInterpreterOnException = false)
+        protected final ArrayObject doExtent(@SuppressWarnings("unused") final Object receiver, final NativeObject jpegBytes) {
+            final int[] extent = readExtent(jpegBytes.getByteStorage());
+            if (extent == null) {
+                throw PrimitiveFailed.GENERIC_ERROR;
+            }
+            return method.image.asArrayOfLongs(extent[0], extent[1]);
+        }
+    }
+
     @GenerateNodeFactory
     @SqueakPrimitive(names = "primGetModuleName")
     public abstract static class PrimGetModuleNameNode extends AbstractPrimitiveNode implements UnaryPrimitiveWithoutFallback {
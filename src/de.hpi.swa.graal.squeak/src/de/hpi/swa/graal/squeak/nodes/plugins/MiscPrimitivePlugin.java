@@ -445,6 +445,9 @@ public final class MiscPrimitivePlugin extends AbstractPrimitiveFactoryHolder {
     @GenerateNodeFactory
     @SqueakPrimitive(names = "primitiveStringHash")
     public abstract static class PrimStringHashNode extends AbstractPrimitiveNode implements TernaryPrimitive {
+        private static final long HASH_MULTIPLY_CONSTANT_2 = (long) PrimHashMultiplyNode.HASH_MULTIPLY_CONSTANT * PrimHashMultiplyNode.HASH_MULTIPLY_CONSTANT;
+        private static final long HASH_MULTIPLY_CONSTANT_3 = HASH_MULTIPLY_CONSTANT_2 * PrimHashMultiplyNode.HASH_MULTIPLY_CONSTANT;
+        private static final long HASH_MULTIPLY_CONSTANT_4 = HASH_MULTIPLY_CONSTANT_3 * PrimHashMultiplyNode.HASH_MULTIPLY_CONSTANT;
 
         public PrimStringHashNode(final CompiledMethodObject method) {
             super(method);
@@ -454,7 +457,7 @@ public final class MiscPrimitivePlugin extends AbstractPrimitiveFactoryHolder {
 
         @Specialization(guards = {"string.isByteType()"})
         protected static final long doNativeObject(final NativeObject string, final long initialHash, @SuppressWarnings("unused") final NotProvided notProvided) {
-            return calculateHash(initialHash, string.getByteStorage());
+            return calculateHash(initialHash, string);
         }
 
         @Specialization
@@ -471,7 +474,7 @@ public final class MiscPrimitivePlugin extends AbstractPrimitiveFactoryHolder {
 
         @Specialization(guards = {"string.isByteType()"})
         protected static final long doNativeObject(@SuppressWarnings("unused") final Object receiver, final NativeObject string, final long initialHash) {
-            return calculateHash(initialHash, string.getByteStorage());
+            return calculateHash(initialHash, string);
         }
 
         @Specialization
@@ -484,10 +487,41 @@ public final class MiscPrimitivePlugin extends AbstractPrimitiveFactoryHolder {
             return calculateHash(initialHash, LargeIntegerObject.getLongMinOverflowResultBytes());
         }
 
+        /**
+         * ByteSymbols are immutable, so their hash is memoized on the {@link NativeObject} (which
+         * drops it on any write to its bytes).
+         */
+        private static long calculateHash(final long initialHash, final NativeObject string) {
+            if (!string.isByteSymbol()) {
+                return calculateHash(initialHash, string.getByteStorage());
+            }
+            final long maskedInitialHash = initialHash & PrimHashMultiplyNode.HASH_MULTIPLY_MASK;
+            final long cachedHash = string.getCachedBytesHash(maskedInitialHash);
+            if (cachedHash != NativeObject.NO_CACHED_BYTES_HASH) {
+                return cachedHash;
+            }
+            final long hash = calculateHash(maskedInitialHash, string.getByteStorage());
+            string.setCachedBytesHash(maskedInitialHash, hash);
+            return hash;
+        }
+
+        /**
+         * Computes `hash := (hash + byte) * HASH_MULTIPLY_CONSTANT bitAnd: HASH_MULTIPLY_MASK` for
+         * all bytes. Since the mask is a power of two minus one, masking can be deferred, which
+         * allows to process four bytes per iteration without a serial chain of multiplications.
+         */
         private static long calculateHash(final long initialHash, final byte[] bytes) {
             long hash = initialHash & PrimHashMultiplyNode.HASH_MULTIPLY_MASK;
             final int length = bytes.length;
-            for (int i = 0; i < length; i++) {
+            final int unrolledLength = length & ~3;
+            int i = 0;
+            for (; i < unrolledLength; i += 4) {
+                hash = (hash + (UnsafeUtils.getByte(bytes, i) & 0xff)) * HASH_MULTIPLY_CONSTANT_4 +
+                                (UnsafeUtils.getByte(bytes, i + 1) & 0xff) * HASH_MULTIPLY_CONSTANT_3 +
+                                (UnsafeUtils.getByte(bytes, i + 2) & 0xff) * HASH_MULTIPLY_CONSTANT_2 +
+                                (UnsafeUtils.getByte(bytes, i + 3) & 0xff) * (long) PrimHashMultiplyNode.HASH_MULTIPLY_CONSTANT & PrimHashMultiplyNode.HASH_MULTIPLY_MASK;
+            }
+            for (; i < length; i++) {
                 hash = (hash + (UnsafeUtils.getByte(bytes, i) & 0xff)) * PrimHashMultiplyNode.HASH_MULTIPLY_CONSTANT & PrimHashMultiplyNode.HASH_MULTIPLY_MASK;
             }
             return hash;
@@ -509,6 +543,7 @@ public final class MiscPrimitivePlugin extends AbstractPrimitiveFactoryHolder {
             for (int i = (int) start - 1; i < stop; i++) {
                 stringBytes[i] = UnsafeUtils.getByte(tableBytes, UnsafeUtils.getByte(stringBytes, i) & 0xff);
             }
+            string.invalidateCachedBytesHash();
             return receiver;
         }
 
@@ -520,6 +555,7 @@ public final class MiscPrimitivePlugin extends AbstractPrimitiveFactoryHolder {
             for (int i = (int) start - 1; i < stop; i++) {
                 stringBytes[i] = (byte) UnsafeUtils.getInt(tableBytes, UnsafeUtils.getByte(stringBytes, i) & 0xff);
             }
+            string.invalidateCachedBytesHash();
             return receiver;
         }
 
@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2017-2020 Software Architecture Group, Hasso Plattner Institute
+ *
+ * Licensed under the MIT License.
+ */
+package de.hpi.swa.graal.squeak.nodes.plugins;
+
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+
+import de.hpi.swa.graal.squeak.exceptions.PrimitiveExceptions.PrimitiveFailed;
+import de.hpi.swa.graal.squeak.model.BooleanObject;
+import de.hpi.swa.graal.squeak.model.CompiledMethodObject;
+import de.hpi.swa.graal.squeak.model.NativeObject;
+import de.hpi.swa.graal.squeak.nodes.primitives.AbstractPrimitiveFactoryHolder;
+import de.hpi.swa.graal.squeak.nodes.primitives.AbstractPrimitiveNode;
+import de.hpi.swa.graal.squeak.nodes.primitives.PrimitiveInterfaces.BinaryPrimitive;
+import de.hpi.swa.graal.squeak.nodes.primitives.PrimitiveInterfaces.QuaternaryPrimitive;
+import de.hpi.swa.graal.squeak.nodes.primitives.PrimitiveInterfaces.QuinaryPrimitive;
+import de.hpi.swa.graal.squeak.nodes.primitives.PrimitiveInterfaces.TernaryPrimitive;
+import de.hpi.swa.graal.squeak.nodes.primitives.SqueakPrimitive;
+
+/**
+ * Message digests (e.g. 'SHA-256', 'SHA-512', 'SHA-1', 'MD5') and HMACs backed by
+ * java.security.MessageDigest and javax.crypto.Mac, which use CPU intrinsics where available.
+ *
+ * <pre>
+ * handle := SecureHashPlugin primitiveCreateDigest: 'SHA-256'.
+ * SecureHashPlugin primitiveUpdate: handle with: aByteArray from: 1 to: aByteArray size.
+ * digest := SecureHashPlugin primitiveFinish: handle. "resets handle for reuse"
+ * SecureHashPlugin primitiveDestroy: handle.
+ *
+ * digest := SecureHashPlugin primitiveDigest: 'MD5' of: aString.
+ * mac := SecureHashPlugin primitiveHMAC: 'SHA-256' key: aKey of: aByteArray.
+ * </pre>
+ */
+public final class SecureHashPlugin extends AbstractPrimitiveFactoryHolder {
+
+    /** A streaming digest or HMAC. */
+    public static final class SecureHash {
+        private final MessageDigest digest;
+        private final Mac mac;
+
+        private SecureHash(final MessageDigest digest, final Mac mac) {
+            this.digest = digest;
+            this.mac = mac;
+        }
+
+        private void update(final byte[] bytes, final int offset, final int length) {
+            if (digest != null) {
+                digest.update(bytes, offset, length);
+            } else {
+                mac.update(bytes, offset, length);
+            }
+        }
+
+        /* Completes the computation and resets this instance. */
+        private byte[] finish() {
+            return digest != null ? digest.digest() : mac.doFinal();
+        }
+    }
+
+    private static SecureHash getSecureHash(final CompiledMethodObject method, final long handle) {
+        final SecureHash secureHash = method.image.secureHashHandles.get(handle);
+        if (secureHash == null) {
+            throw PrimitiveFailed.BAD_ARGUMENT;
+        }
+        return secureHash;
+    }
+
+    private static long register(final CompiledMethodObject method, final SecureHash secureHash) {
+        final long handle = secureHash.hashCode();
+        method.image.secureHashHandles.put(handle, secureHash);
+        return handle;
+    }
+
+    /** Returns a new digest for `algorithm`, e.g. 'SHA-256'. */
+    public static MessageDigest newDigest(final String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (final NoSuchAlgorithmException e) {
+            throw PrimitiveFailed.BAD_ARGUMENT;
+        }
+    }
+
+    /** Returns a new HMAC based on the digest `algorithm`, e.g. 'SHA-256' for HmacSHA256. */
+    public static Mac newHMAC(final String algorithm, final byte[] key) {
+        final String macAlgorithm = "Hmac" + algorithm.replace("-", "");
+        try {
+            final Mac mac = Mac.getInstance(macAlgorithm);
+            mac.init(new SecretKeySpec(key, macAlgorithm));
+            return mac;
+        } catch (final NoSuchAlgorithmException | InvalidKeyException | IllegalArgumentException e) {
+            throw PrimitiveFailed.BAD_ARGUMENT;
+        }
+    }
+
+    @GenerateNodeFactory
+    @SqueakPrimitive(names = "primitiveCreateDigest")
+    protected abstract static class PrimCreateDigestNode extends AbstractPrimitiveNode implements BinaryPrimitive {
+        protected PrimCreateDigestNode(final CompiledMethodObject method) {
+            super(method);
+        }
+
+        @Specialization(guards = "algorithm.isByteType()")
+        @TruffleBoundary(transferToInterpreterOnException = false)
+        protected final long doCreate(@SuppressWarnings("unused") final Object receiver, final NativeObject algorithm) {
+            return register(method, new SecureHash(newDigest(algorithm.asStringUnsafe()), null));
+        }
+    }
+
+    @GenerateNodeFactory
+    @SqueakPrimitive(names = "primitiveCreateHMAC")
+    protected abstract static class PrimCreateHMACNode extends AbstractPrimitiveNode implements TernaryPrimitive {
+        protected PrimCreateHMACNode(final CompiledMethodObject method) {
+            super(method);
+        }
+
+        @Specialization(guards = {"algorithm.isByteType()", "key.isByteType()"})
+        @TruffleBoundary(transferToInterpreterOnException = false)
+        protected final long doCreate(@SuppressWarnings("unused") final Object receiver, final NativeObject algorithm, final NativeObject key) {
+            return register(method, new SecureHash(null, newHMAC(algorithm.asStringUnsafe(), key.getByteStorage())));
+        }
+    }
+
+    @GenerateNodeFactory
+    @SqueakPrimitive(names = "primitiveUpdate")
+    protected abstract static class PrimUpdateNode extends AbstractPrimitiveNode implements QuinaryPrimitive {
+        protected PrimUpdateNode(final CompiledMethodObject method) {
+            super(method);
+        }
+
+        @Specialization(guards = {"bytes.isByteType()", "start >= 1", "stop >= start - 1", "stop <= bytes.getByteLength()"})
+        @TruffleBoundary(transferToInterpreterOnException = false)
+        protected final Object doUpdate(final Object receiver, final long handle, final NativeObject bytes, final long start, final long stop) {
+            getSecureHash(method, handle).update(bytes.getByteStorage(), (int) start - 1, (int) (stop - start + 1));
+            return receiver;
+        }
+    }
+
+    @GenerateNodeFactory
+    @SqueakPrimitive(names = "primitiveFinish")
+    protected abstract static class PrimFinishNode extends AbstractPrimitiveNode implements BinaryPrimitive {
+        protected PrimFinishNode(final CompiledMethodObject method) {
+            super(method);
+        }
+
+        @Specialization
+        @TruffleBoundary(transferToInterpreterOnException = false)
+        protected final NativeObject doFinish(@SuppressWarnings("unused") final Object receiver, final long handle) {
+            return method.image.asByteArray(getSecureHash(method, handle).finish());
+        }
+    }
+
+    @GenerateNodeFactory
+    @SqueakPrimitive(names = "primitiveDestroy")
+    protected abstract static class PrimDestroyNode extends AbstractPrimitiveNode implements BinaryPrimitive {
+        protected PrimDestroyNode(final CompiledMethodObject method) {
+            super(method);
+        }
+
+        @Specialization
+        @TruffleBoundary
+        protected final boolean doDestroy(@SuppressWarnings("unused") final Object receiver, final long handle) {
+            return BooleanObject.wrap(method.image.secureHashHandles.removeKey(handle) != null);
+        }
+    }
+
+    @GenerateNodeFactory
+    @SqueakPrimitive(names = "primitiveDigest")
+    protected abstract static class PrimDigestNode extends AbstractPrimitiveNode implements TernaryPrimitive {
+        protected PrimDigestNode(final CompiledMethodObject method) {
+            super(method);
+        }
+
+        @Specialization(guards = {"algorithm.isByteType()", "bytes.isByteType()"})
+        @TruffleBoundary(transferToInterpreterOnException = false)
+        protected final NativeObject doDigest(@SuppressWarnings("unused") final Object receiver, final NativeObject algorithm, final NativeObject bytes) {
+            return method.image.asByteArray(newDigest(algorithm.asStringUnsafe()).digest(bytes.getByteStorage()));
+        }
+    }
+
+    @GenerateNodeFactory
+    @SqueakPrimitive(names = "primitiveHMAC")
+    protected abstract static class PrimHMACNode extends AbstractPrimitiveNode implements QuaternaryPrimitive {
+        protected PrimHMACNode(final CompiledMethodObject method) {
+            super(method);
+        }
+
+        @Specialization(guards = {"algorithm.isByteType()", "key.isByteType()", "bytes.isByteType()"})
+        @TruffleBoundary(transferToInterpreterOnException = false)
+        protected final NativeObject doHMAC(@SuppressWarnings("unused") final Object receiver, final NativeObject algorithm, final NativeObject key, final NativeObject bytes) {
+            return method.image.asByteArray(newHMAC(algorithm.asStringUnsafe(), key.getByteStorage()).doFinal(bytes.getByteStorage()));
+        }
+    }
+
+    @Override
+    public List<? extends NodeFactory<? extends AbstractPrimitiveNode>> getFactories() {
+        return SecureHashPluginFactory.getFactories();
+    }
+}
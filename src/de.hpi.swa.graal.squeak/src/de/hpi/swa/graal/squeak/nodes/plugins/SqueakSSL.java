@@ -5,6 +5,7 @@
  */
 package de.hpi.swa.graal.squeak.nodes.plugins;
 
+import static de.hpi.swa.graal.squeak.util.LoggerWrapper.Name.IO;
 import static java.util.Arrays.asList;
 
 import java.io.IOException;
@@ -14,6 +15,7 @@ import java.nio.file.Paths;
 import java.security.GeneralSecurityException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.logging.Level;
 
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLEngine;
@@ -41,6 +43,7 @@ import de.hpi.swa.graal.squeak.nodes.primitives.PrimitiveInterfaces.SenaryPrimit
 import de.hpi.swa.graal.squeak.nodes.primitives.PrimitiveInterfaces.TernaryPrimitive;
 import de.hpi.swa.graal.squeak.nodes.primitives.PrimitiveInterfaces.UnaryPrimitiveWithoutFallback;
 import de.hpi.swa.graal.squeak.nodes.primitives.SqueakPrimitive;
+import de.hpi.swa.graal.squeak.util.LoggerWrapper;
 
 /**
  * Implement Squeak SSL primitives using {@link SSLEngine}.
@@ -114,6 +117,7 @@ import de.hpi.swa.graal.squeak.nodes.primitives.SqueakPrimitive;
  * @see sun.security.ssl.Debug
  */
 public final class SqueakSSL extends AbstractPrimitiveFactoryHolder {
+    private static final LoggerWrapper LOG = LoggerWrapper.get(IO, Level.FINE);
     private static final ByteBuffer EMPTY_BUFFER = createEmptyImmutableBuffer();
 
     // FIXME global state
@@ -229,7 +233,33 @@ public final class SqueakSSL extends AbstractPrimitiveFactoryHolder {
 
         private ByteBuffer buffer;
 
+        /*
+         * Reused across calls: the target for results that do not fit into the Squeak buffer, and
+         * views on the Squeak buffers of the last call (usually the same for a connection).
+         */
+        private ByteBuffer intermediateBuffer;
+        private ByteBuffer readView;
+        private byte[] readViewBytes;
+        private ByteBuffer writeView;
+
+        /* Metrics */
+        private long handshakes;
+        private long plainBytesWrapped;
+        private long netBytesProduced;
+        private long netBytesUnwrapped;
+        private long plainBytesProduced;
+        private long inPlaceResults;
+        private long copiedResults;
+        private long bufferGrowths;
+
         @SuppressWarnings("unused" /* TODO */) private long logLevel;
+
+        @Override
+        public String toString() {
+            return String.format("SqSSL(%s, %s): %d handshakes, %d plain bytes wrapped into %d net bytes, %d net bytes unwrapped into %d plain bytes, " +
+                            "%d results in place, %d copied, %d buffer growths", state, peerName, handshakes, plainBytesWrapped, netBytesProduced, netBytesUnwrapped,
+                            plainBytesProduced, inPlaceResults, copiedResults, bufferGrowths);
+        }
     }
 
     @TruffleBoundary
@@ -248,7 +278,10 @@ public final class SqueakSSL extends AbstractPrimitiveFactoryHolder {
     }
 
     private static SSLEngineResult wrap(final SqSSL ssl, final ByteBuffer sourceBuffer, final ByteBuffer targetBuffer) throws SSLException {
-        return encode(ssl, ssl.engine::wrap, sourceBuffer, targetBuffer);
+        final SSLEngineResult result = encode(ssl, ssl.engine::wrap, sourceBuffer, targetBuffer);
+        ssl.plainBytesWrapped += result.bytesConsumed();
+        ssl.netBytesProduced += result.bytesProduced();
+        return result;
     }
 
     /**
@@ -256,13 +289,30 @@ public final class SqueakSSL extends AbstractPrimitiveFactoryHolder {
      * read-only.
      */
     private static SSLEngineResult unwrap(final SqSSL ssl, final ByteBuffer sourceBuffer, final ByteBuffer targetBuffer) throws SSLException {
-        return encode(ssl, ssl.engine::unwrap, sourceBuffer, targetBuffer);
+        final SSLEngineResult result = encode(ssl, ssl.engine::unwrap, sourceBuffer, targetBuffer);
+        ssl.netBytesUnwrapped += result.bytesConsumed();
+        ssl.plainBytesProduced += result.bytesProduced();
+        return result;
     }
 
+    /**
+     * If the target buffer can hold any result the session may produce, the engine writes into it
+     * directly. Otherwise, the result is produced in the reusable intermediate buffer of the SSL
+     * instance and then copied.
+     */
     @TruffleBoundary
     private static SSLEngineResult encode(final SqSSL ssl, final Encoder encoder, final ByteBuffer sourceBuffer, final ByteBuffer targetBuffer) throws SSLException {
         final int bufferSize = getBufferSize(ssl);
-        ByteBuffer intermediateTarget = ByteBuffer.allocate(bufferSize);
+        if (!targetBuffer.isReadOnly() && targetBuffer.remaining() >= bufferSize && !(sourceBuffer == ssl.readView && targetBuffer.array() == ssl.readViewBytes)) {
+            final SSLEngineResult result = encoder.encode(sourceBuffer, targetBuffer);
+            if (result.getStatus() != Status.BUFFER_OVERFLOW) {
+                ssl.inPlaceResults++;
+                return result;
+            }
+            /* Nothing has been consumed or produced, retry with the intermediate buffer. */
+        }
+        ssl.copiedResults++;
+        ByteBuffer intermediateTarget = getIntermediateBuffer(ssl, bufferSize);
 
         while (true) {
             final SSLEngineResult result = encoder.encode(sourceBuffer, intermediateTarget);
@@ -272,6 +322,8 @@ public final class SqueakSSL extends AbstractPrimitiveFactoryHolder {
 
                 case BUFFER_OVERFLOW:
                     intermediateTarget = enlargeBufferFrom(intermediateTarget, bufferSize);
+                    ssl.intermediateBuffer = intermediateTarget;
+                    ssl.bufferGrowths++;
                     continue;
 
                 case OK:
@@ -292,6 +344,28 @@ public final class SqueakSSL extends AbstractPrimitiveFactoryHolder {
         }
     }
 
+    private static ByteBuffer getIntermediateBuffer(final SqSSL ssl, final int bufferSize) {
+        if (ssl.intermediateBuffer == null || ssl.intermediateBuffer.capacity() < bufferSize) {
+            ssl.intermediateBuffer = ByteBuffer.allocate(bufferSize);
+        } else {
+            ssl.intermediateBuffer.clear();
+        }
+        return ssl.intermediateBuffer;
+    }
+
+    /** Appends incoming net data to the buffer of the SSL instance, growing it if necessary. */
+    @TruffleBoundary
+    private static void appendToBuffer(final SqSSL ssl, final ByteBuffer source) {
+        if (ssl.buffer.remaining() < source.remaining()) {
+            final ByteBuffer newBuffer = ByteBuffer.allocate(ssl.buffer.position() + source.remaining() + getBufferSize(ssl));
+            ssl.buffer.flip();
+            newBuffer.put(ssl.buffer);
+            ssl.buffer = newBuffer;
+            ssl.bufferGrowths++;
+        }
+        ssl.buffer.put(source);
+    }
+
     private static ByteBuffer enlargeBufferFrom(final ByteBuffer buffer, final int bufferSize) {
         final int delta = buffer.position() > 0 ? buffer.position() : bufferSize;
         final ByteBuffer newBuffer = ByteBuffer.allocate(bufferSize + delta);
@@ -306,16 +380,32 @@ public final class SqueakSSL extends AbstractPrimitiveFactoryHolder {
      * @param length the length to interpret
      * @return a read-only byte buffer
      */
-    private static ByteBuffer asReadBuffer(final NativeObject buffer, final long start, final long length) {
-        return ByteBuffer.wrap(buffer.getByteStorage(), (int) start - 1, (int) length).asReadOnlyBuffer();
+    @TruffleBoundary
+    private static ByteBuffer asReadBuffer(final SqSSL ssl, final NativeObject buffer, final long start, final long length) {
+        final byte[] bytes = buffer.getByteStorage();
+        if (ssl.readViewBytes != bytes) {
+            ssl.readView = ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+            ssl.readViewBytes = bytes; // Read-only buffers do not expose their array.
+        }
+        ssl.readView.clear();
+        ssl.readView.position((int) start - 1);
+        ssl.readView.limit((int) (start - 1 + length));
+        return ssl.readView;
     }
 
     /**
      * @param buffer the Squeak buffer object (byte type)
      * @return a write-through byte buffer
      */
-    private static ByteBuffer asWriteBuffer(final NativeObject buffer) {
-        return ByteBuffer.wrap(buffer.getByteStorage());
+    @TruffleBoundary
+    private static ByteBuffer asWriteBuffer(final SqSSL ssl, final NativeObject buffer) {
+        final byte[] bytes = buffer.getByteStorage();
+        if (ssl.writeView == null || ssl.writeView.array() != bytes) {
+            ssl.writeView = ByteBuffer.wrap(bytes);
+        } else {
+            ssl.writeView.clear();
+        }
+        return ssl.writeView;
     }
 
     /**
@@ -397,8 +487,8 @@ public final class SqueakSSL extends AbstractPrimitiveFactoryHolder {
                 return ReturnCode.INVALID_STATE.id();
             }
 
-            final ByteBuffer source = asReadBuffer(sourceBuffer, start, length);
-            final ByteBuffer target = asWriteBuffer(targetBuffer);
+            final ByteBuffer source = asReadBuffer(ssl, sourceBuffer, start, length);
+            final ByteBuffer target = asWriteBuffer(ssl, targetBuffer);
 
             try {
                 return process(ssl, source, target);
@@ -416,7 +506,7 @@ public final class SqueakSSL extends AbstractPrimitiveFactoryHolder {
             }
 
             if (ssl.state == State.ACCEPTING) {
-                ssl.buffer.put(source);
+                appendToBuffer(ssl, source);
                 unwrapEagerly(ssl);
                 wrapEagerly(ssl, target);
                 return target.position();
@@ -454,6 +544,7 @@ public final class SqueakSSL extends AbstractPrimitiveFactoryHolder {
 
         private static void handshakeCompleted(final SqSSL ssl) {
             ssl.state = State.CONNECTED;
+            ssl.handshakes++;
         }
     }
 
@@ -503,8 +594,8 @@ public final class SqueakSSL extends AbstractPrimitiveFactoryHolder {
                 return ReturnCode.INVALID_STATE.id();
             }
 
-            final ByteBuffer source = asReadBuffer(sourceBuffer, start, length);
-            final ByteBuffer target = asWriteBuffer(targetBuffer);
+            final ByteBuffer source = asReadBuffer(ssl, sourceBuffer, start, length);
+            final ByteBuffer target = asWriteBuffer(ssl, targetBuffer);
 
             try {
                 return processHandshake(ssl, source, target);
@@ -519,7 +610,7 @@ public final class SqueakSSL extends AbstractPrimitiveFactoryHolder {
                 beginHandshake(ssl, target);
                 return target.position();
             } else if (ssl.state == State.CONNECTING) {
-                ssl.buffer.put(source);
+                appendToBuffer(ssl, source);
                 readHandshakeResponse(ssl);
                 writeHandshakeResponse(ssl, target);
                 return target.position();
@@ -569,6 +660,7 @@ public final class SqueakSSL extends AbstractPrimitiveFactoryHolder {
 
         private static void handshakeCompleted(final SqSSL ssl) {
             ssl.state = State.CONNECTED;
+            ssl.handshakes++;
             ssl.peerName = ssl.engine.getPeerHost();
         }
 
@@ -679,11 +771,11 @@ public final class SqueakSSL extends AbstractPrimitiveFactoryHolder {
                 return ReturnCode.INVALID_STATE.id();
             }
 
-            final ByteBuffer source = asReadBuffer(sourceBuffer, start, length);
-            final ByteBuffer target = asWriteBuffer(targetBuffer);
+            final ByteBuffer source = asReadBuffer(ssl, sourceBuffer, start, length);
+            final ByteBuffer target = asWriteBuffer(ssl, targetBuffer);
 
             try {
-                ssl.buffer.put(source);
+                appendToBuffer(ssl, source);
                 decryptOne(ssl, target);
                 return target.position();
             } catch (final SSLException e) {
@@ -745,8 +837,8 @@ public final class SqueakSSL extends AbstractPrimitiveFactoryHolder {
                 return ReturnCode.INVALID_STATE.id();
             }
 
-            final ByteBuffer source = asReadBuffer(sourceBuffer, start, length);
-            final ByteBuffer target = asWriteBuffer(targetBuffer);
+            final ByteBuffer source = asReadBuffer(ssl, sourceBuffer, start, length);
+            final ByteBuffer target = asWriteBuffer(ssl, targetBuffer);
 
             try {
                 encrypt(ssl, source, target);
@@ -968,6 +1060,7 @@ public final class SqueakSSL extends AbstractPrimitiveFactoryHolder {
             if (ssl == null) {
                 return 0L;
             } else {
+                assert LOG.fine(() -> "Destroyed " + ssl);
                 return 1L;
             }
         }
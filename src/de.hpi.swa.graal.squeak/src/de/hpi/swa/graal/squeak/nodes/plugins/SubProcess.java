@@ -0,0 +1,353 @@
+/*
+ * Copyright (c) 2017-2020 Software Architecture Group, Hasso Plattner Institute
+ *
+ * Licensed under the MIT License.
+ */
+package de.hpi.swa.graal.squeak.nodes.plugins;
+
+import static de.hpi.swa.graal.squeak.util.LoggerWrapper.Name.IO;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+import de.hpi.swa.graal.squeak.util.InterruptHandlerState;
+import de.hpi.swa.graal.squeak.util.LoggerWrapper;
+
+/**
+ * A child process spawned by the OSProcess plugins. Its standard streams are non-blocking channels
+ * meant to be registered as FilePlugin handles: reads answer what the child has written so far (or
+ * nothing), writes buffer as much as fits. Pooled threads block on the actual pipes instead, so
+ * nothing polls. They signal the data semaphore whenever output becomes available and the exit
+ * semaphore once the child has terminated and both of its output pipes have been closed.
+ */
+public final class SubProcess {
+    private static final LoggerWrapper LOG = LoggerWrapper.get(IO, Level.FINE);
+    private static final int PIPE_CAPACITY = 64 * 1024;
+    private static final int CHUNK_SIZE = 8 * 1024;
+    private static final ExecutorService PIPE_THREADS = Executors.newCachedThreadPool(runnable -> {
+        final Thread thread = new Thread(runnable, "GraalSqueak SubProcess I/O");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Process process;
+    private final InterruptHandlerState interrupt;
+    private final int dataSemaphoreIndex;
+    private final int exitSemaphoreIndex;
+    private final Pipe stdin;
+    private final Pipe stdout;
+    private final Pipe stderr;
+    private final AtomicInteger openOutputPipes = new AtomicInteger(2);
+    private volatile boolean hasExited;
+    private volatile int exitStatus;
+
+    private SubProcess(final Process process, final InterruptHandlerState interrupt, final int dataSemaphoreIndex, final int exitSemaphoreIndex) {
+        this.process = process;
+        this.interrupt = interrupt;
+        this.dataSemaphoreIndex = dataSemaphoreIndex;
+        this.exitSemaphoreIndex = exitSemaphoreIndex;
+        stdin = new Pipe(false);
+        stdout = new Pipe(true);
+        stderr = new Pipe(true);
+    }
+
+    /**
+     * Starts `command` in `directory`. If `environment` is not `null`, it replaces the inherited
+     * environment. Semaphore indices less than one are not signalled.
+     */
+    public static SubProcess spawn(final String[] command, final File directory, final Map<String, String> environment, final InterruptHandlerState interrupt,
+                    final int dataSemaphoreIndex, final int exitSemaphoreIndex) throws IOException {
+        final ProcessBuilder builder = new ProcessBuilder(command).directory(directory);
+        if (environment != null) {
+            builder.environment().clear();
+            builder.environment().putAll(environment);
+        }
+        final SubProcess subProcess = new SubProcess(builder.start(), interrupt, dataSemaphoreIndex, exitSemaphoreIndex);
+        PIPE_THREADS.execute(() -> subProcess.stdout.fillFrom(subProcess.process.getInputStream()));
+        PIPE_THREADS.execute(() -> subProcess.stderr.fillFrom(subProcess.process.getErrorStream()));
+        assert LOG.fine(() -> "Spawned " + String.join(" ", command));
+        return subProcess;
+    }
+
+    public SeekableByteChannel getStdin() {
+        return stdin;
+    }
+
+    public SeekableByteChannel getStdout() {
+        return stdout;
+    }
+
+    public SeekableByteChannel getStderr() {
+        return stderr;
+    }
+
+    public boolean hasExited() {
+        return hasExited;
+    }
+
+    public int getExitStatus() {
+        assert hasExited;
+        return exitStatus;
+    }
+
+    public void terminate(final boolean forcibly) {
+        if (forcibly) {
+            process.destroyForcibly();
+        } else {
+            process.destroy();
+        }
+    }
+
+    private void signal(final int semaphoreIndex) {
+        if (semaphoreIndex > 0) {
+            interrupt.signalSemaphoreWithIndex(semaphoreIndex);
+        }
+    }
+
+    /* Called by the last output pipe thread, so the child has (almost certainly) exited already. */
+    private void awaitExit() {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                exitStatus = process.waitFor();
+                break;
+            } catch (final InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        hasExited = true;
+        assert LOG.fine(() -> "Subprocess exited with " + exitStatus);
+        signal(exitSemaphoreIndex);
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * A bounded ring buffer between the image and one of the child's standard streams. The image
+     * side never blocks: reads answer zero bytes while the buffer is empty and -1 at the end of
+     * the stream; writes accept as many bytes as there is space for.
+     */
+    private final class Pipe implements SeekableByteChannel {
+        private final boolean isReadable;
+        private final byte[] buffer = new byte[PIPE_CAPACITY];
+        private int start;
+        private int count;
+        /* Number of bytes the image has read or written. */
+        private long position;
+        private boolean isOpen = true;
+        private boolean atEndOfStream;
+        private boolean isDraining;
+
+        private Pipe(final boolean isReadable) {
+            this.isReadable = isReadable;
+        }
+
+        /* Runs on a pipe thread until the child closes its end or the image closes this pipe. */
+        private void fillFrom(final InputStream input) {
+            final byte[] chunk = new byte[CHUNK_SIZE];
+            try (InputStream in = input) {
+                int read;
+                while ((read = in.read(chunk)) >= 0) {
+                    if (!offer(chunk, read)) {
+                        break;
+                    }
+                }
+            } catch (final IOException e) {
+                assert LOG.fine(() -> "Subprocess pipe failed: " + e);
+            } finally {
+                synchronized (this) {
+                    atEndOfStream = true;
+                }
+                signal(dataSemaphoreIndex); /* Readers need to learn about the end of stream. */
+                if (openOutputPipes.decrementAndGet() == 0) {
+                    awaitExit();
+                }
+            }
+        }
+
+        /* Blocks the pipe thread while the buffer is full, answers false if the image closed it. */
+        private synchronized boolean offer(final byte[] chunk, final int length) {
+            int offset = 0;
+            while (offset < length) {
+                while (isOpen && count == buffer.length) {
+                    try {
+                        wait();
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                }
+                if (!isOpen) {
+                    return false;
+                }
+                final boolean wasEmpty = count == 0;
+                final int accepted = Math.min(length - offset, buffer.length - count);
+                putIntoBuffer(chunk, offset, accepted);
+                offset += accepted;
+                if (wasEmpty) {
+                    signal(dataSemaphoreIndex);
+                }
+            }
+            return true;
+        }
+
+        /* Runs on a pipe thread while the image has written bytes that the child has not read. */
+        private void drainTo(final OutputStream output) {
+            final byte[] chunk = new byte[CHUNK_SIZE];
+            while (true) {
+                final int length;
+                synchronized (this) {
+                    if (count == 0) {
+                        isDraining = false;
+                        if (!isOpen) {
+                            closeQuietly(output);
+                        }
+                        return;
+                    }
+                    length = Math.min(count, chunk.length);
+                    for (int i = 0; i < length; i++) {
+                        chunk[i] = buffer[(start + i) % buffer.length];
+                    }
+                }
+                try {
+                    output.write(chunk, 0, length);
+                    output.flush();
+                } catch (final IOException e) {
+                    synchronized (this) {
+                        /* The child is gone or closed its stdin, later writes fail. */
+                        atEndOfStream = true;
+                        count = 0;
+                        isDraining = false;
+                    }
+                    closeQuietly(output);
+                    return;
+                }
+                synchronized (this) {
+                    start = (start + length) % buffer.length;
+                    count -= length;
+                }
+            }
+        }
+
+        private void putIntoBuffer(final byte[] bytes, final int offset, final int length) {
+            final int end = (start + count) % buffer.length;
+            final int firstPart = Math.min(length, buffer.length - end);
+            System.arraycopy(bytes, offset, buffer, end, firstPart);
+            System.arraycopy(bytes, offset + firstPart, buffer, 0, length - firstPart);
+            count += length;
+        }
+
+        @Override
+        public synchronized int read(final ByteBuffer dst) throws IOException {
+            if (!isOpen) {
+                throw new ClosedChannelException();
+            } else if (!isReadable) {
+                throw new IOException("Cannot read from stdin of a subprocess");
+            } else if (count == 0) {
+                return atEndOfStream ? -1 : 0;
+            }
+            final int length = Math.min(dst.remaining(), count);
+            final int firstPart = Math.min(length, buffer.length - start);
+            dst.put(buffer, start, firstPart);
+            dst.put(buffer, 0, length - firstPart);
+            start = (start + length) % buffer.length;
+            count -= length;
+            position += length;
+            notifyAll();
+            return length;
+        }
+
+        @Override
+        public synchronized int write(final ByteBuffer src) throws IOException {
+            if (!isOpen) {
+                throw new ClosedChannelException();
+            } else if (isReadable) {
+                throw new NonWritableChannelException();
+            } else if (atEndOfStream) {
+                throw new IOException("Subprocess closed its stdin");
+            }
+            final int length = Math.min(src.remaining(), buffer.length - count);
+            if (length == 0) {
+                return 0;
+            }
+            final int end = (start + count) % buffer.length;
+            final int firstPart = Math.min(length, buffer.length - end);
+            src.get(buffer, end, firstPart);
+            src.get(buffer, 0, length - firstPart);
+            count += length;
+            position += length;
+            if (!isDraining) {
+                isDraining = true;
+                PIPE_THREADS.execute(() -> drainTo(process.getOutputStream()));
+            }
+            return length;
+        }
+
+        @Override
+        public synchronized long position() {
+            return position;
+        }
+
+        @Override
+        public synchronized SeekableByteChannel position(final long newPosition) throws IOException {
+            if (newPosition != position) {
+                throw new IOException("Subprocess pipes are not seekable");
+            }
+            return this;
+        }
+
+        /**
+         * Answers one byte more than has been read while the stream has not ended, so that
+         * primitiveFileAtEnd only answers true once there is nothing left to read.
+         */
+        @Override
+        public synchronized long size() {
+            return position + count + (isReadable && !atEndOfStream ? 1 : 0);
+        }
+
+        @Override
+        public SeekableByteChannel truncate(final long size) throws IOException {
+            throw new IOException("Subprocess pipes cannot be truncated");
+        }
+
+        @Override
+        public synchronized boolean isOpen() {
+            return isOpen;
+        }
+
+        /* Closing stdin delivers the bytes written so far, closing an output discards them. */
+        @Override
+        public synchronized void close() {
+            if (!isOpen) {
+                return;
+            }
+            isOpen = false;
+            if (isReadable) {
+                count = 0;
+                notifyAll();
+            } else if (!isDraining) {
+                closeQuietly(process.getOutputStream());
+            }
+        }
+    }
+
+    private static void closeQuietly(final OutputStream output) {
+        try {
+            output.close();
+        } catch (final IOException e) {
+            assert LOG.fine(() -> "Failed to close subprocess stdin: " + e);
+        }
+    }
+}
@@ -5,10 +5,26 @@
  */
 package de.hpi.swa.graal.squeak.nodes.plugins;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 
 import de.hpi.swa.graal.squeak.exceptions.PrimitiveExceptions.PrimitiveFailed;
+import de.hpi.swa.graal.squeak.exceptions.SqueakExceptions.SqueakException;
 import de.hpi.swa.graal.squeak.model.AbstractSqueakObjectWithClassAndHash;
 import de.hpi.swa.graal.squeak.model.BooleanObject;
 import de.hpi.swa.graal.squeak.model.ClassObject;
@@ -564,6 +580,10 @@ public final class Zip {
 
     /* DeflatePlugin>>#primitiveUpdateAdler32 */
     public static long primitiveUpdateAdler32(final long adler32, final int startIndex, final int stopIndex, final NativeObject collection) {
+        final int length = stopIndex - startIndex + 1;
+        if (length >= CHECKSUM_MIN_LENGTH) {
+            return updateAdler32(adler32, collection.getByteStorage(), startIndex - 1, length);
+        }
         int b;
         int s1;
         int s2;
@@ -585,6 +605,10 @@ public final class Zip {
 
     /* DeflatePlugin>>#primitiveUpdateGZipCrc32 */
     public static long primitiveUpdateGZipCrc32(final NativeObject collection, final int startIndex, final int stopIndex, final long crc) {
+        final int length = stopIndex - startIndex + 1;
+        if (length >= CHECKSUM_MIN_LENGTH) {
+            return updateCrc32(crc, collection.getByteStorage(), startIndex - 1, length);
+        }
         long result = crc;
 
         final byte[] bytes = collection.getByteStorage();
@@ -891,6 +915,168 @@ public final class Zip {
         return receiver.size() >= writeStreamInstSize + 3;
     }
 
+    /*
+     * JAVA.UTIL.ZIP
+     *
+     * Checksums and whole-buffer (de)compression backed by java.util.zip, which uses zlib and
+     * intrinsified CRC32 and Adler32 implementations. java.util.zip checksums cannot be seeded, so
+     * checksums of ranges are computed from scratch and combined with the running checksum as in
+     * zlib's crc32_combine and adler32_combine.
+     */
+
+    public static final int FORMAT_RAW = 0;
+    public static final int FORMAT_ZLIB = 1;
+    public static final int FORMAT_GZIP = 2;
+
+    /* Below this length, combining checksums is more expensive than the table-driven loops. */
+    private static final int CHECKSUM_MIN_LENGTH = 64;
+    private static final int ADLER_BASE = 65521;
+    private static final int CRC32_POLYNOMIAL = 0xEDB88320;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /* x^(2^n) modulo the CRC-32 polynomial, as in zlib's x2n_table. */
+    @CompilationFinal(dimensions = 1) private static final int[] CRC32_X2N_TABLE = new int[32];
+
+    static {
+        int p = 1 << 30; // x^1
+        CRC32_X2N_TABLE[0] = p;
+        for (int n = 1; n < 32; n++) {
+            p = crc32MultiplyModP(p, p);
+            CRC32_X2N_TABLE[n] = p;
+        }
+    }
+
+    /* `crc` is the CRC register as used by GZipWriteStream (not inverted). */
+    @TruffleBoundary
+    private static long updateCrc32(final long crc, final byte[] bytes, final int offset, final int length) {
+        final CRC32 checksum = new CRC32();
+        checksum.update(bytes, offset, length);
+        final int combined = crc32Combine(~(int) crc, (int) checksum.getValue(), length);
+        return Integer.toUnsignedLong(~combined);
+    }
+
+    private static int crc32Combine(final int crc1, final int crc2, final long length2) {
+        return crc32MultiplyModP(crc32X2NModP(length2, 3), crc1) ^ crc2;
+    }
+
+    private static int crc32MultiplyModP(final int a, final int b) {
+        int m = 1 << 31;
+        int p = 0;
+        int x = b;
+        while (true) {
+            if ((a & m) != 0) {
+                p ^= x;
+                if ((a & m - 1) == 0) {
+                    break;
+                }
+            }
+            m >>>= 1;
+            x = (x & 1) != 0 ? x >>> 1 ^ CRC32_POLYNOMIAL : x >>> 1;
+        }
+        return p;
+    }
+
+    /* Returns x^(n * 2^k) modulo the CRC-32 polynomial. */
+    private static int crc32X2NModP(final long n, final int k) {
+        int p = 1 << 31; // x^0
+        long remaining = n;
+        int index = k;
+        while (remaining != 0) {
+            if ((remaining & 1) != 0) {
+                p = crc32MultiplyModP(CRC32_X2N_TABLE[index & 31], p);
+            }
+            remaining >>>= 1;
+            index++;
+        }
+        return p;
+    }
+
+    @TruffleBoundary
+    private static long updateAdler32(final long adler32, final byte[] bytes, final int offset, final int length) {
+        final Adler32 checksum = new Adler32();
+        checksum.update(bytes, offset, length);
+        return adler32Combine(adler32, checksum.getValue(), length);
+    }
+
+    private static long adler32Combine(final long adler1, final long adler2, final long length2) {
+        final long remainder = length2 % ADLER_BASE;
+        long sum1 = (adler1 & 0xFFFF) % ADLER_BASE;
+        long sum2 = remainder * sum1 % ADLER_BASE;
+        sum1 += (adler2 & 0xFFFF) + ADLER_BASE - 1;
+        sum2 += (adler1 >> 16 & 0xFFFF) % ADLER_BASE + (adler2 >> 16 & 0xFFFF) + ADLER_BASE - remainder;
+        if (sum1 >= ADLER_BASE) {
+            sum1 -= ADLER_BASE;
+        }
+        if (sum1 >= ADLER_BASE) {
+            sum1 -= ADLER_BASE;
+        }
+        if (sum2 >= ADLER_BASE << 1) {
+            sum2 -= ADLER_BASE << 1;
+        }
+        if (sum2 >= ADLER_BASE) {
+            sum2 -= ADLER_BASE;
+        }
+        return sum1 | sum2 << 16;
+    }
+
+    /** Decompresses `bytes` in the given format, returns `null` if the data is invalid. */
+    public static byte[] inflate(final byte[] bytes, final int format) {
+        try {
+            if (format == FORMAT_GZIP) {
+                try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes), BUFFER_SIZE)) {
+                    return readFully(in, bytes.length);
+                }
+            }
+            final Inflater inflater = new Inflater(format == FORMAT_RAW);
+            try (InflaterInputStream in = new InflaterInputStream(new ByteArrayInputStream(bytes), inflater, BUFFER_SIZE)) {
+                return readFully(in, bytes.length);
+            } finally {
+                inflater.end();
+            }
+        } catch (final IOException e) {
+            return null;
+        }
+    }
+
+    /** Compresses `bytes` in the given format and level (0-9, or -1 for the default). */
+    public static byte[] deflate(final byte[] bytes, final int format, final int level) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(32, bytes.length / 2));
+        try {
+            if (format == FORMAT_GZIP) {
+                try (GZIPOutputStream gzip = new LeveledGZIPOutputStream(out, level)) {
+                    gzip.write(bytes);
+                }
+            } else {
+                final Deflater deflater = new Deflater(level, format == FORMAT_RAW);
+                try (DeflaterOutputStream deflate = new DeflaterOutputStream(out, deflater, BUFFER_SIZE)) {
+                    deflate.write(bytes);
+                } finally {
+                    deflater.end();
+                }
+            }
+        } catch (final IOException e) {
+            throw SqueakException.create("Compressing into memory failed", e);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] readFully(final InputStream in, final int compressedLength) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(BUFFER_SIZE, compressedLength * 4));
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) > 0) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static final class LeveledGZIPOutputStream extends GZIPOutputStream {
+        private LeveledGZIPOutputStream(final OutputStream out, final int level) throws IOException {
+            super(out, BUFFER_SIZE);
+            def.setLevel(level);
+        }
+    }
+
     /*
      * POLYFILLS
      */
@@ -12,6 +12,7 @@ import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
 
+import de.hpi.swa.graal.squeak.exceptions.PrimitiveExceptions.PrimitiveFailed;
 import de.hpi.swa.graal.squeak.model.CompiledMethodObject;
 import de.hpi.swa.graal.squeak.model.NativeObject;
 import de.hpi.swa.graal.squeak.model.PointersObject;
@@ -22,6 +23,11 @@ import de.hpi.swa.graal.squeak.nodes.primitives.PrimitiveInterfaces.QuinaryPrimi
 import de.hpi.swa.graal.squeak.nodes.primitives.PrimitiveInterfaces.TernaryPrimitive;
 import de.hpi.swa.graal.squeak.nodes.primitives.SqueakPrimitive;
 
+/**
+ * DeflatePlugin and InflatePlugin primitives backed by {@link Zip}. In addition,
+ * primitiveInflateBytes and primitiveDeflateBytes (de)compress whole buffers in raw deflate (0),
+ * zlib (1), or gzip (2) format with java.util.zip, e.g. for ZLibReadStream and GZipReadStream.
+ */
 public final class ZipPlugin extends AbstractPrimitiveFactoryHolder {
     @GenerateNodeFactory
     @SqueakPrimitive(names = "primitiveDeflateBlock")
@@ -53,6 +59,40 @@ public final class ZipPlugin extends AbstractPrimitiveFactoryHolder {
         }
     }
 
+    @GenerateNodeFactory
+    @SqueakPrimitive(names = "primitiveDeflateBytes")
+    protected abstract static class PrimDeflateBytesNode extends AbstractPrimitiveNode implements QuaternaryPrimitive {
+
+        protected PrimDeflateBytesNode(final CompiledMethodObject method) {
+            super(method);
+        }
+
+        @Specialization(guards = {"source.isByteType()", "isValidFormat(format)", "level >= -1", "level <= 9"})
+        @TruffleBoundary(transferToInterpreterOnException = false)
+        protected final NativeObject doDeflate(@SuppressWarnings("unused") final Object receiver, final NativeObject source, final long format, final long level) {
+            return method.image.asByteArray(Zip.deflate(source.getByteStorage(), (int) format, (int) level));
+        }
+    }
+
+    @GenerateNodeFactory
+    @SqueakPrimitive(names = "primitiveInflateBytes")
+    protected abstract static class PrimInflateBytesNode extends AbstractPrimitiveNode implements TernaryPrimitive {
+
+        protected PrimInflateBytesNode(final CompiledMethodObject method) {
+            super(method);
+        }
+
+        @Specialization(guards = {"source.isByteType()", "isValidFormat(format)"})
+        @TruffleBoundary(transferToInterpreterOnException = false)
+        protected final NativeObject doInflate(@SuppressWarnings("unused") final Object receiver, final NativeObject source, final long format) {
+            final byte[] bytes = Zip.inflate(source.getByteStorage(), (int) format);
+            if (bytes == null) {
+                throw PrimitiveFailed.BAD_ARGUMENT;
+            }
+            return method.image.asByteArray(bytes);
+        }
+    }
+
     @GenerateNodeFactory
     @SqueakPrimitive(names = "primitiveInflateDecompressBlock")
     protected abstract static class PrimInflateDecompressBlockNode extends AbstractPrimitiveNode implements TernaryPrimitive {
@@ -115,6 +155,10 @@ public final class ZipPlugin extends AbstractPrimitiveFactoryHolder {
         }
     }
 
+    protected static final boolean isValidFormat(final long format) {
+        return format == Zip.FORMAT_RAW || format == Zip.FORMAT_ZLIB || format == Zip.FORMAT_GZIP;
+    }
+
     @Override
     public List<? extends NodeFactory<? extends AbstractPrimitiveNode>> getFactories() {
         return ZipPluginFactory.getFactories();
@@ -5,11 +5,44 @@
  */
 package de.hpi.swa.graal.squeak.nodes.plugins.network;
 
+import static de.hpi.swa.graal.squeak.util.LoggerWrapper.Name.IO;
+
+import java.io.IOException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+import de.hpi.swa.graal.squeak.util.InterruptHandlerState;
+import de.hpi.swa.graal.squeak.util.LoggerWrapper;
 
-final class Resolver {
+/**
+ * The name resolver of the SocketPlugin. Lookups that need the name service run on a pooled
+ * thread, so that a slow name server does not block the image. While such a lookup is running,
+ * the resolver is busy. The resolver semaphore is signalled once the lookup has completed. Literal
+ * addresses, entries of the hosts file option and recent results are answered right away. Like the
+ * image-side resolver, there is at most one lookup at a time, a new lookup supersedes a running
+ * one.
+ */
+public final class Resolver {
+    private static final LoggerWrapper LOG = LoggerWrapper.get(IO, Level.FINE);
+    private static final int CACHE_SIZE = 256;
+    /* Same as the default of the `networkaddress.cache.ttl` security property. */
+    private static final long CACHE_TTL_MILLIS = 30 * 1000;
+    private static final ExecutorService LOOKUP_THREADS = Executors.newCachedThreadPool(runnable -> {
+        final Thread thread = new Thread(runnable, "GraalSqueak Resolver");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     enum Status {
         Uninitialized(0),
@@ -31,10 +64,65 @@ final class Resolver {
     private static InetAddress anyLocalAddress = null;
     private static InetAddress loopbackAddress = null;
 
-    private static byte[] lastNameLookup;
-    private static String lastAddressLookup;
+    private final InterruptHandlerState interrupt;
+    private final Map<String, byte[]> hostsFileAddresses = new HashMap<>();
+    private final Map<String, String> hostsFileNames = new HashMap<>();
+    private final LinkedHashMap<String, CacheEntry> cache = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, CacheEntry> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private int semaphoreIndex;
+    private Status status = Status.Ready;
+    /* Identifies the current lookup, so that results of superseded lookups are dropped. */
+    private int lookupId;
+    private byte[] lastNameLookup;
+    private String lastAddressLookup;
+
+    private static final class CacheEntry {
+        private final Object result;
+        private final long expiresAt;
 
-    private Resolver() {
+        private CacheEntry(final Object result) {
+            this.result = result;
+            expiresAt = System.currentTimeMillis() + CACHE_TTL_MILLIS;
+        }
+    }
+
+    /**
+     * Creates a resolver that signals the resolver semaphore through `interrupt`. Unless
+     * `hostsFile` is empty, its entries are used instead of the name service, which lets tests
+     * resolve host names without a network.
+     */
+    public Resolver(final InterruptHandlerState interrupt, final String hostsFile) {
+        this.interrupt = interrupt;
+        if (!hostsFile.isEmpty()) {
+            readHostsFile(hostsFile);
+        }
+    }
+
+    private void readHostsFile(final String hostsFile) {
+        try {
+            for (final String line : Files.readAllLines(Paths.get(hostsFile), StandardCharsets.UTF_8)) {
+                final int commentStart = line.indexOf('#');
+                final String[] fields = (commentStart < 0 ? line : line.substring(0, commentStart)).trim().split("\\s+");
+                if (fields.length < 2) {
+                    continue;
+                }
+                /* A literal address is parsed without asking the name service. */
+                final InetAddress address = InetAddress.getByName(fields[0]);
+                hostsFileNames.putIfAbsent(address.getHostAddress(), fields[1]);
+                for (int i = 1; i < fields.length; i++) {
+                    hostsFileAddresses.putIfAbsent(fields[i].toLowerCase(), address.getAddress());
+                }
+            }
+        } catch (final IOException e) {
+            LOG.log(Level.WARNING, "Failed to read hosts file " + hostsFile, e);
+        }
     }
 
     protected static byte[] getAnyLocalAddress() {
@@ -51,38 +139,141 @@ final class Resolver {
         return loopbackAddress.getAddress();
     }
 
-    protected static void startHostNameLookUp(final String hostName) throws UnknownHostException {
-        try {
-            if ("localhost".equals(hostName)) {
-                lastNameLookup = Resolver.getLoopbackAddress();
-                return;
-            }
+    /** Lookups that complete later signal the semaphore at `index`, if it is greater than zero. */
+    protected synchronized void setSemaphoreIndex(final int index) {
+        semaphoreIndex = index;
+    }
 
-            final InetAddress address = InetAddress.getByName(hostName);
-            lastNameLookup = address.getAddress();
-        } catch (final UnknownHostException e) {
-            lastNameLookup = null;
-            throw e;
+    protected synchronized Status getStatus() {
+        return status;
+    }
+
+    protected synchronized void startHostNameLookUp(final String hostName) {
+        final int id = ++lookupId;
+        lastNameLookup = null;
+        final byte[] address = "localhost".equals(hostName) ? getLoopbackAddress() : lookUpLocally(hostName);
+        if (address != null) {
+            lastNameLookup = address;
+            status = Status.Ready;
+        } else {
+            startLookUp(id, () -> InetAddress.getByName(hostName).getAddress(), result -> {
+                cache.put("name:" + hostName.toLowerCase(), new CacheEntry(result));
+                lastNameLookup = result;
+            });
         }
     }
 
-    protected static byte[] lastHostNameLookupResult() {
+    protected synchronized byte[] lastHostNameLookupResult() {
         return lastNameLookup;
     }
 
-    protected static void startAddressLookUp(final byte[] address) throws UnknownHostException {
-        try {
-            lastAddressLookup = InetAddress.getByAddress(address).getHostName();
-        } catch (final UnknownHostException e) {
-            lastAddressLookup = null;
-            throw e;
+    protected synchronized void startAddressLookUp(final byte[] address) {
+        final int id = ++lookupId;
+        lastAddressLookup = null;
+        final String key = addressBytesToString(address);
+        final String name = key == null ? null : hostsFileNames.containsKey(key) ? hostsFileNames.get(key) : (String) getCached("address:" + key);
+        if (name != null) {
+            lastAddressLookup = name;
+            status = Status.Ready;
+        } else {
+            startLookUp(id, () -> InetAddress.getByAddress(address).getHostName(), result -> {
+                cache.put("address:" + key, new CacheEntry(result));
+                lastAddressLookup = result;
+            });
         }
     }
 
-    protected static String lastAddressLookUpResult() {
+    protected synchronized String lastAddressLookUpResult() {
         return lastAddressLookup;
     }
 
+    protected synchronized void abortLookUp() {
+        lookupId++;
+        status = Status.Ready;
+    }
+
+    private byte[] lookUpLocally(final String hostName) {
+        final String key = hostName.toLowerCase();
+        final byte[] address = hostsFileAddresses.get(key);
+        if (address != null) {
+            return address;
+        }
+        final byte[] cachedAddress = (byte[]) getCached("name:" + key);
+        if (cachedAddress != null) {
+            return cachedAddress;
+        }
+        if (isLiteralAddress(hostName)) {
+            try {
+                return InetAddress.getByName(hostName).getAddress();
+            } catch (final UnknownHostException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private Object getCached(final String key) {
+        final CacheEntry entry = cache.get(key);
+        if (entry == null) {
+            return null;
+        } else if (entry.expiresAt < System.currentTimeMillis()) {
+            cache.remove(key);
+            return null;
+        } else {
+            return entry.result;
+        }
+    }
+
+    private static boolean isLiteralAddress(final String hostName) {
+        return hostName.indexOf(':') >= 0 || hostName.matches("\\d+\\.\\d+\\.\\d+\\.\\d+");
+    }
+
+    @FunctionalInterface
+    private interface Query<T> {
+        T run() throws UnknownHostException;
+    }
+
+    /*
+     * Without a resolver semaphore, the image would not learn about the completion of the lookup
+     * until it times out, so the lookup is done right away instead.
+     */
+    private <T> void startLookUp(final int id, final Query<T> query, final Consumer<T> storeResult) {
+        if (semaphoreIndex <= 0) {
+            complete(id, query, storeResult);
+            return;
+        }
+        status = Status.Busy;
+        final int index = semaphoreIndex;
+        LOOKUP_THREADS.execute(() -> {
+            if (complete(id, query, storeResult)) {
+                interrupt.signalSemaphoreWithIndex(index);
+            }
+        });
+    }
+
+    /*
+     * Queries the name service without holding the lock, so that the image can check the status
+     * or abort the lookup in the meantime. Answers false if the lookup has been superseded.
+     */
+    private <T> boolean complete(final int id, final Query<T> query, final Consumer<T> storeResult) {
+        T result = null;
+        try {
+            result = query.run();
+        } catch (final UnknownHostException e) {
+            assert LOG.log(Level.FINE, "Lookup failed", e);
+        }
+        synchronized (this) {
+            if (id != lookupId) {
+                return false;
+            }
+            if (result != null) {
+                storeResult.accept(result);
+            }
+            status = result != null ? Status.Ready : Status.Error;
+            return true;
+        }
+    }
+
     protected static String addressBytesToString(final byte[] address) {
         try {
             return InetAddress.getByAddress(address).getHostAddress();
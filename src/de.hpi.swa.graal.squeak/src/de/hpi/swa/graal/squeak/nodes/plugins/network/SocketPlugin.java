@@ -19,8 +19,6 @@ import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.ImportStatic;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
-import com.oracle.truffle.api.nodes.NodeCost;
-import com.oracle.truffle.api.nodes.NodeInfo;
 
 import de.hpi.swa.graal.squeak.exceptions.PrimitiveExceptions.PrimitiveFailed;
 import de.hpi.swa.graal.squeak.model.AbstractSqueakObject;
@@ -65,21 +63,24 @@ public final class SocketPlugin extends AbstractPrimitiveFactoryHolder {
         }
 
         @Specialization
-        protected static long doWork(@SuppressWarnings("unused") final Object receiver) {
-            return Resolver.Status.Ready.id();
+        @TruffleBoundary
+        protected final long doWork(@SuppressWarnings("unused") final Object receiver) {
+            return method.image.resolver.getStatus().id();
         }
     }
 
     @GenerateNodeFactory
-    @NodeInfo(cost = NodeCost.NONE)
     @SqueakPrimitive(names = "primitiveInitializeNetwork")
-    protected abstract static class PrimInitializeNetworkNode extends AbstractPrimitiveNode implements UnaryPrimitiveWithoutFallback {
+    protected abstract static class PrimInitializeNetworkNode extends AbstractPrimitiveNode implements BinaryPrimitive {
         protected PrimInitializeNetworkNode(final CompiledMethodObject method) {
             super(method);
         }
 
+        /** Registers the semaphore to signal when an asynchronous lookup has completed. */
         @Specialization
-        protected static Object doWork(final Object receiver) {
+        @TruffleBoundary
+        protected final Object doWork(final Object receiver, final long resolverSemaphoreIndex) {
+            method.image.resolver.setSemaphoreIndex((int) resolverSemaphoreIndex);
             return receiver;
         }
     }
@@ -107,13 +108,9 @@ public final class SocketPlugin extends AbstractPrimitiveFactoryHolder {
          */
         @Specialization(guards = "hostName.isByteType()")
         @TruffleBoundary
-        protected static Object doWork(final Object receiver, final NativeObject hostName) {
-            try {
-                assert LOG.finer(() -> "Starting lookup for host name " + hostName);
-                Resolver.startHostNameLookUp(hostName.asStringUnsafe());
-            } catch (final UnknownHostException e) {
-                assert LOG.log(Level.FINE, "Host name lookup failed", e);
-            }
+        protected final Object doWork(final Object receiver, final NativeObject hostName) {
+            assert LOG.finer(() -> "Starting lookup for host name " + hostName);
+            method.image.resolver.startHostNameLookUp(hostName.asStringUnsafe());
             return receiver;
         }
     }
@@ -133,13 +130,24 @@ public final class SocketPlugin extends AbstractPrimitiveFactoryHolder {
          */
         @Specialization(guards = "address.isByteType()")
         @TruffleBoundary
-        protected static Object doWork(final Object receiver, final NativeObject address) {
-            try {
-                assert LOG.finer(() -> "Starting lookup for address " + address);
-                Resolver.startAddressLookUp(address.getByteStorage());
-            } catch (final UnknownHostException e) {
-                assert LOG.log(Level.FINE, "Address lookup failed", e);
-            }
+        protected final Object doWork(final Object receiver, final NativeObject address) {
+            assert LOG.finer(() -> "Starting lookup for address " + address);
+            method.image.resolver.startAddressLookUp(address.getByteStorage());
+            return receiver;
+        }
+    }
+
+    @GenerateNodeFactory
+    @SqueakPrimitive(names = "primitiveResolverAbortLookup")
+    protected abstract static class PrimResolverAbortLookupNode extends AbstractPrimitiveNode implements UnaryPrimitiveWithoutFallback {
+        protected PrimResolverAbortLookupNode(final CompiledMethodObject method) {
+            super(method);
+        }
+
+        @Specialization
+        @TruffleBoundary
+        protected final Object doWork(final Object receiver) {
+            method.image.resolver.abortLookUp();
             return receiver;
         }
     }
@@ -159,7 +167,7 @@ public final class SocketPlugin extends AbstractPrimitiveFactoryHolder {
         @Specialization
         @TruffleBoundary
         protected final AbstractSqueakObject doWork(@SuppressWarnings("unused") final Object receiver) {
-            final byte[] lastNameLookup = Resolver.lastHostNameLookupResult();
+            final byte[] lastNameLookup = method.image.resolver.lastHostNameLookupResult();
             assert LOG.finer(() -> "Name Lookup Result: " + Resolver.addressBytesToString(lastNameLookup));
             return lastNameLookup == null ? NilObject.SINGLETON : method.image.asByteArray(lastNameLookup);
         }
@@ -177,8 +185,9 @@ public final class SocketPlugin extends AbstractPrimitiveFactoryHolder {
          * lookup was unsuccessful.
          */
         @Specialization
+        @TruffleBoundary
         protected final AbstractSqueakObject doWork(@SuppressWarnings("unused") final Object receiver) {
-            final String lastAddressLookup = Resolver.lastAddressLookUpResult();
+            final String lastAddressLookup = method.image.resolver.lastAddressLookUpResult();
             assert LOG.finer(() -> ">> Address Lookup Result: " + lastAddressLookup);
             return lastAddressLookup == null ? NilObject.SINGLETON : method.image.asByteString(lastAddressLookup);
         }
@@ -32,6 +32,7 @@ import de.hpi.swa.graal.squeak.nodes.plugins.CroquetPlugin;
 import de.hpi.swa.graal.squeak.nodes.plugins.DSAPrims;
 import de.hpi.swa.graal.squeak.nodes.plugins.DropPlugin;
 import de.hpi.swa.graal.squeak.nodes.plugins.FilePlugin;
+import de.hpi.swa.graal.squeak.nodes.plugins.Float64ArrayPlugin;
 import de.hpi.swa.graal.squeak.nodes.plugins.FloatArrayPlugin;
 import de.hpi.swa.graal.squeak.nodes.plugins.GraalSqueakPlugin;
 import de.hpi.swa.graal.squeak.nodes.plugins.HostWindowPlugin;
@@ -42,6 +43,7 @@ import de.hpi.swa.graal.squeak.nodes.plugins.Matrix2x3Plugin;
 import de.hpi.swa.graal.squeak.nodes.plugins.MiscPrimitivePlugin;
 import de.hpi.swa.graal.squeak.nodes.plugins.NullPlugin;
 import de.hpi.swa.graal.squeak.nodes.plugins.PolyglotPlugin;
+import de.hpi.swa.graal.squeak.nodes.plugins.SecureHashPlugin;
 import de.hpi.swa.graal.squeak.nodes.plugins.SecurityPlugin;
 import de.hpi.swa.graal.squeak.nodes.plugins.SoundCodecPrims;
 import de.hpi.swa.graal.squeak.nodes.plugins.SqueakFFIPrims;
@@ -119,6 +121,7 @@ public final class PrimitiveNodeFactory {
                         new DropPlugin(),
                         new DSAPrims(),
                         new FilePlugin(),
+                        new Float64ArrayPlugin(),
                         new FloatArrayPlugin(),
                         new GraalSqueakPlugin(),
                         new HostWindowPlugin(),
@@ -129,6 +132,7 @@ public final class PrimitiveNodeFactory {
                         new MiscPrimitivePlugin(),
                         new NullPlugin(),
                         new PolyglotPlugin(),
+                        new SecureHashPlugin(),
                         new SecurityPlugin(),
                         new SocketPlugin(),
                         new SoundCodecPrims(),
@@ -5,17 +5,13 @@
  */
 package de.hpi.swa.graal.squeak.nodes.primitives.impl;
 
-import static de.hpi.swa.graal.squeak.util.LoggerWrapper.Name.GC;
 import static de.hpi.swa.graal.squeak.util.LoggerWrapper.Name.SCHEDULING;
 
-import java.lang.ref.Reference;
-import java.lang.ref.ReferenceQueue;
 import java.util.List;
 import java.util.logging.Level;
 
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
-import com.oracle.truffle.api.TruffleOptions;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Cached.Shared;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
@@ -84,7 +80,6 @@ import de.hpi.swa.graal.squeak.util.NotProvided;
 
 public final class ControlPrimitives extends AbstractPrimitiveFactoryHolder {
     private static final LoggerWrapper SCHEDULING_LOG = LoggerWrapper.get(SCHEDULING, Level.FINE);
-    private static final LoggerWrapper GC_LOG = LoggerWrapper.get(GC, Level.FINE);
 
     @Override
     public List<NodeFactory<? extends AbstractPrimitiveNode>> getFactories() {
@@ -568,31 +563,15 @@ public final class ControlPrimitives extends AbstractPrimitiveFactoryHolder {
             super(method);
         }
 
+        /*
+         * Only request a collection, instead of forcing one. Weak references cleared by it are
+         * picked up in the background by the interrupt handler, which then signals the
+         * finalization semaphore. Use -XX:+DisableExplicitGC to avoid the stop-the-world pause.
+         */
         @Specialization
-        protected final long doGC(@SuppressWarnings("unused") final Object receiver) {
-            if (TruffleOptions.AOT) {
-                /* System.gc() triggers full GC by default in SVM (see https://git.io/JvY7g). */
-                MiscUtils.systemGC();
-            } else {
-                MiscUtils.forceFullGC();
-            }
-            if (hasPendingFinalizations()) {
-                method.image.interrupt.setPendingFinalizations(true);
-            }
-            return MiscUtils.runtimeFreeMemory();
-        }
-
-        @TruffleBoundary
-        private boolean hasPendingFinalizations() {
-            final ReferenceQueue<Object> queue = method.image.weakPointersQueue;
-            Reference<? extends Object> element = queue.poll();
-            int count = 0;
-            while (element != null) {
-                count++;
-                element = queue.poll();
-            }
-            assert GC_LOG.fine("Number of garbage collected WeakPointersObjects: %d", count);
-            return count > 0;
+        protected static final long doGC(@SuppressWarnings("unused") final Object receiver) {
+            MiscUtils.systemGC();
+            return MiscUtils.getHeapMemoryFree();
         }
     }
 
@@ -606,9 +585,8 @@ public final class ControlPrimitives extends AbstractPrimitiveFactoryHolder {
 
         @Specialization
         protected static final long doIncrementalGC(@SuppressWarnings("unused") final Object receiver) {
-            /* Cannot force incremental GC in Java, suggesting a normal GC instead. */
-            MiscUtils.systemGC();
-            return MiscUtils.runtimeFreeMemory();
+            /* Cannot force incremental GC in Java, the JVM collects its young generation itself. */
+            return MiscUtils.getHeapMemoryFree();
         }
     }
 
@@ -127,6 +127,7 @@ public final class IOPrimitives extends AbstractPrimitiveFactoryHolder {
         @Specialization(guards = {"!isAOT()", "method.image.hasDisplay()"})
         protected final PointersObject doGetNext(final PointersObject eventSensor, final ArrayObject targetArray,
                         @Cached("createIdentityProfile()") final ValueProfile displayProfile) {
+            method.image.interrupt.countIOProcessEvents();
             final long[] event = displayProfile.profile(method.image.getDisplay()).getNextEvent();
             targetArray.setStorage(event != null ? event : SqueakIOConstants.NONE_EVENT);
             return eventSensor;
@@ -264,8 +265,8 @@ public final class IOPrimitives extends AbstractPrimitiveFactoryHolder {
 
         @Specialization(guards = {"method.image.hasDisplay()", "receiver.size() >= 4"})
         protected final boolean doDisplay(final PointersObject receiver) {
-            method.image.setSpecialObject(SPECIAL_OBJECT.THE_DISPLAY, receiver);
             method.image.getDisplay().open(receiver);
+            method.image.setSpecialObject(SPECIAL_OBJECT.THE_DISPLAY, receiver);
             return BooleanObject.TRUE;
         }
 
@@ -646,6 +647,7 @@ public final class IOPrimitives extends AbstractPrimitiveFactoryHolder {
                             @Shared("errorProfile") @Cached final BranchProfile errorProfile) {
                 try {
                     System.arraycopy(repl.getByteStorage(), (int) replStart - 1, rcvr.getByteStorage(), (int) start - 1, (int) (1 + stop - start));
+                    rcvr.invalidateCachedBytesHash();
                 } catch (final IndexOutOfBoundsException e) {
                     errorProfile.enter();
                     throw PrimitiveFailed.BAD_INDEX;
@@ -690,6 +692,7 @@ public final class IOPrimitives extends AbstractPrimitiveFactoryHolder {
                             @Shared("errorProfile") @Cached final BranchProfile errorProfile) {
                 try {
                     System.arraycopy(repl.getBytes(), (int) replStart - 1, rcvr.getByteStorage(), (int) start - 1, (int) (1 + stop - start));
+                    rcvr.invalidateCachedBytesHash();
                 } catch (final IndexOutOfBoundsException e) {
                     errorProfile.enter();
                     throw PrimitiveFailed.BAD_INDEX;
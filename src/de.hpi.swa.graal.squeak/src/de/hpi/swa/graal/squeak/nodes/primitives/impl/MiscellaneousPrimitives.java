@@ -67,6 +67,7 @@ import de.hpi.swa.graal.squeak.nodes.primitives.PrimitiveNodeFactory;
 import de.hpi.swa.graal.squeak.nodes.primitives.SqueakPrimitive;
 import de.hpi.swa.graal.squeak.shared.SqueakLanguageConfig;
 import de.hpi.swa.graal.squeak.util.ArrayUtils;
+import de.hpi.swa.graal.squeak.util.GarbageCollectionStatistics;
 import de.hpi.swa.graal.squeak.util.InterruptHandlerState;
 import de.hpi.swa.graal.squeak.util.LoggerWrapper;
 import de.hpi.swa.graal.squeak.util.MiscUtils;
@@ -639,6 +640,7 @@ public final class MiscellaneousPrimitives extends AbstractPrimitiveFactoryHolde
         protected static final NativeObject doCopyNativeByte(final NativeObject receiver, final NativeObject anotherObject) {
             final byte[] destStorage = receiver.getByteStorage();
             System.arraycopy(anotherObject.getByteStorage(), 0, destStorage, 0, destStorage.length);
+            receiver.invalidateCachedBytesHash();
             return receiver;
         }
 
@@ -868,17 +870,17 @@ public final class MiscellaneousPrimitives extends AbstractPrimitiveFactoryHolde
         private Object vmParameterAt(final int index) {
             //@formatter:off
             switch (index) {
-                case 1: return 1L; // end (v3)/size(Spur) of old-space (0-based, read-only)
-                case 2: return 1L; // end (v3)/size(Spur) of young/new-space (read-only)
+                case 1: return GarbageCollectionStatistics.getOldSpaceSize(); // end (v3)/size(Spur) of old-space (0-based, read-only)
+                case 2: return GarbageCollectionStatistics.getYoungSpaceSize(); // end (v3)/size(Spur) of young/new-space (read-only)
                 case 3: return MiscUtils.runtimeTotalMemory(); // end (v3)/size(Spur) of heap (read-only)
                 case 4: return NilObject.SINGLETON; // nil (was allocationCount (read-only))
                 case 5: return NilObject.SINGLETON; // nil (was allocations between GCs (read-write)
                 case 6: return 0L; // survivor count tenuring threshold (read-write)
-                case 7: return MiscUtils.getCollectionCount(); // full GCs since startup (read-only)
-                case 8: return MiscUtils.getCollectionTime(); // total milliseconds in full GCs since startup (read-only)
-                case 9: return 1L; // incremental GCs (SqueakV3) or scavenges (Spur) since startup (read-only)
-                case 10: return 1L; // total milliseconds in incremental GCs (SqueakV3) or scavenges (Spur) since startup (read-only)
-                case 11: return 1L; // tenures of surving objects since startup (read-only)
+                case 7: return GarbageCollectionStatistics.get().getFullGCs(); // full GCs since startup (read-only)
+                case 8: return GarbageCollectionStatistics.get().getFullGCMillis(); // total milliseconds in full GCs since startup (read-only)
+                case 9: return GarbageCollectionStatistics.get().getScavenges(); // incremental GCs (SqueakV3) or scavenges (Spur) since startup (read-only)
+                case 10: return GarbageCollectionStatistics.get().getScavengeMillis(); // total milliseconds in incremental GCs (SqueakV3) or scavenges (Spur) since startup (read-only)
+                case 11: return GarbageCollectionStatistics.get().getTenures(); // tenures of surving objects since startup (read-only)
                 case 12: case 13: case 14: case 15: case 16: case 17: case 18: case 19: return 0L; // case 12-20 were specific to ikp's JITTER VM, now 12-19 are open for use
                 case 20: return MiscUtils.toSqueakMicrosecondsUTC(method.image.startUpMillis * 1000L); // utc microseconds at VM start-up (actually at time initialization, which precedes image load).
                 case 21: return 0L; // root table size (read-only)
@@ -896,15 +898,15 @@ public final class MiscellaneousPrimitives extends AbstractPrimitiveFactoryHolde
                 case 33: return 0L; // number of root table entries used for current IGC/FGC (read-only)
                 case 34: return 0L; // number of allocations done before current IGC/FGC (read-only)
                 case 35: return 0L; // number of survivor objects after current IGC/FGC (read-only)
-                case 36: return 0L; // millisecond clock when current IGC/FGC completed (read-only)
+                case 36: return getLastGCEndMillis(); // millisecond clock when current IGC/FGC completed (read-only)
                 case 37: return 0L; // number of marked objects for Roots of the world, not including Root Table entries for current IGC/FGC (read-only)
-                case 38: return 0L; // milliseconds taken by current IGC (read-only)
+                case 38: return GarbageCollectionStatistics.get().getLastScavengeMillis(); // milliseconds taken by current IGC (read-only)
                 case 39: return MiscUtils.getObjectPendingFinalizationCount(); // Number of finalization signals for Weak Objects pending when current IGC/FGC completed (read-only)
                 case 40: return 8L; // BytesPerOop for this image
                 case 41: return (long) SqueakImageConstants.IMAGE_FORMAT; // imageFormatVersion for the VM
                 case 42: return 50L; // number of stack pages in use (see SmalltalkImage>>isRunningCog)
                 case 43: return 0L; // desired number of stack pages (stored in image file header, max 65535)
-                case 44: return 0L; // size of eden, in bytes
+                case 44: return GarbageCollectionStatistics.getEdenSize(); // size of eden, in bytes
                 case 45: return 0L; // desired size of eden, in bytes (stored in image file header)
                 case 46: return NilObject.SINGLETON; // machine code zone size, in bytes (Cog only; otherwise nil)
                 case 47: return NilObject.SINGLETON; // desired machine code zone size (stored in image file header; Cog only; otherwise nil)
@@ -915,10 +917,10 @@ public final class MiscellaneousPrimitives extends AbstractPrimitiveFactoryHolde
                 case 53: return 2L; // number of segments (Spur only; otherwise nil)
                 case 54: return MiscUtils.runtimeFreeMemory(); // total size of free old space (Spur only, otherwise nil)
                 case 55: return 0L; // ratio of growth and image size at or above which a GC will be performed post scavenge
-                case 56: return NilObject.SINGLETON; // number of process switches since startup (read-only)
-                case 57: return 0L; // number of ioProcessEvents calls since startup (read-only)
-                case 58: return 0L; // number of ForceInterruptCheck calls since startup (read-only)
-                case 59: return 0L; // number of check event calls since startup (read-only)
+                case 56: return method.image.interrupt.getProcessSwitches(); // number of process switches since startup (read-only)
+                case 57: return method.image.interrupt.getIOProcessEvents(); // number of ioProcessEvents calls since startup (read-only)
+                case 58: return method.image.interrupt.getForcedInterruptChecks(); // number of ForceInterruptCheck calls since startup (read-only)
+                case 59: return method.image.interrupt.getInterruptChecks(); // number of check event calls since startup (read-only)
                 case 60: return 0L; // number of stack page overflows since startup (read-only)
                 case 61: return 0L; // number of stack page divorces since startup (read-only)
                 case 62: return NilObject.SINGLETON; // compiled code compactions since startup (read-only; Cog only; otherwise nil)
@@ -937,6 +939,12 @@ public final class MiscellaneousPrimitives extends AbstractPrimitiveFactoryHolde
             }
             //@formatter:on
         }
+
+        /* Millisecond clock value (see primitive 135) of the last garbage collection, or 0. */
+        private long getLastGCEndMillis() {
+            final long lastEndTime = GarbageCollectionStatistics.get().getLastEndTime();
+            return lastEndTime == 0 ? 0L : Math.max(lastEndTime - method.image.startUpMillis, 0L);
+        }
     }
 
     /* Primitive 255 is reserved for RSqueak/VM and no longer needed in GraalSqueak. */
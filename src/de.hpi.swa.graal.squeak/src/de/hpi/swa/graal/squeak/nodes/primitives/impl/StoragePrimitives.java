@@ -62,6 +62,7 @@ import de.hpi.swa.graal.squeak.nodes.primitives.PrimitiveInterfaces.UnaryPrimiti
 import de.hpi.swa.graal.squeak.nodes.primitives.PrimitiveInterfaces.UnaryPrimitiveWithoutFallback;
 import de.hpi.swa.graal.squeak.nodes.primitives.SqueakPrimitive;
 import de.hpi.swa.graal.squeak.util.ArrayUtils;
+import de.hpi.swa.graal.squeak.util.ForwardingTable;
 import de.hpi.swa.graal.squeak.util.FrameAccess;
 import de.hpi.swa.graal.squeak.util.NotProvided;
 import de.hpi.swa.graal.squeak.util.ObjectGraphUtils;
@@ -82,55 +83,47 @@ public final class StoragePrimitives extends AbstractPrimitiveFactoryHolder {
         }
 
         protected final ArrayObject performPointersBecomeOneWay(final ArrayObject fromArray, final ArrayObject toArray, final boolean copyHash) {
-            final Object[] fromPointers = fromArray.getObjectStorage();
-            final Object[] toPointers = toArray.getObjectStorage();
-            // Need to operate on copy of `fromPointers` because itself will also be changed.
-            final Object[] fromPointersClone = fromPointers.clone();
-            ObjectGraphUtils.pointersBecomeOneWay(fromArray.image, pointersBecomeNode, fromPointersClone, toPointers, copyHash);
-            patchTruffleFrames(fromPointersClone, toPointers, copyHash);
+            // Need to operate on copies because the arrays themselves may also be changed.
+            final Object[] fromPointers = fromArray.getObjectStorage().clone();
+            final Object[] toPointers = toArray.getObjectStorage().clone();
+            for (int i = 0; i < fromPointers.length; i++) {
+                updateHashNode.executeUpdate(fromPointers[i], toPointers[i], copyHash);
+            }
+            final ForwardingTable forwarding = createForwardingTable(fromPointers, toPointers);
+            ObjectGraphUtils.pointersBecomeOneWay(fromArray.image, pointersBecomeNode, forwarding);
+            patchTruffleFrames(forwarding);
             return fromArray;
         }
 
         @TruffleBoundary
-        private void patchTruffleFrames(final Object[] fromPointers, final Object[] toPointers, final boolean copyHash) {
-            final int fromPointersLength = fromPointers.length;
+        private static ForwardingTable createForwardingTable(final Object[] fromPointers, final Object[] toPointers) {
+            return new ForwardingTable(fromPointers, toPointers);
+        }
 
+        /*
+         * Objects referenced from frames have been forwarded by the heap walk, but frames without
+         * a context still refer to forwarded objects in their arguments and stack slots.
+         */
+        @TruffleBoundary
+        private static void patchTruffleFrames(final ForwardingTable forwarding) {
             Truffle.getRuntime().iterateFrames((frameInstance) -> {
                 final Frame current = frameInstance.getFrame(FrameInstance.FrameAccess.READ_WRITE);
                 if (!FrameAccess.isGraalSqueakFrame(current)) {
                     return null;
                 }
                 final Object[] arguments = current.getArguments();
-                for (int i = 0; i < arguments.length; i++) {
-                    final Object argument = arguments[i];
-                    if (argument != null) {
-                        for (int j = 0; j < fromPointersLength; j++) {
-                            final Object fromPointer = fromPointers[j];
-                            if (argument == fromPointer) {
-                                final Object toPointer = toPointers[j];
-                                arguments[i] = toPointer;
-                                updateHashNode.executeUpdate(fromPointer, toPointer, copyHash);
-                            } else {
-                                pointersBecomeNode.execute(argument, fromPointers, toPointers, copyHash);
-                            }
-                        }
-                    }
-                }
-
                 final CompiledCodeObject blockOrMethod = arguments[2] != null ? ((BlockClosureObject) arguments[2]).getCompiledBlock() : (CompiledMethodObject) arguments[0];
                 final ContextObject context = FrameAccess.getContext(current, blockOrMethod);
                 if (context != null) {
-                    for (int j = 0; j < fromPointersLength; j++) {
-                        final Object fromPointer = fromPointers[j];
-                        if (context == fromPointer) {
-                            final Object toPointer = toPointers[j];
-                            FrameAccess.setContext(current, blockOrMethod, (ContextObject) toPointer);
-                            updateHashNode.executeUpdate(fromPointer, toPointer, copyHash);
-                        } else {
-                            pointersBecomeNode.execute(context, fromPointers, toPointers, copyHash);
-                        }
+                    final Object newContext = forwarding.forward(context);
+                    if (newContext != context) {
+                        FrameAccess.setContext(current, blockOrMethod, (ContextObject) newContext);
                     }
                 }
+                if (!forwarding.tryToVisitFrame(arguments)) {
+                    return null; // Already forwarded through its context.
+                }
+                forwarding.forwardAll(arguments);
                 final int stackp = FrameUtil.getIntSafe(current, blockOrMethod.getStackPointerSlot());
                 final FrameSlot[] stackSlots = blockOrMethod.getStackSlotsUnsafe();
                 final FrameDescriptor frameDescriptor = blockOrMethod.getFrameDescriptor();
@@ -144,16 +137,9 @@ public final class StoragePrimitives extends AbstractPrimitiveFactoryHolder {
                         if (stackObject == null) {
                             return null;
                         }
-                        for (int j = 0; j < fromPointersLength; j++) {
-                            final Object fromPointer = fromPointers[j];
-                            if (stackObject == fromPointer) {
-                                final Object toPointer = toPointers[j];
-                                assert toPointer != null : "Unexpected `null` value";
-                                current.setObject(frameSlot, toPointer);
-                                updateHashNode.executeUpdate(fromPointer, toPointer, copyHash);
-                            } else {
-                                pointersBecomeNode.execute(stackObject, fromPointers, toPointers, copyHash);
-                            }
+                        final Object newStackObject = forwarding.forward(stackObject);
+                        if (newStackObject != stackObject) {
+                            current.setObject(frameSlot, newStackObject);
                         }
                     } else if (frameDescriptor.getFrameSlotKind(frameSlot) == FrameSlotKind.Illegal) {
                         /** this slot and all following ones are not initialized, done. */
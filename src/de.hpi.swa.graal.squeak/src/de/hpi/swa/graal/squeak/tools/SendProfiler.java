@@ -0,0 +1,328 @@
+/*
+ * Copyright (c) 2017-2020 Software Architecture Group, Hasso Plattner Institute
+ *
+ * Licensed under the MIT License.
+ */
+package de.hpi.swa.graal.squeak.tools;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.InstrumentInfo;
+import com.oracle.truffle.api.TruffleLanguage;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.instrumentation.EventBinding;
+import com.oracle.truffle.api.instrumentation.ExecutionEventNode;
+import com.oracle.truffle.api.instrumentation.Instrumenter;
+import com.oracle.truffle.api.instrumentation.SourceSectionFilter;
+import com.oracle.truffle.api.instrumentation.StandardTags;
+import com.oracle.truffle.api.nodes.Node;
+
+import de.hpi.swa.graal.squeak.model.ClassObject;
+import de.hpi.swa.graal.squeak.model.CompiledBlockObject;
+import de.hpi.swa.graal.squeak.model.CompiledCodeObject;
+import de.hpi.swa.graal.squeak.model.CompiledMethodObject;
+import de.hpi.swa.graal.squeak.model.NativeObject;
+import de.hpi.swa.graal.squeak.nodes.PrimitiveFailedNode;
+import de.hpi.swa.graal.squeak.nodes.PrimitiveFailedNode.PrimitiveFailedTag;
+import de.hpi.swa.graal.squeak.nodes.SpecialSelectorSentNode;
+import de.hpi.swa.graal.squeak.nodes.SpecialSelectorSentNode.SpecialSelectorSentTag;
+import de.hpi.swa.graal.squeak.nodes.accessing.SqueakObjectClassNode;
+import de.hpi.swa.graal.squeak.nodes.bytecodes.SendBytecodes.AbstractSendNode;
+import de.hpi.swa.graal.squeak.nodes.bytecodes.SendBytecodes.SendSpecialSelectorNode;
+import de.hpi.swa.graal.squeak.nodes.context.frame.FrameSlotReadNode;
+import de.hpi.swa.graal.squeak.util.FrameAccess;
+
+/**
+ * Profiles of all send sites, keyed by `Class>>selector@pc`. A profile counts sends, their time
+ * including the time of nested sends, the receiver classes seen, primitive failures in the methods
+ * sent to, and deoptimizations. Primitive failures are reported by {@link PrimitiveFailedNode} and
+ * counted for the send site that is active. Special selectors such as `+` or `<` are computed
+ * without a send for SmallIntegers and SmallFloat64s, so an activation of such a site is only
+ * recorded if {@link SpecialSelectorSentNode} reported an actual send meanwhile.
+ * Deoptimizations are not reported to instruments, so a send site that runs in the interpreter
+ * after it has run in compiled code counts as deoptimized.
+ */
+public final class SendProfiler {
+    /* Same as the lookup cache size of send sites. */
+    private static final int MEGAMORPHIC_THRESHOLD = 6;
+    private final Instrumenter instrumenter;
+    private final int limit;
+    private final Map<String, SendSiteProfile> profiles = new HashMap<>();
+    private EventBinding<?> sendBinding;
+    private EventBinding<?> primitiveFailedBinding;
+    private EventBinding<?> specialSelectorSentBinding;
+    private long megamorphicTransitions = 0;
+
+    /* Send sites that have been entered but not yet returned from, innermost last. */
+    private SendSiteProfile[] activeSites = new SendSiteProfile[64];
+    private ClassObject[] receiverClasses = new ClassObject[64];
+    private boolean[] isCompiled = new boolean[64];
+    private boolean[] hasSent = new boolean[64];
+    private long[] startTimes = new long[64];
+    private int depth = 0;
+
+    private static final class SendSiteProfile {
+        private final String site;
+        private final String selector;
+        private final Map<ClassObject, Boolean> receiverClasses = new IdentityHashMap<>();
+        private long sends;
+        private long nanos;
+        private long primitiveFailures;
+        private long deoptimizations;
+        private boolean hasRunCompiled;
+
+        private SendSiteProfile(final String site, final String selector) {
+            this.site = site;
+            this.selector = selector;
+        }
+
+        private void clear() {
+            receiverClasses.clear();
+            sends = 0;
+            nanos = 0;
+            primitiveFailures = 0;
+            deoptimizations = 0;
+            hasRunCompiled = false;
+        }
+    }
+
+    SendProfiler(final Instrumenter instrumenter, final int limit) {
+        this.instrumenter = instrumenter;
+        this.limit = limit;
+    }
+
+    /** Answers the report of the profiler of `env`, or `null` if the profiler is not enabled. */
+    @TruffleBoundary
+    public static String reportFor(final TruffleLanguage.Env env) {
+        final InstrumentInfo instrument = env.getInstruments().get(SendProfilerInstrument.ID);
+        if (instrument == null) {
+            return null;
+        }
+        final SendProfiler profiler = env.lookup(instrument, SendProfiler.class);
+        return profiler != null && profiler.isEnabled() ? profiler.report() : null;
+    }
+
+    /** Starts or stops profiling. Profiles collected so far are kept. */
+    public synchronized void setEnabled(final boolean enabled) {
+        if (enabled && sendBinding == null) {
+            sendBinding = instrumenter.attachExecutionEventFactory(SourceSectionFilter.newBuilder().tagIs(StandardTags.CallTag.class).build(), context -> {
+                final Node node = context.getInstrumentedNode();
+                return node instanceof AbstractSendNode ? new SendSiteNode(this, (AbstractSendNode) node) : null;
+            });
+            primitiveFailedBinding = instrumenter.attachExecutionEventFactory(SourceSectionFilter.newBuilder().tagIs(PrimitiveFailedTag.class).build(),
+                            context -> new PrimitiveFailedEventNode(this));
+            specialSelectorSentBinding = instrumenter.attachExecutionEventFactory(SourceSectionFilter.newBuilder().tagIs(SpecialSelectorSentTag.class).build(),
+                            context -> new SpecialSelectorSentEventNode(this));
+        } else if (!enabled && sendBinding != null) {
+            sendBinding.dispose();
+            primitiveFailedBinding.dispose();
+            specialSelectorSentBinding.dispose();
+            sendBinding = null;
+            primitiveFailedBinding = null;
+            specialSelectorSentBinding = null;
+            Arrays.fill(activeSites, 0, depth, null);
+            Arrays.fill(receiverClasses, 0, depth, null);
+            depth = 0;
+        }
+    }
+
+    public synchronized boolean isEnabled() {
+        return sendBinding != null;
+    }
+
+    /** Discards all profiles collected so far. */
+    public synchronized void reset() {
+        /* Instrumented send sites keep their profiles, so they are cleared rather than removed. */
+        for (final SendSiteProfile profile : profiles.values()) {
+            profile.clear();
+        }
+        megamorphicTransitions = 0;
+    }
+
+    private synchronized SendSiteProfile getProfile(final AbstractSendNode node) {
+        final CompiledCodeObject code = node.getCode();
+        final int pc;
+        final String name;
+        if (code instanceof CompiledBlockObject) {
+            pc = ((CompiledBlockObject) code).getInitialPC() + node.getIndex();
+            name = "[] in " + code.getMethod();
+        } else {
+            pc = ((CompiledMethodObject) code).getInitialPC() + node.getIndex();
+            name = code.toString();
+        }
+        final String site = name + "@" + pc;
+        SendSiteProfile profile = profiles.get(site);
+        if (profile == null) {
+            profile = new SendSiteProfile(site, ((NativeObject) node.getSelector()).asStringUnsafe());
+            profiles.put(site, profile);
+        }
+        return profile;
+    }
+
+    @TruffleBoundary
+    private synchronized void enter(final SendSiteProfile profile, final ClassObject receiverClass, final boolean compiled, final boolean alwaysSends) {
+        if (depth == activeSites.length) {
+            activeSites = Arrays.copyOf(activeSites, depth * 2);
+            receiverClasses = Arrays.copyOf(receiverClasses, depth * 2);
+            isCompiled = Arrays.copyOf(isCompiled, depth * 2);
+            hasSent = Arrays.copyOf(hasSent, depth * 2);
+            startTimes = Arrays.copyOf(startTimes, depth * 2);
+        }
+        activeSites[depth] = profile;
+        receiverClasses[depth] = receiverClass;
+        isCompiled[depth] = compiled;
+        hasSent[depth] = alwaysSends;
+        startTimes[depth++] = System.nanoTime();
+    }
+
+    @TruffleBoundary
+    private synchronized void exit(final SendSiteProfile profile) {
+        final long now = System.nanoTime();
+        /* Sites above `profile` have been left without a return event and are dropped. */
+        for (int i = depth - 1; i >= 0; i--) {
+            if (activeSites[i] == profile) {
+                if (hasSent[i]) {
+                    record(profile, receiverClasses[i], isCompiled[i], now - startTimes[i]);
+                }
+                Arrays.fill(activeSites, i, depth, null);
+                Arrays.fill(receiverClasses, i, depth, null);
+                depth = i;
+                return;
+            }
+        }
+    }
+
+    private void record(final SendSiteProfile profile, final ClassObject receiverClass, final boolean compiled, final long nanos) {
+        profile.sends++;
+        profile.nanos += nanos;
+        if (profile.receiverClasses.put(receiverClass, Boolean.TRUE) == null && profile.receiverClasses.size() == MEGAMORPHIC_THRESHOLD + 1) {
+            megamorphicTransitions++;
+        }
+        if (compiled) {
+            profile.hasRunCompiled = true;
+        } else if (profile.hasRunCompiled) {
+            profile.deoptimizations++;
+            profile.hasRunCompiled = false;
+        }
+    }
+
+    @TruffleBoundary
+    private synchronized void specialSelectorSent() {
+        if (depth > 0) {
+            hasSent[depth - 1] = true;
+        }
+    }
+
+    @TruffleBoundary
+    private synchronized void primitiveFailed() {
+        if (depth > 0) {
+            activeSites[depth - 1].primitiveFailures++;
+        }
+    }
+
+    /** Answers the profiles of the send sites that took the most time as a table. */
+    @TruffleBoundary
+    public synchronized String report() {
+        final ArrayList<SendSiteProfile> sorted = new ArrayList<>();
+        for (final SendSiteProfile profile : profiles.values()) {
+            /* Special selector sites that have always been inlined have not sent anything. */
+            if (profile.sends > 0) {
+                sorted.add(profile);
+            }
+        }
+        Collections.sort(sorted, (a, b) -> Long.compare(b.nanos, a.nanos));
+        long primitiveFailures = 0;
+        long deoptimizations = 0;
+        for (final SendSiteProfile profile : sorted) {
+            primitiveFailures += profile.primitiveFailures;
+            deoptimizations += profile.deoptimizations;
+        }
+        final StringBuilder b = new StringBuilder();
+        b.append(String.format("Send profile: %d send sites, %d megamorphic transitions, %d primitive failures, %d deoptimizations%n",
+                        sorted.size(), megamorphicTransitions, primitiveFailures, deoptimizations));
+        b.append(String.format("%-70s %-30s %10s %12s %8s %10s %8s%n", "Send site", "Selector", "Sends", "Time (ms)", "Classes", "Prim fails", "Deopts"));
+        for (final SendSiteProfile profile : sorted.subList(0, Math.min(limit, sorted.size()))) {
+            b.append(String.format("%-70s %-30s %10d %12.3f %8s %10d %8d%n", profile.site, "#" + profile.selector, profile.sends, profile.nanos / 1e6,
+                            profile.receiverClasses.size() > MEGAMORPHIC_THRESHOLD ? "mega" : Integer.toString(profile.receiverClasses.size()),
+                            profile.primitiveFailures, profile.deoptimizations));
+        }
+        return b.toString();
+    }
+
+    private static final class SendSiteNode extends ExecutionEventNode {
+        private final SendProfiler profiler;
+        private final SendSiteProfile profile;
+        private final CompiledCodeObject code;
+        private final int argumentCount;
+        private final boolean alwaysSends;
+
+        @Child private FrameSlotReadNode receiverReadNode;
+        @Child private SqueakObjectClassNode classNode = SqueakObjectClassNode.create();
+
+        private SendSiteNode(final SendProfiler profiler, final AbstractSendNode node) {
+            this.profiler = profiler;
+            profile = profiler.getProfile(node);
+            code = node.getCode();
+            argumentCount = node.getArgumentCount();
+            alwaysSends = !(node instanceof SendSpecialSelectorNode);
+        }
+
+        @Override
+        protected void onEnter(final VirtualFrame frame) {
+            profiler.enter(profile, classNode.executeLookup(getReceiverReadNode(frame).executeRead(frame)), CompilerDirectives.inCompiledCode(), alwaysSends);
+        }
+
+        @Override
+        protected void onReturnValue(final VirtualFrame frame, final Object result) {
+            profiler.exit(profile);
+        }
+
+        @Override
+        protected void onReturnExceptional(final VirtualFrame frame, final Throwable exception) {
+            profiler.exit(profile);
+        }
+
+        /* The receiver and the arguments are still on the stack when the send is entered. */
+        private FrameSlotReadNode getReceiverReadNode(final VirtualFrame frame) {
+            if (receiverReadNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                final int receiverIndex = FrameAccess.getStackPointer(frame, code) - 1 - argumentCount;
+                receiverReadNode = insert(FrameSlotReadNode.create(code.getStackSlot(receiverIndex)));
+            }
+            return receiverReadNode;
+        }
+    }
+
+    private static final class PrimitiveFailedEventNode extends ExecutionEventNode {
+        private final SendProfiler profiler;
+
+        private PrimitiveFailedEventNode(final SendProfiler profiler) {
+            this.profiler = profiler;
+        }
+
+        @Override
+        protected void onEnter(final VirtualFrame frame) {
+            profiler.primitiveFailed();
+        }
+    }
+
+    private static final class SpecialSelectorSentEventNode extends ExecutionEventNode {
+        private final SendProfiler profiler;
+
+        private SpecialSelectorSentEventNode(final SendProfiler profiler) {
+            this.profiler = profiler;
+        }
+
+        @Override
+        protected void onEnter(final VirtualFrame frame) {
+            profiler.specialSelectorSent();
+        }
+    }
+}
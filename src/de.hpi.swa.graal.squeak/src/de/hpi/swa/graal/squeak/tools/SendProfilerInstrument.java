@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2017-2020 Software Architecture Group, Hasso Plattner Institute
+ *
+ * Licensed under the MIT License.
+ */
+package de.hpi.swa.graal.squeak.tools;
+
+import java.io.PrintStream;
+
+import org.graalvm.options.OptionCategory;
+import org.graalvm.options.OptionDescriptors;
+import org.graalvm.options.OptionKey;
+import org.graalvm.options.OptionStability;
+
+import com.oracle.truffle.api.Option;
+import com.oracle.truffle.api.instrumentation.TruffleInstrument;
+
+/**
+ * Profiles Smalltalk send sites when enabled with `--send-profiler` and prints the report on exit.
+ * The report is also answered by `primitiveSendProfile` of the GraalSqueakPlugin. Embedders can
+ * look up the {@link SendProfiler} service to profile only parts of a run.
+ */
+@TruffleInstrument.Registration(id = SendProfilerInstrument.ID, name = "GraalSqueak Send Profiler", version = "0.1", services = SendProfiler.class)
+public final class SendProfilerInstrument extends TruffleInstrument {
+    public static final String ID = "send-profiler";
+
+    @Option(name = "", category = OptionCategory.USER, stability = OptionStability.EXPERIMENTAL, help = "Profile Smalltalk send sites and print a report on exit.")//
+    static final OptionKey<Boolean> Enabled = new OptionKey<>(false);
+
+    @Option(name = "Limit", category = OptionCategory.USER, stability = OptionStability.EXPERIMENTAL, help = "Maximum number of send sites in the report (default: 100).")//
+    static final OptionKey<Integer> Limit = new OptionKey<>(100);
+
+    private SendProfiler profiler;
+    private boolean printReportOnExit;
+
+    @Override
+    protected void onCreate(final Env env) {
+        profiler = new SendProfiler(env.getInstrumenter(), env.getOptions().get(Limit));
+        printReportOnExit = env.getOptions().get(Enabled);
+        profiler.setEnabled(printReportOnExit);
+        env.registerService(profiler);
+    }
+
+    @Override
+    protected void onDispose(final Env env) {
+        if (printReportOnExit) {
+            final PrintStream out = new PrintStream(env.out());
+            out.print(profiler.report());
+            out.flush();
+        }
+        profiler.setEnabled(false);
+    }
+
+    @Override
+    protected OptionDescriptors getOptionDescriptors() {
+        return new SendProfilerInstrumentOptionDescriptors();
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2017-2020 Software Architecture Group, Hasso Plattner Institute
+ *
+ * Licensed under the MIT License.
+ */
+package de.hpi.swa.graal.squeak.util;
+
+import java.util.IdentityHashMap;
+
+/**
+ * The forwarding pointers of a one-way become. All pointers are forwarded at once, so that a
+ * pointer that is forwarded to another forwarded object is not forwarded again. Forwarding a
+ * pointer is a hash probe when there are many pairs, which keeps the heap walk linear in the size
+ * of the heap rather than in heap size times number of pairs.
+ */
+public final class ForwardingTable {
+    private static final int LINEAR_SEARCH_LIMIT = 8;
+
+    private final Object[] from;
+    private final Object[] to;
+    private final IdentityHashMap<Object, Object> targets;
+    private final IdentityHashMap<Object[], Boolean> visitedFrames = new IdentityHashMap<>();
+
+    public ForwardingTable(final Object[] from, final Object[] to) {
+        assert from.length == to.length;
+        this.from = from;
+        this.to = to;
+        if (from.length > LINEAR_SEARCH_LIMIT) {
+            targets = new IdentityHashMap<>(from.length);
+            for (int i = 0; i < from.length; i++) {
+                targets.putIfAbsent(from[i], to[i]);
+            }
+        } else {
+            targets = null;
+        }
+    }
+
+    /** Answers the object `pointer` is forwarded to, or `pointer` itself. */
+    public Object forward(final Object pointer) {
+        if (targets != null) {
+            final Object target = targets.get(pointer);
+            return target != null ? target : pointer;
+        }
+        for (int i = 0; i < from.length; i++) {
+            if (from[i] == pointer) {
+                return to[i];
+            }
+        }
+        return pointer;
+    }
+
+    /** Forwards all pointers in `pointers` in place. */
+    public void forwardAll(final Object[] pointers) {
+        for (int i = 0; i < pointers.length; i++) {
+            pointers[i] = forward(pointers[i]);
+        }
+    }
+
+    /**
+     * Answers whether the frame with `frameArguments` has not been visited yet. Frames are reached
+     * through their contexts and through the Truffle stack, but must be forwarded only once.
+     */
+    public boolean tryToVisitFrame(final Object[] frameArguments) {
+        return visitedFrames.put(frameArguments, Boolean.TRUE) == null;
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2017-2020 Software Architecture Group, Hasso Plattner Institute
+ *
+ * Licensed under the MIT License.
+ */
+package de.hpi.swa.graal.squeak.util;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.Map;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.TruffleOptions;
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.GcInfo;
+
+/**
+ * Garbage collection figures for vmParameterAt:, collected from the notifications the JVM's
+ * garbage collector beans send for every completed collection. Minor collections are reported as
+ * scavenges, major collections as full GCs. A minor collection that grows the old generation
+ * counts as a tenure.
+ */
+public final class GarbageCollectionStatistics implements NotificationListener {
+    private static final String MINOR_GC_ACTION = "end of minor GC";
+
+    private static GarbageCollectionStatistics instance;
+
+    private final boolean isListening;
+    private final long jvmStartTime = ManagementFactory.getRuntimeMXBean().getStartTime();
+
+    /* Notifications are delivered by a single thread, so there is only one writer. */
+    private volatile long scavenges;
+    private volatile long scavengeMillis;
+    private volatile long fullGCs;
+    private volatile long fullGCMillis;
+    private volatile long tenures;
+    private volatile long lastScavengeMillis;
+    private volatile long lastEndTime;
+
+    private GarbageCollectionStatistics() {
+        boolean registered = false;
+        if (!TruffleOptions.AOT) {
+            for (final GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+                if (gcBean instanceof NotificationEmitter) {
+                    ((NotificationEmitter) gcBean).addNotificationListener(this, null, null);
+                    registered = true;
+                }
+            }
+        }
+        isListening = registered;
+    }
+
+    /** Answers the statistics of this JVM and starts collecting them on first use. */
+    @TruffleBoundary
+    public static synchronized GarbageCollectionStatistics get() {
+        if (instance == null) {
+            instance = new GarbageCollectionStatistics();
+        }
+        return instance;
+    }
+
+    @Override
+    public void handleNotification(final Notification notification, final Object handback) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            return;
+        }
+        final GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        final GcInfo gcInfo = info.getGcInfo();
+        final long duration = gcInfo.getDuration();
+        if (MINOR_GC_ACTION.equals(info.getGcAction())) {
+            scavenges++;
+            scavengeMillis += duration;
+            lastScavengeMillis = duration;
+            if (hasGrownOldGeneration(gcInfo)) {
+                tenures++;
+            }
+        } else {
+            fullGCs++;
+            fullGCMillis += duration;
+        }
+        lastEndTime = jvmStartTime + gcInfo.getEndTime();
+    }
+
+    private static boolean hasGrownOldGeneration(final GcInfo gcInfo) {
+        final Map<String, MemoryUsage> before = gcInfo.getMemoryUsageBeforeGc();
+        for (final Map.Entry<String, MemoryUsage> after : gcInfo.getMemoryUsageAfterGc().entrySet()) {
+            if (isOldGenerationPool(after.getKey())) {
+                final MemoryUsage usageBefore = before.get(after.getKey());
+                if (usageBefore != null && after.getValue().getUsed() > usageBefore.getUsed()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public long getFullGCs() {
+        return isListening ? fullGCs : MiscUtils.getCollectionCount();
+    }
+
+    public long getFullGCMillis() {
+        return isListening ? fullGCMillis : MiscUtils.getCollectionTime();
+    }
+
+    public long getScavenges() {
+        return scavenges;
+    }
+
+    public long getScavengeMillis() {
+        return scavengeMillis;
+    }
+
+    public long getTenures() {
+        return tenures;
+    }
+
+    public long getLastScavengeMillis() {
+        return lastScavengeMillis;
+    }
+
+    /** Answers when the last collection completed in milliseconds since the epoch, or 0. */
+    public long getLastEndTime() {
+        return lastEndTime;
+    }
+
+    /*
+     * Memory pool sizes. HotSpot names its pools after the generation they belong to (e.g.,
+     * "PS Eden Space", "G1 Survivor Space", "Tenured Gen", "CMS Old Gen").
+     */
+
+    @TruffleBoundary
+    public static long getEdenSize() {
+        long size = 0;
+        for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getName().contains("Eden")) {
+                size += pool.getUsage().getCommitted();
+            }
+        }
+        return size;
+    }
+
+    @TruffleBoundary
+    public static long getYoungSpaceSize() {
+        long size = 0;
+        for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && !isOldGenerationPool(pool.getName())) {
+                size += pool.getUsage().getCommitted();
+            }
+        }
+        return size;
+    }
+
+    @TruffleBoundary
+    public static long getOldSpaceSize() {
+        long size = 0;
+        for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && isOldGenerationPool(pool.getName())) {
+                size += pool.getUsage().getCommitted();
+            }
+        }
+        return size;
+    }
+
+    private static boolean isOldGenerationPool(final String name) {
+        return name.contains("Old") || name.contains("Tenured");
+    }
+}
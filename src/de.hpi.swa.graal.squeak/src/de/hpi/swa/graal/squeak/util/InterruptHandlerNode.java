@@ -44,6 +44,9 @@ public final class InterruptHandlerNode extends Node {
     }
 
     public void executeTrigger(final VirtualFrame frame) {
+        if (istate.shouldTrigger()) { // Count only checks requested by the timer thread.
+            istate.countInterruptCheck();
+        }
         if (istate.interruptPending()) {
             /* Exclude user interrupt case from compilation. */
             CompilerDirectives.transferToInterpreter();
@@ -57,9 +60,8 @@ public final class InterruptHandlerNode extends Node {
             assert LOG.fine("Signalling timer semaphore @%s in interrupt handler", c -> c.add(Integer.toHexString(istate.getTimerSemaphore().hashCode())));
             signalSemaporeNode.executeSignal(frame, istate.getTimerSemaphore());
         }
-        if (istate.pendingFinalizationSignals()) { // signal any pending finalizations
+        if (istate.takePendingFinalizationSignals()) { // signal any pending finalizations
             pendingFinalizationSignalsProfile.enter();
-            istate.setPendingFinalizations(false);
             assert LOG.fine("Signalling finalization semaphore @%s in interrupt handler", c -> c.add(Integer.toHexString(specialObjects[SPECIAL_OBJECT.THE_FINALIZATION_SEMAPHORE].hashCode())));
             signalSemaporeNode.executeSignal(frame, specialObjects[SPECIAL_OBJECT.THE_FINALIZATION_SEMAPHORE]);
         }
@@ -5,12 +5,15 @@
  */
 package de.hpi.swa.graal.squeak.util;
 
+import static de.hpi.swa.graal.squeak.util.LoggerWrapper.Name.GC;
 import static de.hpi.swa.graal.squeak.util.LoggerWrapper.Name.INTERRUPTS;
 
-import java.util.ArrayDeque;
+import java.lang.ref.ReferenceQueue;
+import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 
 import com.oracle.truffle.api.CompilerAsserts;
@@ -24,16 +27,19 @@ import de.hpi.swa.graal.squeak.model.layout.ObjectLayouts.SPECIAL_OBJECT;
 
 public final class InterruptHandlerState {
     private static final LoggerWrapper LOG = LoggerWrapper.get(INTERRUPTS, Level.FINER);
+    private static final LoggerWrapper GC_LOG = LoggerWrapper.get(GC, Level.FINE);
     private static final int INTERRUPT_CHECKS_EVERY_N_MILLISECONDS = 3;
 
     private final SqueakImageContext image;
     private ScheduledThreadPoolExecutor executor;
-    private final ArrayDeque<Integer> semaphoresToSignal = new ArrayDeque<>();
+    /* Signalled from other threads, e.g. by the display or by subprocess pipes. */
+    private final ConcurrentLinkedDeque<Integer> semaphoresToSignal = new ConcurrentLinkedDeque<>();
 
     private boolean isActive = true;
     protected long nextWakeupTick = 0;
     protected boolean interruptPending = false;
-    private boolean pendingFinalizationSignals = false;
+    /* Set by the finalization thread and cleared atomically, so that no signal gets lost. */
+    private final AtomicBoolean pendingFinalizationSignals = new AtomicBoolean(false);
 
     /**
      * `shouldTrigger` is set to `true` by a dedicated thread. To guarantee atomicity, it would be
@@ -46,9 +52,17 @@ public final class InterruptHandlerState {
     @CompilationFinal private PointersObject interruptSemaphore;
     private PointersObject timerSemaphore;
     private ScheduledFuture<?> interruptChecks;
+    private Thread finalizationThread;
 
     private int count;
 
+    /* Statistics for vmParameterAt:. */
+    private long processSwitchCount;
+    private long ioProcessEventsCount;
+    /* Only written by the timer thread, volatile so that the interpreter sees its updates. */
+    private volatile long forcedInterruptCheckCount;
+    private long interruptCheckCount;
+
     private InterruptHandlerState(final SqueakImageContext image) {
         this.image = image;
         if (image.options.disableInterruptHandler) {
@@ -62,6 +76,11 @@ public final class InterruptHandlerState {
 
     @TruffleBoundary
     public void start() {
+        GarbageCollectionStatistics.get(); /* Start counting collections. */
+        /* Weak references are cleared regardless of the timer, so always drain their queue. */
+        finalizationThread = new Thread(this::processClearedWeakReferences, "GraalSqueak Finalization");
+        finalizationThread.setDaemon(true);
+        finalizationThread.start();
         if (image.options.disableInterruptHandler) {
             return;
         }
@@ -80,6 +99,7 @@ public final class InterruptHandlerState {
         executor = new ScheduledThreadPoolExecutor(1);
         executor.setRemoveOnCancelPolicy(true);
         interruptChecks = executor.scheduleWithFixedDelay(() -> {
+            forcedInterruptCheckCount++;
             shouldTrigger = true;
         }, INTERRUPT_CHECKS_EVERY_N_MILLISECONDS, INTERRUPT_CHECKS_EVERY_N_MILLISECONDS, TimeUnit.MILLISECONDS);
     }
@@ -89,6 +109,30 @@ public final class InterruptHandlerState {
         if (executor != null) {
             executor.shutdown();
         }
+        if (finalizationThread != null) {
+            finalizationThread.interrupt();
+        }
+    }
+
+    /*
+     * Runs on the finalization thread, which blocks until the JVM clears weak references of weak
+     * objects, so that the finalization semaphore is signalled without forcing a collection.
+     */
+    private void processClearedWeakReferences() {
+        final ReferenceQueue<Object> queue = image.weakPointersQueue;
+        try {
+            while (true) {
+                queue.remove();
+                int count = 1;
+                while (queue.poll() != null) {
+                    count++;
+                }
+                assert GC_LOG.fine("Number of cleared weak references: %d", count);
+                pendingFinalizationSignals.set(true);
+            }
+        } catch (final InterruptedException e) {
+            /* Interrupt handler has been shut down. */
+        }
     }
 
     public void setInterruptPending() {
@@ -148,12 +192,9 @@ public final class InterruptHandlerState {
         return false;
     }
 
-    public void setPendingFinalizations(final boolean value) {
-        pendingFinalizationSignals = value;
-    }
-
-    protected boolean pendingFinalizationSignals() {
-        return pendingFinalizationSignals;
+    /** Answers whether finalizations are pending and clears the flag in the same step. */
+    protected boolean takePendingFinalizationSignals() {
+        return pendingFinalizationSignals.get() && pendingFinalizationSignals.getAndSet(false);
     }
 
     protected boolean hasSemaphoresToSignal() {
@@ -164,6 +205,34 @@ public final class InterruptHandlerState {
         return semaphoresToSignal.pollFirst();
     }
 
+    public void countProcessSwitch() {
+        processSwitchCount++;
+    }
+
+    public void countIOProcessEvents() {
+        ioProcessEventsCount++;
+    }
+
+    protected void countInterruptCheck() {
+        interruptCheckCount++;
+    }
+
+    public long getProcessSwitches() {
+        return processSwitchCount;
+    }
+
+    public long getIOProcessEvents() {
+        return ioProcessEventsCount;
+    }
+
+    public long getForcedInterruptChecks() {
+        return forcedInterruptCheckCount;
+    }
+
+    public long getInterruptChecks() {
+        return interruptCheckCount;
+    }
+
     public static int getInterruptChecksEveryNms() {
         return INTERRUPT_CHECKS_EVERY_N_MILLISECONDS;
     }
@@ -216,7 +285,7 @@ public final class InterruptHandlerState {
         }
         shutdown();
         interruptPending = false;
-        pendingFinalizationSignals = false;
+        pendingFinalizationSignals.set(false);
         semaphoresToSignal.clear();
     }
 }
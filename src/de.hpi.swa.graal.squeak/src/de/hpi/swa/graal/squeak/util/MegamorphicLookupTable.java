@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2017-2020 Software Architecture Group, Hasso Plattner Institute
+ *
+ * Licensed under the MIT License.
+ */
+package de.hpi.swa.graal.squeak.util;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.WeakHashMap;
+
+import com.oracle.truffle.api.Assumption;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+import de.hpi.swa.graal.squeak.model.ClassObject;
+import de.hpi.swa.graal.squeak.model.NativeObject;
+
+/**
+ * Lookup results of one selector for all receiver classes, shared by all send sites of that
+ * selector that have seen too many receiver classes to cache them locally. An entry is valid as
+ * long as the method dictionaries and superclasses of all classes visited by its lookup are
+ * unchanged, so a probe costs one hash lookup instead of a walk through the method dictionaries.
+ * Once an entry turns out to be invalid, all invalid entries are dropped.
+ *
+ * <p>
+ * The table does not keep classes or methods alive. {@link ClassObject} does not override `equals`
+ * and `hashCode`, so a {@link WeakHashMap} compares its keys by identity. Methods are only weakly
+ * referenced, because a method usually references its own class through its literals.
+ * </p>
+ */
+public final class MegamorphicLookupTable {
+    private final NativeObject selector;
+    private final WeakHashMap<ClassObject, Entry> entries = new WeakHashMap<>();
+
+    private static final class Entry {
+        /* `null` if the lookup ends in doesNotUnderstand. */
+        private final WeakReference<Object> method;
+        private final Assumption[] assumptions;
+
+        private Entry(final Object method, final Assumption[] assumptions) {
+            this.method = method == null ? null : new WeakReference<>(method);
+            this.assumptions = assumptions;
+        }
+
+        private Object getMethod() {
+            return method == null ? null : method.get();
+        }
+
+        private boolean isValid() {
+            if (method != null && method.get() == null) {
+                return false;
+            }
+            for (final Assumption assumption : assumptions) {
+                if (!assumption.isValid()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    public MegamorphicLookupTable(final NativeObject selector) {
+        this.selector = selector;
+    }
+
+    /** Answers the method for instances of `classObject`, or `null` for doesNotUnderstand. */
+    @TruffleBoundary
+    public Object lookup(final ClassObject classObject) {
+        final Entry entry = entries.get(classObject);
+        if (entry != null) {
+            final Object method = entry.getMethod(); // Keeps the method alive while validating.
+            if (entry.isValid()) {
+                return method;
+            }
+            removeInvalidEntries();
+        }
+        return lookupAndPut(classObject);
+    }
+
+    private void removeInvalidEntries() {
+        final Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (!iterator.next().isValid()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private Object lookupAndPut(final ClassObject classObject) {
+        final ArrayList<Assumption> assumptions = new ArrayList<>();
+        ClassObject lookupClass = classObject;
+        Object method = null;
+        while (lookupClass != null) {
+            assumptions.add(lookupClass.getMethodDictStable());
+            assumptions.add(lookupClass.getClassHierarchyStable());
+            method = lookupClass.lookupInOwnMethodDictSlow(selector);
+            if (method != null) {
+                break;
+            }
+            lookupClass = lookupClass.getSuperclassOrNull();
+        }
+        entries.put(classObject, new Entry(method, assumptions.toArray(new Assumption[0])));
+        return method;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+}
@@ -10,6 +10,7 @@ import java.lang.management.CompilationMXBean;
 import java.lang.management.GarbageCollectorMXBean;
 import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
 import java.lang.management.RuntimeMXBean;
 import java.nio.charset.StandardCharsets;
 import java.security.SecureRandom;
@@ -190,6 +191,14 @@ public final class MiscUtils {
         return String.format("GRAAL_VERSION=%s\nGRAAL_HOME=%s", graalVMVersion, graalVMHome);
     }
 
+    /** Answers how many more bytes the heap can hold without growing beyond its maximum size. */
+    @TruffleBoundary
+    public static long getHeapMemoryFree() {
+        final MemoryUsage usage = MEMORY_BEAN.getHeapMemoryUsage();
+        final long max = usage.getMax() >= 0 ? usage.getMax() : usage.getCommitted();
+        return Math.max(max - usage.getUsed(), 0);
+    }
+
     @TruffleBoundary
     public static long getHeapMemoryMax() {
         return MEMORY_BEAN.getHeapMemoryUsage().getMax();
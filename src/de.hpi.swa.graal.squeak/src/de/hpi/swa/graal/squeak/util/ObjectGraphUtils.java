@@ -56,13 +56,12 @@ public final class ObjectGraphUtils {
     }
 
     @TruffleBoundary
-    public static void pointersBecomeOneWay(final SqueakImageContext image, final SqueakObjectPointersBecomeOneWayNode pointersBecomeNode, final Object[] fromPointers,
-                    final Object[] toPointers, final boolean copyHash) {
+    public static void pointersBecomeOneWay(final SqueakImageContext image, final SqueakObjectPointersBecomeOneWayNode pointersBecomeNode, final ForwardingTable forwarding) {
         final ObjectTracer pending = new ObjectTracer(image);
         AbstractSqueakObjectWithHash currentObject;
         while ((currentObject = pending.getNextPending()) != null) {
             if (currentObject.tryToMark(pending.getCurrentMarkingFlag())) {
-                pointersBecomeNode.execute(currentObject, fromPointers, toPointers, copyHash);
+                pointersBecomeNode.execute(currentObject, forwarding);
                 pending.tracePointers(currentObject);
             }
         }